@@ -0,0 +1,3 @@
+@echo off
+java -cp javatari.jar main.HeadlessRunner %*
+pause
@@ -2,17 +2,22 @@
 
 package atari.board;
 
-import parameters.Parameters;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import utils.Randomizer;
 import general.board.BUS16Bits;
 import atari.cartridge.Cartridge;
+import atari.cartridge.CartridgePagesListener;
+import atari.console.ConsoleConfiguration;
 import atari.pia.PIA;
 import atari.pia.RAM;
 import atari.tia.TIA;
 
-public final class BUS implements BUS16Bits {
+public final class BUS implements BUS16Bits, CartridgePagesListener {
 
-	public BUS(TIA tia, PIA pia, RAM ram) {
+	public BUS(TIA tia, PIA pia, RAM ram, ConsoleConfiguration configuration) {
+		dataRetention = configuration.busDataRetention;
 		this.ram = ram;
 		this.tia = tia;
 		this.pia = pia;
@@ -29,8 +34,15 @@ public final class BUS implements BUS16Bits {
 
 	@Override
 	public byte readByte(int address) {
+		// Page mapped directly to Cartridge ROM or RAM?
+		int page = (address >> 8) & PAGE_MASK;
+		byte[] bytes = pageBytes[page];
+		if (bytes != null)
+			return data = bytes[pageOffsets[page] + (address & 0xff)];
+		// Bank-switching hotspot?
+		if (hotspotPages[page] && hotspots[address & ADDRESS_MASK]) cartridge.hotspotRead(address & ADDRESS_MASK);
 		// CART selected?
-		if ((address & CART_MASK) == CART_SEL) {
+		if (page >= CART_FIRST_PAGE) {
 			if (cartridge != null) data = cartridge.readByte(address);	// Cartridge might be disconnected
 			return data; 
 		}
@@ -42,7 +54,7 @@ public final class BUS implements BUS16Bits {
 			return data = pia.readByte(address);
 		// TIA selected...
 		// Only bit 7 and 6 are connected to TIA read registers.
-		if (DATA_RETENTION)
+		if (dataRetention)
 			return data = (byte)(data & 0x3f | tia.readByte(address));  // Use the retained data for bits 5-0
 		else
 			return data = tia.readByte(address);	// As if all bits were provided by TIA
@@ -51,6 +63,11 @@ public final class BUS implements BUS16Bits {
 	@Override
 	public void writeByte(int address, byte b) {
 		data = b;
+		// Page mapped directly? Writes are ignored
+		int page = (address >> 8) & PAGE_MASK;
+		if (pageBytes[page] != null) return;
+		// Bank-switching hotspot?
+		if (hotspotPages[page] && hotspots[address & ADDRESS_MASK]) cartridge.hotspotWritten(address & ADDRESS_MASK, b);
 		// RAM selected?
 		if ((address & RAM_MASK) == RAM_SEL) {
 			ram.writeByte(address, b); return;
@@ -68,7 +85,36 @@ public final class BUS implements BUS16Bits {
 	}
 
 	public void cartridge(Cartridge cartridge) {
+		if (this.cartridge != null) this.cartridge.pagesListener(null);
 		this.cartridge = cartridge;
+		if (cartridge != null) cartridge.pagesListener(this);
+		Arrays.fill(hotspots, false);
+		Arrays.fill(hotspotPages, false);
+		if (cartridge != null)
+			for (int address : cartridge.hotspots()) {
+				hotspots[address & ADDRESS_MASK] = true;
+				hotspotPages[(address & ADDRESS_MASK) >> 8] = true;
+			}
+		cartridgePagesRemapped(cartridge);
+	}
+
+	// Only the Cartridge pages can be mapped directly. The other pages mix TIA, RAM and PIA and are always decoded. Pages with hotspots too
+	@Override
+	public void cartridgePagesRemapped(Cartridge cartridge) {
+		if (cartridge != this.cartridge) return;		// Clones kept in states share the listener
+		for (int p = 0; p < CART_PAGES; p++) {
+			pageBytes[CART_FIRST_PAGE + p] = cartridge != null && !hotspotPages[CART_FIRST_PAGE + p] ? cartridge.pageBytes(p) : null;
+			pageOffsets[CART_FIRST_PAGE + p] = cartridge != null ? cartridge.pageOffset(p) : 0;
+		}
+	}
+
+	// Only the data retained in the bus. Components connected have their own snapshots
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.put(data);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+		data = buffer.get();
 	}
 
 
@@ -78,9 +124,23 @@ public final class BUS implements BUS16Bits {
 	public final PIA pia;
 
 	private byte data = 0;
+	private final boolean dataRetention;
+
+	// 256 bytes pages of the 8K address space. Entries with an array are read directly from it at the offset
+	private final byte[][] pageBytes = new byte[PAGES][];
+	private final int[] pageOffsets = new int[PAGES];
 
-	private static final int CART_MASK = 0x1000;
-	private static final int CART_SEL = 0x1000;
+	// Bank-switching addresses declared by the Cartridge, and the pages that have any of them
+	private final boolean[] hotspots = new boolean[ADDRESS_MASK + 1];
+	private final boolean[] hotspotPages = new boolean[PAGES];
+
+	public static final int SNAPSHOT_SIZE = 1;
+
+	private static final int ADDRESS_MASK = 0x1fff;
+	private static final int PAGES = 32;
+	private static final int PAGE_MASK = PAGES - 1;
+	private static final int CART_FIRST_PAGE = 16;
+	private static final int CART_PAGES = 16;
 	private static final int RAM_MASK = 0x1280;
 	private static final int RAM_SEL = 0x0080;
 	private static final int TIA_MASK = 0x1080;
@@ -88,6 +148,4 @@ public final class BUS implements BUS16Bits {
 	private static final int PIA_MASK = 0x1280;
 	private static final int PIA_SEL = 0x0280;
 
-	private static final boolean DATA_RETENTION = Parameters.BUS_DATA_RETENTION;
-
 }
@@ -6,7 +6,9 @@ import general.av.video.VideoStandard;
 import general.board.BUS16Bits;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.zip.CRC32;
 
 public abstract class Cartridge implements BUS16Bits, Cloneable, Serializable {
 
@@ -20,12 +22,60 @@ public abstract class Cartridge implements BUS16Bits, Cloneable, Serializable {
 		// Writing to ROMs is possible, but nothing is changed
 	}
 
+	// The ROM content is never copied, so clones share the same read-only image
 	@Override
 	public Cartridge clone() {
 		try { return (Cartridge)super.clone(); } catch (CloneNotSupportedException e) {}
 		return null;
 	}
 
+	// Snapshots have only the mutable state, like bank selection and extra RAM. The ROM content is never written
+	public void saveSnapshot(ByteBuffer buffer) {
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+	}
+
+	public int snapshotSize() {
+		return 0;
+	}
+
+	// Addresses that perform bank-switching when accessed, 0x0000 to 0x1fff, so formats may also watch the TIA, RAM or PIA addresses.
+	// Declared once by each format. The BUS calls hotspotRead() or hotspotWritten() only when one of them is accessed, then goes on with the access
+	public int[] hotspots() {
+		return NO_HOTSPOTS;
+	}
+
+	public void hotspotRead(int address) {
+	}
+
+	public void hotspotWritten(int address, byte b) {
+	}
+
+	// The BUS reads the pages that map plainly to ROM or RAM straight from the array returned, at the page offset, and ignores writes to them.
+	// Pages are 256 bytes, 0 to 15. Pages with extra RAM writes return null, and go through readByte() and writeByte(). Pages with hotspots always do
+	public byte[] pageBytes(int page) {
+		return bytes;
+	}
+
+	public int pageOffset(int page) {
+		return page << 8;
+	}
+
+	public void pagesListener(CartridgePagesListener listener) {
+		pagesListener = listener;
+	}
+
+	// Identifies the ROM content, so snapshots can refer to it without copying. Size in the high bits, CRC32 in the low bits
+	public long contentHash() {
+		if (contentHash == 0) {
+			CRC32 crc = new CRC32();
+			crc.update(bytes);
+			contentHash = (long)bytes.length << 32 | crc.getValue();
+		}
+		return contentHash;
+	}
+
 	public VideoStandard suggestedVideoStandard() {
 		return suggestedVideoStandard;
 	}
@@ -37,20 +87,39 @@ public abstract class Cartridge implements BUS16Bits, Cloneable, Serializable {
 	protected int maskAddress(int address) {
 		return address & 0x0fff;
 	}
+
+	// Must be called whenever the result of pageBytes() or pageOffset() changes
+	protected void pagesRemapped() {
+		if (pagesListener != null) pagesListener.cartridgePagesRemapped(this);
+	}
 	
 	protected void setContent(byte[] content) {
 		bytes = content;
+		contentHash = 0;
 	}
 	
+	protected static int[] hotspotsRange(int first, int last) {
+		int[] hotspots = new int[last - first + 1];
+		for (int i = 0; i < hotspots.length; i++)
+			hotspots[i] = first + i;
+		return hotspots;
+	}
+
 	protected void emptyContent(int size) {
 		bytes = new byte[size];
 		Arrays.fill(bytes, (byte)0x00);
+		contentHash = 0;
 	}
 	
 	protected byte[] bytes;
 	
+	private transient long contentHash = 0;		// Computed when first needed
+	private transient CartridgePagesListener pagesListener;
+	
 	private VideoStandard suggestedVideoStandard = null;
 
+	private static final int[] NO_HOTSPOTS = new int[0];
+
 	public static final long serialVersionUID = 1L;
 
 }
@@ -2,6 +2,8 @@
 
 package atari.cartridge;
 
+import atari.cartridge.bankswitching.CartridgeFormat;
+
 /**
  * Implements the 4K and 2K unbanked format
  */
@@ -26,5 +28,19 @@ public final class Cartridge4K extends Cartridge {
 
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("4K", "Atari 4K or 2K", SIZE, false);
+		}
+		@Override
+		public Cartridge4K create(byte[] content, Boolean superChip) {
+			return new Cartridge4K(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE || content.length == HALF_SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
@@ -0,0 +1,10 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge;
+
+// Notified when the direct page mapping of a Cartridge changes, as after a bank-switch or a snapshot load
+public interface CartridgePagesListener {
+
+	public void cartridgePagesRemapped(Cartridge cartridge);
+
+}
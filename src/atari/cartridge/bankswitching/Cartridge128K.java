@@ -0,0 +1,41 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+/**
+ * Implements the 128K "DF" and "DFSC" bank switching method
+ */
+public final class Cartridge128K extends CartridgeBanked {
+
+	public Cartridge128K(byte[] content, Boolean superChip) {
+		super(content, superChip, 128);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	public static final int SIZE = 128 * 1024;
+
+	private static final int[] HOTSPOTS = hotspotsRange(0x1fc0, 0x1fdf);		// Bank 0 to 31 selection
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("DF", "Extended 128K", SIZE, true);
+		}
+		@Override
+		public Cartridge128K create(byte[] content, Boolean superChip) {
+			return new Cartridge128K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
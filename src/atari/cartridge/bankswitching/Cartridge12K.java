@@ -14,25 +14,29 @@ public final class Cartridge12K extends CartridgeBanked {
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			case 0x0ff8:	// bank 0 selection
-				bankAddressOffset = 0;
-				break;
-			case 0x0ff9:	// bank 1 selection
-				bankAddressOffset = 4096;
-				break;
-			case 0x0ffa:	// bank 2 selection
-				bankAddressOffset = 8192;
-		}
-		return add;
+	public int[] hotspots() {
+		return HOTSPOTS;
 	}
 
 	public static final int SIZE = 12288;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1ff8, 0x1ffa);		// Bank 0 to 2 selection
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("FA", "CBS RAM Plus 12K", SIZE, false);
+		}
+		@Override
+		public Cartridge12K create(byte[] content, Boolean superChip) {
+			return new Cartridge12K(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
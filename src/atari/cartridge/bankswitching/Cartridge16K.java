@@ -14,28 +14,29 @@ public final class Cartridge16K extends CartridgeBanked {
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			case 0x0ff6:	// bank 0 selection
-				bankAddressOffset = 0;
-				break;
-			case 0x0ff7:	// bank 1 selection
-				bankAddressOffset = 4096;
-				break;
-			case 0x0ff8:	// bank 2 selection
-				bankAddressOffset = 8192;
-				break;
-			case 0x0ff9:	// bank 3 selection
-				bankAddressOffset = 12288;
-		}
-		return add;
+	public int[] hotspots() {
+		return HOTSPOTS;
 	}
 
 	public static final int SIZE = 16384;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1ff6, 0x1ff9);		// Bank 0 to 3 selection
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("F6", "Atari 16K", SIZE, true);
+		}
+		@Override
+		public Cartridge16K create(byte[] content, Boolean superChip) {
+			return new Cartridge16K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
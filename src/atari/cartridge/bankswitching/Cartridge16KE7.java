@@ -0,0 +1,142 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+import java.nio.ByteBuffer;
+
+import atari.cartridge.Cartridge;
+
+/**
+ * Implements the 16K "E7" M-Network bank switching method, with 2K of extra RAM.
+ * 0x1000 - 0x17ff has one of the first 7 2K banks, selected at 0x1fe0 - 0x1fe6, or the 1K RAM, selected at 0x1fe7 (write at 0x1000, read at 0x1400).
+ * 0x1800 - 0x19ff has one of 4 256 bytes RAM banks, selected at 0x1fe8 - 0x1feb (write at 0x1800, read at 0x1900).
+ * 0x1a00 - 0x1fff is always the end of the last 2K bank
+ */
+public final class Cartridge16KE7 extends Cartridge {
+
+	public Cartridge16KE7(byte[] content) {
+		super();
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+		setContent(content);
+	}
+
+	@Override
+	public byte readByte(int address) {
+		int add = maskAddress(address);
+		if (add < 0x0800) {
+			if (ramSelected) return extraRAM[add & 0x03ff];
+			return bytes[add + bankAddressOffset];
+		}
+		if (add < 0x0a00)
+			return extraRAM[RAM_BANKS_START + ramBankAddressOffset + (add & 0xff)];
+		return bytes[add + FIXED_AREA_OFFSET];
+	}
+
+	@Override
+	public void writeByte(int address, byte b) {
+		int add = maskAddress(address);
+		if (add < 0x0400) {
+			if (ramSelected) extraRAM[add] = b;
+		} else if (add >= 0x0800 && add < 0x0900)
+			extraRAM[RAM_BANKS_START + ramBankAddressOffset + (add & 0xff)] = b;
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	@Override
+	public void hotspotRead(int address) {
+		int add = maskAddress(address);
+		if (add < 0x0fe7) {			// ROM bank selection
+			bankAddressOffset = (add - 0x0fe0) * BANK_SIZE;
+			ramSelected = false;
+		} else if (add == 0x0fe7)		// 1K RAM selection
+				ramSelected = true;
+			else		// 256 bytes RAM bank selection
+				ramBankAddressOffset = (add - 0x0fe8) * 0x0100;
+		pagesRemapped();
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		hotspotRead(address);
+	}
+
+	// RAM write pages go through writeByte()
+	@Override
+	public byte[] pageBytes(int page) {
+		if (page < 8) return !ramSelected ? bytes : page < 4 ? null : extraRAM;
+		if (page == 8) return null;
+		if (page == 9) return extraRAM;
+		return bytes;
+	}
+
+	@Override
+	public int pageOffset(int page) {
+		if (page < 8) return !ramSelected ? (page << 8) + bankAddressOffset : ((page - 4) << 8);
+		if (page == 9) return RAM_BANKS_START + ramBankAddressOffset;
+		return (page << 8) + FIXED_AREA_OFFSET;
+	}
+
+	@Override
+	public Cartridge16KE7 clone() {
+		Cartridge16KE7 clone = (Cartridge16KE7)super.clone();
+		clone.extraRAM = extraRAM.clone();
+		return clone;
+	}
+
+	@Override
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putInt(bankAddressOffset).putInt(ramBankAddressOffset);
+		buffer.put(ramSelected ? (byte)1 : (byte)0);
+		buffer.put(extraRAM);
+	}
+
+	@Override
+	public void loadSnapshot(ByteBuffer buffer) {
+		bankAddressOffset = buffer.getInt();
+		ramBankAddressOffset = buffer.getInt();
+		ramSelected = buffer.get() != 0;
+		buffer.get(extraRAM);
+		pagesRemapped();
+	}
+
+	@Override
+	public int snapshotSize() {
+		return 4 + 4 + 1 + extraRAM.length;
+	}
+
+	private int bankAddressOffset = 0;
+	private boolean ramSelected = false;
+	private int ramBankAddressOffset = 0;
+	private byte[] extraRAM = new byte[2048];		// 1K RAM then the 4 256 bytes RAM banks
+
+	public static final int SIZE = 16384;
+
+	private static final int BANK_SIZE = 2048;
+	private static final int RAM_BANKS_START = 1024;
+	private static final int FIXED_AREA_OFFSET = 7 * BANK_SIZE - 0x0800;		// Last bank at 0x1800
+	private static final int[] HOTSPOTS = hotspotsRange(0x1fe0, 0x1feb);
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("E7", "M-Network 16K", SIZE, false);
+		}
+		@Override
+		public Cartridge16KE7 create(byte[] content, Boolean superChip) {
+			return new Cartridge16KE7(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			// Same size as F6, which never uses 0x1fe0 - 0x1feb
+			if (content.length != SIZE) return NOT_POSSIBLE;
+			return accessesFound(countAccesses(content, 0x1fe0, 0x1feb), countAccesses(content, 0x1ff6, 0x1ff9)) ? CODE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
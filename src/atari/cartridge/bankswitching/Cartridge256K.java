@@ -0,0 +1,41 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+/**
+ * Implements the 256K "BF" and "BFSC" bank switching method
+ */
+public final class Cartridge256K extends CartridgeBanked {
+
+	public Cartridge256K(byte[] content, Boolean superChip) {
+		super(content, superChip, 128);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	public static final int SIZE = 256 * 1024;
+
+	private static final int[] HOTSPOTS = hotspotsRange(0x1f80, 0x1fbf);		// Bank 0 to 63 selection
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("BF", "Extended 256K", SIZE, true);
+		}
+		@Override
+		public Cartridge256K create(byte[] content, Boolean superChip) {
+			return new Cartridge256K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
@@ -14,37 +14,29 @@ public final class Cartridge28K extends CartridgeBanked {
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			case 0x0ff5:	// bank 0 selection
-				bankAddressOffset = 0;
-				break;
-			case 0x0ff6:	// bank 1 selection
-				bankAddressOffset = 4096;
-				break;
-			case 0x0ff7:	// bank 2 selection
-				bankAddressOffset = 8192;
-				break;
-			case 0x0ff8:	// bank 3 selection
-				bankAddressOffset = 12288;
-				break;
-			case 0x0ff9:	// bank 4 selection
-				bankAddressOffset = 16384;
-				break;
-			case 0x0ffa:	// bank 5 selection
-				bankAddressOffset = 16384 + 4096;
-				break;
-			case 0x0ffb:	// bank 6 selection
-				bankAddressOffset = 16384 + 8192;
-		}
-		return add;
+	public int[] hotspots() {
+		return HOTSPOTS;
 	}
 
 	public static final int SIZE = 32768 - 4096;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1ff5, 0x1ffb);		// Bank 0 to 6 selection
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("FA2", "CBS RAM Plus 28K", SIZE, false);
+		}
+		@Override
+		public Cartridge28K create(byte[] content, Boolean superChip) {
+			return new Cartridge28K(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
@@ -14,40 +14,29 @@ public final class Cartridge32K extends CartridgeBanked {
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			case 0x0ff4:	// bank 0 selection
-				bankAddressOffset = 0;
-				break;
-			case 0x0ff5:	// bank 1 selection
-				bankAddressOffset = 4096;
-				break;
-			case 0x0ff6:	// bank 2 selection
-				bankAddressOffset = 8192;
-				break;
-			case 0x0ff7:	// bank 3 selection
-				bankAddressOffset = 12288;
-				break;
-			case 0x0ff8:	// bank 4 selection
-				bankAddressOffset = 16384;
-				break;
-			case 0x0ff9:	// bank 5 selection
-				bankAddressOffset = 16384 + 4096;
-				break;
-			case 0x0ffa:	// bank 6 selection
-				bankAddressOffset = 16384 + 8192;
-				break;
-			case 0x0ffb:	// bank 7 selection
-				bankAddressOffset = 16384 + 12288;
-		}
-		return add;
+	public int[] hotspots() {
+		return HOTSPOTS;
 	}
 
 	public static final int SIZE = 32768;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1ff4, 0x1ffb);		// Bank 0 to 7 selection
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("F4", "Atari 32K", SIZE, true);
+		}
+		@Override
+		public Cartridge32K create(byte[] content, Boolean superChip) {
+			return new Cartridge32K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
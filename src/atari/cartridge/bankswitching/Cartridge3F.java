@@ -0,0 +1,93 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+import java.nio.ByteBuffer;
+
+import atari.cartridge.Cartridge;
+
+/**
+ * Implements the n * 2K "3F" Tigervision bank switching method. Writes to 0x0000 - 0x003f, also seen by the TIA,
+ * select the 2K bank at 0x1000 - 0x17ff by the value written. The last bank is always at 0x1800 - 0x1fff
+ */
+public final class Cartridge3F extends Cartridge {
+
+	public Cartridge3F(byte[] content) {
+		super();
+		if (content.length < MIN_SIZE || content.length > MAX_SIZE || content.length % BANK_SIZE != 0)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+		setContent(content);
+		lastBankAddressOffset = content.length - BANK_SIZE - 0x0800;
+	}
+
+	@Override
+	public byte readByte(int address) {
+		int add = maskAddress(address);
+		return bytes[add + (add < 0x0800 ? bankAddressOffset : lastBankAddressOffset)];
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		int offset = ((b & 0xff) % (bytes.length / BANK_SIZE)) * BANK_SIZE;
+		if (offset == bankAddressOffset) return;
+		bankAddressOffset = offset;
+		pagesRemapped();
+	}
+
+	@Override
+	public int pageOffset(int page) {
+		return (page << 8) + (page < 8 ? bankAddressOffset : lastBankAddressOffset);
+	}
+
+	@Override
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putInt(bankAddressOffset);
+	}
+
+	@Override
+	public void loadSnapshot(ByteBuffer buffer) {
+		bankAddressOffset = buffer.getInt();
+		pagesRemapped();
+	}
+
+	@Override
+	public int snapshotSize() {
+		return 4;
+	}
+
+	private int bankAddressOffset = 0;
+	private final int lastBankAddressOffset;
+
+	public static final int MIN_SIZE = 4096;
+	public static final int MAX_SIZE = 512 * 1024;
+
+	private static final int BANK_SIZE = 2048;
+	private static final int[] HOTSPOTS = hotspotsRange(0x0000, 0x003f);
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("3F", "Tigervision", 8192, false);
+		}
+		@Override
+		public Cartridge3F create(byte[] content, Boolean superChip) {
+			return new Cartridge3F(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			// STA, STX or STY to 0x3f in zero page. No TIA register is there
+			if (content.length < MIN_SIZE || content.length > MAX_SIZE || content.length % BANK_SIZE != 0) return NOT_POSSIBLE;
+			int writes = 0;
+			for (int i = 0; i < content.length - 1; i++)
+				if ((content[i] == (byte)0x85 || content[i] == (byte)0x86 || content[i] == (byte)0x84) && content[i + 1] == 0x3f) writes++;
+			return writes >= 2 ? CODE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
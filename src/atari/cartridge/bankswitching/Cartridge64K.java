@@ -0,0 +1,41 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+/**
+ * Implements the 64K "EF" and "EFSC" bank switching method
+ */
+public final class Cartridge64K extends CartridgeBanked {
+
+	public Cartridge64K(byte[] content, Boolean superChip) {
+		super(content, superChip, 128);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	public static final int SIZE = 64 * 1024;
+
+	private static final int[] HOTSPOTS = hotspotsRange(0x1fe0, 0x1fef);		// Bank 0 to 15 selection
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("EF", "Extended 64K", SIZE, true);
+		}
+		@Override
+		public Cartridge64K create(byte[] content, Boolean superChip) {
+			return new Cartridge64K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+/**
+ * Implements the 64K "F0" bank switching method. Each access to 0x1ff0 selects the next bank, from 15 back to 0
+ */
+public final class Cartridge64KF0 extends CartridgeBanked {
+
+	public Cartridge64KF0(byte[] content) {
+		super(content, false, 0);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	@Override
+	public void hotspotRead(int address) {
+		bank((bankAddressOffset / BANK_SIZE + 1) % BANKS);
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		hotspotRead(address);
+	}
+
+	public static final int SIZE = 64 * 1024;
+
+	private static final int BANKS = SIZE / BANK_SIZE;
+	private static final int[] HOTSPOTS = { 0x1ff0 };		// Next bank selection
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("F0", "Megaboy 64K", SIZE, false);
+		}
+		@Override
+		public Cartridge64KF0 create(byte[] content, Boolean superChip) {
+			return new Cartridge64KF0(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			// Same size as EF, which never uses 0x1ff0
+			if (content.length != SIZE) return NOT_POSSIBLE;
+			return accessesFound(countAccesses(content, 0x1ff0, 0x1ff0), countAccesses(content, 0x1fe0, 0x1fef)) ? CODE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
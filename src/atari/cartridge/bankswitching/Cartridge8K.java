@@ -14,22 +14,29 @@ public final class Cartridge8K extends CartridgeBanked {
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			case 0x0ff8:	// bank 0 selection
-				bankAddressOffset = 0;
-				break;
-			case 0x0ff9:	// bank 1 selection
-				bankAddressOffset = 4096;
-		}
-		return add;
+	public int[] hotspots() {
+		return HOTSPOTS;
 	}
 
 	public static final int SIZE = 8192;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1ff8, 0x1ff9);		// Bank 0 to 1 selection
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("F8", "Atari 8K", SIZE, true);
+		}
+		@Override
+		public Cartridge8K create(byte[] content, Boolean superChip) {
+			return new Cartridge8K(content, superChip);
+		}
+		@Override
+		public int probability(byte[] content) {
+			return content.length == SIZE ? SIZE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
 
@@ -0,0 +1,109 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implements the 8K "FE" bank switching method. After an access to 0x01fe, as JSR and RTS do with the stack,
+ * the next access to the Cartridge selects bank 0 if at 0xf000 - 0xffff, or bank 1 if at 0xd000 - 0xdfff (bit 13 of the address)
+ */
+public final class Cartridge8KFE extends CartridgeBanked {
+
+	public Cartridge8KFE(byte[] content) {
+		super(content, false, 0);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public byte readByte(int address) {
+		if (snooping) snooped(address);
+		return super.readByte(address);
+	}
+
+	@Override
+	public void writeByte(int address, byte b) {
+		if (snooping) snooped(address);
+		super.writeByte(address, b);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	// No page is mapped directly while snooping, so the next access comes through
+	@Override
+	public void hotspotRead(int address) {
+		snooping = true;
+		pagesRemapped();
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		hotspotRead(address);
+	}
+
+	@Override
+	public byte[] pageBytes(int page) {
+		return snooping ? null : super.pageBytes(page);
+	}
+
+	@Override
+	public void saveSnapshot(ByteBuffer buffer) {
+		super.saveSnapshot(buffer);
+		buffer.put(snooping ? (byte)1 : (byte)0);
+	}
+
+	@Override
+	public void loadSnapshot(ByteBuffer buffer) {
+		super.loadSnapshot(buffer);
+		snooping = buffer.get() != 0;
+		pagesRemapped();
+	}
+
+	@Override
+	public int snapshotSize() {
+		return super.snapshotSize() + 1;
+	}
+
+	private void snooped(int address) {
+		snooping = false;
+		bankAddressOffset = (address & 0x2000) != 0 ? 0 : BANK_SIZE;
+		pagesRemapped();
+	}
+
+	private boolean snooping = false;
+
+	public static final int SIZE = 8192;
+
+	private static final int[] HOTSPOTS = { 0x01fe };
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("FE", "Activision 8K", SIZE, false);
+		}
+		@Override
+		public Cartridge8KFE create(byte[] content, Boolean superChip) {
+			return new Cartridge8KFE(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			// Subroutines called in both banks, and no accesses to the F8 or E0 hotspots
+			if (content.length != SIZE) return NOT_POSSIBLE;
+			int bank0Calls = 0, bank1Calls = 0;
+			for (int i = 0; i < content.length - 2; i++) {
+				if (content[i] != 0x20) continue;		// JSR
+				int high = content[i + 2] & 0xf0;
+				if (high == 0xf0) bank0Calls++;
+				else if (high == 0xd0) bank1Calls++;
+			}
+			if (bank0Calls < 2 || bank1Calls < 2 || countAccesses(content, 0x1fe0, 0x1ff9) > 0) return NOT_POSSIBLE;
+			return CODE_MATCH;
+		}
+	}
+
+}
@@ -2,6 +2,8 @@
 
 package atari.cartridge.bankswitching;
 
+import java.nio.ByteBuffer;
+
 import atari.cartridge.Cartridge;
 
 /**
@@ -30,33 +32,57 @@ public  class Cartridge8KSliced extends Cartridge {
 		return bytes[add];	
 	}
 
-	public void writeByte(int address, byte b) {	
-		// Writing to ROMs is possible, but nothing is changed. 
-		// Mask address anyway to perform bank switching as needed
-		maskAddress(address);
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	@Override
+	public void hotspotRead(int address) {
+		// Each bank is 0x0400 bytes each, 0 to 7
+		int add = maskAddress(address);
+		if (add < 0x0fe8)		// Slice 0 bank selection
+			slice0AddressOffset = (add - 0x0fe0) * 0x0400;
+		else if (add < 0x0ff0)		// Slice 1 bank selection
+				slice1AddressOffset = (add - 0x0fe8) * 0x0400;
+			else		// Slice 2 bank selection
+				slice2AddressOffset = (add - 0x0ff0) * 0x0400;
+		// Slice 3 is fixed at bank 7
+		pagesRemapped();
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		hotspotRead(address);
 	}
 
 	@Override
-	protected int maskAddress(int address) {
-		// Check and perform bank-switch as necessary
-		int add = super.maskAddress(address);
-		switch (add) {
-			// Each bank is 0x0400 bytes each, 0 to 7
-			// Slice 0 bank selection
-			case 0x0fe0: case 0x0fe1: case 0x0fe2: case 0x0fe3: case 0x0fe4: case 0x0fe5: case 0x0fe6: case 0x0fe7:	
-				slice0AddressOffset = (add - 0x0fe0) * 0x0400;		
-				break;
-			// Slice 1 bank selection
-			case 0x0fe8: case 0x0fe9: case 0x0fea: case 0x0feb: case 0x0fec: case 0x0fed: case 0x0fee: case 0x0fef:	
-				slice1AddressOffset = (add - 0x0fe8) * 0x0400;		
-				break;
-			// Slice 2 bank selection
-			case 0x0ff0: case 0x0ff1: case 0x0ff2: case 0x0ff3: case 0x0ff4: case 0x0ff5: case 0x0ff6: case 0x0ff7:	
-				slice2AddressOffset = (add - 0x0ff0) * 0x0400;		
-				break;
-			// Slice 3 is fixed at bank 7
+	public int pageOffset(int page) {
+		// 4 pages per slice
+		switch (page >> 2) {
+			case 0: return (page << 8) + slice0AddressOffset;
+			case 1: return (page << 8) - 0x0400 + slice1AddressOffset;
+			case 2: return (page << 8) - 0x0800 + slice2AddressOffset;
+			default: return (page << 8) + 0x1000;
 		}
-		return add;
+	}
+
+	@Override
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putInt(slice0AddressOffset).putInt(slice1AddressOffset).putInt(slice2AddressOffset);
+	}
+
+	@Override
+	public void loadSnapshot(ByteBuffer buffer) {
+		slice0AddressOffset = buffer.getInt();
+		slice1AddressOffset = buffer.getInt();
+		slice2AddressOffset = buffer.getInt();
+		pagesRemapped();
+	}
+
+	@Override
+	public int snapshotSize() {
+		return 3 * 4;
 	}
 
 	private int slice0AddressOffset = 0;
@@ -66,6 +92,24 @@ public  class Cartridge8KSliced extends Cartridge {
 
 	public static final int SIZE = 8192;
 
+	private static final int[] HOTSPOTS = hotspotsRange(0x1fe0, 0x1ff7);		// Slice 0 to 2 bank selections
+
 	public static final long serialVersionUID = 1L;
 
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("E0", "Parker Bros 8K", SIZE, false);
+		}
+		@Override
+		public Cartridge8KSliced create(byte[] content, Boolean superChip) {
+			return new Cartridge8KSliced(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			// Slices 0 and 1 selections are never used by F8
+			if (content.length != SIZE) return NOT_POSSIBLE;
+			return accessesFound(countAccesses(content, 0x1fe0, 0x1fef), countAccesses(content, 0x1ff8, 0x1ff9)) ? CODE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
 }
\ No newline at end of file
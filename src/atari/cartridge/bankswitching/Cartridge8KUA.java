@@ -0,0 +1,55 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+/**
+ * Implements the 8K "UA" bank switching method. Banks are selected by accesses to 0x0220 and 0x0240, out of the Cartridge space
+ */
+public final class Cartridge8KUA extends CartridgeBanked {
+
+	public Cartridge8KUA(byte[] content) {
+		super(content, false, 0);
+		if (content.length != SIZE)
+			throw new IllegalStateException("Invalid size for " + this.getClass().getName() + ": " + content.length);
+	}
+
+	@Override
+	public int[] hotspots() {
+		return HOTSPOTS;
+	}
+
+	@Override
+	public void hotspotRead(int address) {
+		bank((address & 0x0040) != 0 ? 1 : 0);
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		hotspotRead(address);
+	}
+
+	public static final int SIZE = 8192;
+
+	private static final int[] HOTSPOTS = { 0x0220, 0x0240, 0x02a0, 0x02c0 };		// Bank 0 and 1 selection, and their mirrors
+
+	public static final long serialVersionUID = 1L;
+
+	public static final class Format extends CartridgeFormat {
+		public Format() {
+			super("UA", "UA Limited 8K", SIZE, false);
+		}
+		@Override
+		public Cartridge8KUA create(byte[] content, Boolean superChip) {
+			return new Cartridge8KUA(content);
+		}
+		@Override
+		public int probability(byte[] content) {
+			if (content.length != SIZE) return NOT_POSSIBLE;
+			int accesses = 0;
+			for (int hotspot : HOTSPOTS)
+				accesses += countAccesses(content, hotspot, hotspot);
+			return accessesFound(accesses, countAccesses(content, 0x1ff8, 0x1ff9)) ? CODE_MATCH : NOT_POSSIBLE;
+		}
+	}
+
+}
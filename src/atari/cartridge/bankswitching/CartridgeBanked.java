@@ -2,13 +2,14 @@
 
 package atari.cartridge.bankswitching;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import atari.cartridge.Cartridge;
 
 /**
  * Implements the generic bank switching method, with or without SuperChip (extra RAM). 
- * Used by several n * 4K bank formats with varying extra RAM sizes
+ * Used by several n * 4K bank formats with varying extra RAM sizes. Bank n is selected by the hotspot n declared
  */
 public abstract class CartridgeBanked extends Cartridge {
 
@@ -29,7 +30,6 @@ public abstract class CartridgeBanked extends Cartridge {
 
 	@Override
 	public byte readByte(int address) {		
-		// Masking address will perform bank-switching as needed
 		int addr = maskAddress(address);
 		// Check for SuperChip Extra RAM reads
 		if (superChipMode && (addr >= extraRAMSize) && (addr < extraRAMSize * 2))
@@ -41,18 +41,53 @@ public abstract class CartridgeBanked extends Cartridge {
 
 	@Override
 	public void writeByte(int address, byte b) {	
-		// Masking address will perform bank-switching as needed
 		int addr = maskAddress(address);
 		// Check for Extra RAM writes and then turn superChip mode on
 		if (addr < extraRAMSize && (superChipMode || superChipAutoDetect)) {
 			if (!superChipMode) {
 				System.out.println(">>>> SuperChip ON");
 				superChipMode = true;
+				pagesRemapped();
 			}
 			extraRAM[addr] = b;
 		}
 	}
 
+	@Override
+	public void hotspotRead(int address) {
+		bank(address - hotspots()[0]);
+	}
+
+	@Override
+	public void hotspotWritten(int address, byte b) {
+		bank(address - hotspots()[0]);
+	}
+
+	@Override
+	public byte[] pageBytes(int page) {
+		int start = page << 8;
+		if (start < extraRAMSize * 2 && (superChipMode || superChipAutoDetect)) {
+			// Only whole pages of the Extra RAM read area can be mapped directly
+			if (superChipMode && start >= extraRAMSize && start + 0x100 <= extraRAMSize * 2) return extraRAM;
+			return null;
+		}
+		return bytes;
+	}
+
+	@Override
+	public int pageOffset(int page) {
+		int start = page << 8;
+		if (superChipMode && start >= extraRAMSize && start < extraRAMSize * 2) return start - extraRAMSize;
+		return start + bankAddressOffset;
+	}
+
+	protected void bank(int bank) {
+		int offset = bank * BANK_SIZE;
+		if (offset == bankAddressOffset) return;
+		bankAddressOffset = offset;
+		pagesRemapped();
+	}
+
 	@Override
 	public CartridgeBanked clone() {
 		CartridgeBanked clone = (CartridgeBanked)super.clone();
@@ -60,12 +95,34 @@ public abstract class CartridgeBanked extends Cartridge {
 		return clone;
 	}
 
+	@Override
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putInt(bankAddressOffset);
+		buffer.put(superChipMode ? (byte)1 : (byte)0);
+		if (extraRAM != null) buffer.put(extraRAM);
+	}
+
+	@Override
+	public void loadSnapshot(ByteBuffer buffer) {
+		bankAddressOffset = buffer.getInt();
+		superChipMode = buffer.get() != 0;
+		if (extraRAM != null) buffer.get(extraRAM);
+		pagesRemapped();
+	}
+
+	@Override
+	public int snapshotSize() {
+		return 4 + 1 + (extraRAM != null ? extraRAM.length : 0);
+	}
+
 	protected int bankAddressOffset = 0;
 	private boolean superChipMode = false;
 	private final boolean superChipAutoDetect;
 	private final int extraRAMSize;
 	private byte[] extraRAM;
 
+	protected static final int BANK_SIZE = 4096;
+
 	public static final long serialVersionUID = 1L;
 
 }
\ No newline at end of file
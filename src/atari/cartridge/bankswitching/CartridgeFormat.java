@@ -0,0 +1,76 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+import atari.cartridge.Cartridge;
+
+/**
+ * A format Cartridges can be created in. Formats are found by the CartridgeFormats registry with a ServiceLoader,
+ * so new ones only have to be listed in META-INF/services/atari.cartridge.bankswitching.CartridgeFormat
+ */
+public abstract class CartridgeFormat {
+
+	protected CartridgeFormat(String id, String name, int size, boolean optionalSuperChip) {
+		this.id = id;
+		this.name = name;
+		this.size = size;
+		this.optionalSuperChip = optionalSuperChip;
+	}
+
+	// Short identification also used in ROM names, like "(F8)", and in the ROM database
+	public String id() {
+		return id;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	// Usual content size. Some formats also accept others
+	public int size() {
+		return size;
+	}
+
+	// SuperChip may be present or not, indicated by an "SC" after the id
+	public boolean optionalSuperChip() {
+		return optionalSuperChip;
+	}
+
+	// SuperChip is only used by formats where it is optional. null = automatic mode.
+	// Throws IllegalStateException if the content is not valid for the format
+	public abstract Cartridge create(byte[] content, Boolean superChip);
+
+	// How likely the content is in this format. NOT_POSSIBLE for sizes not supported, SIZE_MATCH for the usual format of the size,
+	// and CODE_MATCH when the code shows accesses to hotspots only this format has
+	public abstract int probability(byte[] content);
+
+	// LDA, LDX, LDY, STA, STX, STY, BIT, CMP and NOP absolute accesses in the content to addresses from first to last,
+	// at any mirror of the 8K address space
+	protected static int countAccesses(byte[] content, int first, int last) {
+		int count = 0;
+		for (int i = 0; i < content.length - 2; i++) {
+			switch (content[i] & 0xff) {
+				case 0xad: case 0xae: case 0xac: case 0x8d: case 0x8e: case 0x8c: case 0x2c: case 0xcd: case 0x0c:
+					int address = ((content[i + 2] & 0xff) << 8 | (content[i + 1] & 0xff)) & 0x1fff;
+					if (address >= first && address <= last) count++;
+			}
+		}
+		return count;
+	}
+
+	// Data may look like an access here and there
+	protected static boolean accessesFound(int count, int otherFormatCount) {
+		return count >= 2 && count > otherFormatCount;
+	}
+
+
+	private final String id;
+	private final String name;
+	private final int size;
+	private final boolean optionalSuperChip;
+
+	public static final int NOT_POSSIBLE = 0;
+	public static final int SIZE_MATCH = 10;
+	public static final int CODE_MATCH = 20;
+
+}
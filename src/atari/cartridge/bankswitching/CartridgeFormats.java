@@ -0,0 +1,50 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.cartridge.bankswitching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the Cartridge formats available, found with a ServiceLoader the first time needed. Order is the one listed
+ */
+public final class CartridgeFormats {
+
+	public static synchronized List<CartridgeFormat> all() {
+		if (formats == null) {
+			List<CartridgeFormat> found = new ArrayList<CartridgeFormat>();
+			for (CartridgeFormat format : ServiceLoader.load(CartridgeFormat.class))
+				found.add(format);
+			if (found.isEmpty()) System.out.println("No Cartridge formats found. Check META-INF/services in the classpath");
+			formats = Collections.unmodifiableList(found);
+		}
+		return formats;
+	}
+
+	// null if not found
+	public static CartridgeFormat get(String id) {
+		for (CartridgeFormat format : all())
+			if (format.id().equalsIgnoreCase(id)) return format;
+		return null;
+	}
+
+	// The first listed wins when more than one are equally probable. null if none is possible
+	public static CartridgeFormat mostProbable(byte[] content) {
+		CartridgeFormat best = null;
+		int bestProbability = CartridgeFormat.NOT_POSSIBLE;
+		for (CartridgeFormat format : all()) {
+			int probability = format.probability(content);
+			if (probability > bestProbability) {
+				best = format;
+				bestProbability = probability;
+			}
+		}
+		return best;
+	}
+
+
+	private static List<CartridgeFormat> formats;
+
+}
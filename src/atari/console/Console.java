@@ -6,15 +6,21 @@ import general.av.audio.AudioSignal;
 import general.av.video.VideoSignal;
 import general.av.video.VideoStandard;
 import general.board.Clock;
+import general.board.ClockDriven;
 import general.m6502.M6502;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
-import parameters.Parameters;
 import atari.board.BUS;
 import atari.cartridge.Cartridge;
 import atari.cartridge.CartridgeSocket;
 import atari.console.savestate.ConsoleState;
+import atari.console.savestate.RewindHistory;
 import atari.console.savestate.SaveStateMedia;
 import atari.console.savestate.SaveStateSocket;
 import atari.controls.ConsoleControls;
@@ -28,6 +34,11 @@ import atari.tia.TIA;
 public class Console {
 
 	public Console() {
+		this(new ConsoleConfiguration());
+	}
+
+	public Console(ConsoleConfiguration configuration) {
+		this.configuration = configuration;
 		mainComponentsCreate();
 		socketsCreate();
 		mainClockCreate();
@@ -62,6 +73,7 @@ public class Console {
 		pia.powerOn();
 		tia.powerOn();
 		powerOn = true;
+		rewindHistoryInvalid = true;
 		controlsSocket.controlsStatesRedefined();
 		mainClockGo();
 		videoStandardAutoDetectionStart();
@@ -76,11 +88,13 @@ public class Console {
 		ram.powerOff();
 		bus.powerOff();
 		powerOn = false;
+		saveStateSocket.discardFrameBoundaryOperations();
 		controlsSocket.controlsStatesRedefined();
 	}
 
 	public void destroy() {
 		mainClockDestroy();
+		saveStateSocket.destroy();
 	}
 	
 	public void showOSD(String message) {
@@ -111,6 +125,7 @@ public class Console {
 
 	protected void cartridge(Cartridge cartridge) {
 		bus.cartridge(cartridge);
+		rewindHistoryInvalid = true;
 	}
 
 	protected void videoStandardAuto() {
@@ -153,14 +168,31 @@ public class Console {
 	protected void mainComponentsCreate() {
 		cpu = new M6502();
 		pia = new PIA(this);
-		ram = new RAM();
-		tia = new TIA(cpu, pia);
-		bus = new BUS(tia, pia, ram);
+		ram = new RAM(configuration);
+		tia = new TIA(cpu, pia, configuration);
+		bus = new BUS(tia, pia, ram, configuration);
 		cpu.connectBus(bus);
 	}
 
 	protected void mainClockCreate() {
-		mainClock = new Clock("Console(TIA)", tia, 0);
+		mainClock = new Clock("Console(TIA)", new ClockDriven() {
+			@Override
+			public void clockPulse() {
+				mainClockPulse();
+			}
+		}, 0);
+	}
+
+	// One frame. While rewinding, steps back one frame in the history instead
+	protected void mainClockPulse() {
+		if (!powerOn) return;
+		saveStateSocket.commitFrameBoundaryOperations();
+		if (rewinding) {
+			rewindFrame();
+			return;
+		}
+		rewindRecordFrame();
+		tia.clockPulse();
 	}
 
 	protected void mainClockAdjustToNormal() {
@@ -168,7 +200,7 @@ public class Console {
 	}
 
 	protected void mainClockAdjustToFast() {
-		mainClock.speed(tia.desiredClockForVideoStandard() * FAST_SPEED_FACTOR);
+		mainClock.speed(tia.desiredClockForVideoStandard() * configuration.fastSpeedFactor);
 	}
 
 	protected void mainClockGo() {
@@ -202,6 +234,11 @@ public class Console {
 		controlsSocket.controlsStatesRedefined();
 	}
 
+	protected void loadState(ByteBuffer snapshot) {
+		loadSnapshot(snapshot);
+		controlsSocket.controlsStatesRedefined();
+	}
+
 	protected ConsoleState saveState() {
 		return new ConsoleState(
 			tia.saveState(),
@@ -213,13 +250,94 @@ public class Console {
 		);
 	}
 
+	// Snapshot of the emulation state including controls, for rewinds, rollbacks, searches and savestate files.
+	// Written as primitives into a reusable buffer of at least snapshotSize() bytes, so no objects are created.
+	// The Cartridge ROM is not copied, only identified by its hash. Then comes the layout, so snapshots from other versions are refused.
+	// Must be called between frames
+	public void saveSnapshot(ByteBuffer buffer) {
+		Cartridge cartridge = cartridge();
+		buffer.putLong(cartridge != null ? cartridge.contentHash() : 0);
+		buffer.putInt(SNAPSHOT_LAYOUT);
+		buffer.put((byte)videoStandard.ordinal());
+		tia.saveSnapshot(buffer);
+		pia.saveSnapshot(buffer);
+		ram.saveSnapshot(buffer);
+		cpu.saveSnapshot(buffer);
+		bus.saveSnapshot(buffer);
+		if (cartridge != null) cartridge.saveSnapshot(buffer);
+	}
+
+	// Only snapshots taken with the same Cartridge inserted can be loaded
+	public void loadSnapshot(ByteBuffer buffer) {
+		Cartridge cartridge = cartridge();
+		if (buffer.getLong() != (cartridge != null ? cartridge.contentHash() : 0))
+			throw new IllegalStateException("Snapshot was taken with another Cartridge");
+		if (buffer.getInt() != SNAPSHOT_LAYOUT)
+			throw new IllegalStateException("Snapshot has another layout");
+		VideoStandard standard = VIDEO_STANDARDS[buffer.get()];
+		tia.loadSnapshot(buffer);
+		pia.loadSnapshot(buffer);
+		ram.loadSnapshot(buffer);
+		cpu.loadSnapshot(buffer);
+		bus.loadSnapshot(buffer);
+		if (cartridge != null) cartridge.loadSnapshot(buffer);
+		if (standard != videoStandard) videoStandard(standard);
+	}
+
+	public int snapshotSize() {
+		Cartridge cartridge = cartridge();
+		return 8 + 4 + 1 + SNAPSHOT_COMPONENTS_SIZE + (cartridge != null ? cartridge.snapshotSize() : 0);
+	}
+
 	protected void powerFry() {
 		ram.powerFry();
 	}
 
+	private void rewindRecordFrame() {
+		if (configuration.rewindMaxBytes <= 0) return;
+		int size = snapshotSize();
+		if (rewindHistory == null || rewindHistory.snapshotSize() != size) {
+			rewindHistory = new RewindHistory(size, configuration.rewindMaxBytes, configuration.rewindMaxFrames, configuration.rewindKeyframeInterval);
+			rewindSnapshot = ByteBuffer.allocate(size);
+		} else if (rewindHistoryInvalid)
+			rewindHistory.clear();
+		else if (rewindFrameRestored)
+			// The last frame rewound was generated again, so it goes back before the one starting now
+			rewindHistory.push(rewindSnapshot.array());
+		rewindHistoryInvalid = false;
+		rewindFrameRestored = false;
+		rewindSnapshot.clear();
+		saveSnapshot(rewindSnapshot);
+		rewindHistory.push(rewindSnapshot.array());
+	}
+
+	// The frame restored is generated again, but only the video is presented
+	private void rewindFrame() {
+		if (rewindHistory == null || rewindHistoryInvalid || !rewindHistory.pop(rewindSnapshot.array())) {
+			if (!rewindEndReported) showOSD("No more frames to rewind");
+			rewindEndReported = true;
+			return;
+		}
+		rewindSnapshot.rewind();
+		try {
+			loadSnapshot(rewindSnapshot);
+		} catch (IllegalStateException ex) {
+			// Cartridge changed since the frame was recorded
+			rewindHistory.clear();
+			rewindFrameRestored = false;
+			return;
+		}
+		rewindFrameRestored = true;		// Kept in the rewindSnapshot until recording resumes
+		tia.resimulating(true);
+		tia.clockPulse();
+		tia.resimulating(false);
+	}
+
 
 	public boolean powerOn = false;
 
+	protected final ConsoleConfiguration configuration;
+
 	protected BUS bus;
 	protected M6502 cpu;
 	protected TIA tia;
@@ -235,8 +353,21 @@ public class Console {
 	protected SaveStateSocketAdapter saveStateSocket;
 
 	protected Clock mainClock;
-	
-	public static final int FAST_SPEED_FACTOR = Parameters.CONSOLE_FAST_SPEED_FACTOR;
+
+	private RewindHistory rewindHistory;
+	private ByteBuffer rewindSnapshot;
+	private volatile boolean rewinding = false;
+	private volatile boolean rewindHistoryInvalid = true;		// Cleared by the clock at the next frame
+	private boolean rewindEndReported = false;
+	private boolean rewindFrameRestored = false;
+
+	private static final VideoStandard[] VIDEO_STANDARDS = VideoStandard.values();
+
+	// The layout is derived from the components sizes, so it changes by itself when any of them grows or shrinks.
+	// The version must be increased only for changes in order or meaning that keep the sizes, here or in any Cartridge
+	private static final int SNAPSHOT_VERSION = 1;
+	private static final int SNAPSHOT_COMPONENTS_SIZE = TIA.SNAPSHOT_SIZE + PIA.SNAPSHOT_SIZE + RAM.SNAPSHOT_SIZE + M6502.SNAPSHOT_SIZE + BUS.SNAPSHOT_SIZE;
+	private static final int SNAPSHOT_LAYOUT = SNAPSHOT_VERSION << 24 | SNAPSHOT_COMPONENTS_SIZE;
 
 	
 	protected class ConsoleControlsInputAdapter implements ConsoleControlsInput {
@@ -252,6 +383,11 @@ public class Console {
 					mainClockAdjustToNormal();
 				return;
 			} 
+			if (control == Control.REWIND) {
+				rewinding = state;
+				rewindEndReported = false;
+				return;
+			}
 			// Toggles
 			if (!state) return;
 			switch (control) {
@@ -300,34 +436,121 @@ public class Console {
 		}
 	}	
 	
+	// States are captured and applied by the clock between frames. The media is accessed only by a background thread
 	protected class SaveStateSocketAdapter implements SaveStateSocket {
 		@Override
 		public void connectMedia(SaveStateMedia media) {
 			this.media = media;	
 		}
-		public void saveState(int slot) {
+		public void saveState(final int slot) {
 			if (!powerOn || media == null) return;
-			mainClockPause();
-			ConsoleState state = Console.this.saveState();
-			mainClockGo();
-			if (media.save(slot, state))
-				showOSD("State " + slot + " saved");
-			else 
-				showOSD("State " + slot + " save failed");
+			atFrameBoundary(new Runnable() {
+				@Override
+				public void run() {
+					final long hash = cartridgeHash();
+					final ByteBuffer snapshot = ByteBuffer.allocate(snapshotSize());
+					saveSnapshot(snapshot);
+					snapshot.flip();
+					mediaExecutor().execute(new Runnable() {
+						@Override
+						public void run() {
+							if (media.save(slot, hash, snapshot))
+								showOSD("State " + slot + " saved");
+							else 
+								showOSD("State " + slot + " save failed");
+						}
+					});
+				}
+			});
 		}
-		public void loadState(int slot) {
+		public void loadState(final int slot) {
 			if (!powerOn || media == null) return;
-			ConsoleState state = media.load(slot);
-			if (state == null) {
+			mediaExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					ByteBuffer loaded = media.load(slot);
+					if (loaded != null) {
+						// Copied as the media reuses its buffer
+						final ByteBuffer snapshot = ByteBuffer.allocate(loaded.remaining());
+						snapshot.put(loaded).flip();
+						atFrameBoundary(new Runnable() {
+							@Override
+							public void run() {
+								loadSnapshotState(slot, snapshot);
+							}
+						});
+						return;
+					}
+					final ConsoleState state = media.loadLegacy(slot);
+					if (state == null) {
+						showOSD("State " + slot + " load failed");
+						return;
+					}
+					atFrameBoundary(new Runnable() {
+						@Override
+						public void run() {
+							Console.this.loadState(state);
+							showOSD("State " + slot + " loaded");
+						}
+					});
+				}
+			});
+		}
+		public void commitFrameBoundaryOperations() {
+			Runnable operation;
+			while (true) {
+				synchronized (frameBoundaryOperations) {
+					operation = frameBoundaryOperations.poll();
+				}
+				if (operation == null) return;
+				operation.run();
+			}
+		}
+		public void discardFrameBoundaryOperations() {
+			synchronized (frameBoundaryOperations) {
+				frameBoundaryOperations.clear();
+			}
+		}
+		public void destroy() {
+			if (mediaExecutor != null) mediaExecutor.shutdown();
+		}
+		private void loadSnapshotState(int slot, ByteBuffer snapshot) {
+			// Snapshots start with the Cartridge hash
+			if (snapshot.remaining() >= 8 && snapshot.getLong(snapshot.position()) != cartridgeHash()) {
+				showOSD("State " + slot + " is for another Cartridge");
+				return;
+			}
+			if (snapshot.remaining() != snapshotSize() || snapshot.getInt(snapshot.position() + 8) != SNAPSHOT_LAYOUT) {
 				showOSD("State " + slot + " load failed");
 				return;
 			}
-			mainClockPause();
-			Console.this.loadState(state);
-			mainClockGo();
+			Console.this.loadState(snapshot);
 			showOSD("State " + slot + " loaded");
 		}
-		private SaveStateMedia media;
+		private void atFrameBoundary(Runnable operation) {
+			synchronized (frameBoundaryOperations) {
+				frameBoundaryOperations.add(operation);
+			}
+		}
+		private synchronized ExecutorService mediaExecutor() {
+			if (mediaExecutor == null)
+				mediaExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "Console SaveState Media");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			return mediaExecutor;
+		}
+		private long cartridgeHash() {
+			Cartridge cartridge = cartridge();
+			return cartridge != null ? cartridge.contentHash() : 0;
+		}
+		private volatile SaveStateMedia media;
+		private ExecutorService mediaExecutor;
+		private final ArrayDeque<Runnable> frameBoundaryOperations = new ArrayDeque<Runnable>();
 	}	
 	
 }
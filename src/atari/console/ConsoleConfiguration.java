@@ -0,0 +1,37 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.console;
+
+// Tuning of the emulation core, given to the Console and its components when they are created.
+// Does not depend on any front end, so Consoles can be created without loading any UI toolkit
+public final class ConsoleConfiguration {
+
+	public ConsoleConfiguration() {
+		// Defaults
+	}
+
+	public int 		fastSpeedFactor = 8;
+
+	public double	tiaForcedClock = 0;						//  0 = No Forced Clock
+	public double	tiaDefaultClockNTSC = 60;
+	public double	tiaDefaultClockPAL = 50.384615;
+	public boolean 	tiaSyncWithAudioMonitor = false;
+	public boolean 	tiaSyncWithVideoMonitor = false;
+
+	public int 		audioSampleRate = 44100;
+	public float 	audioMaxAmplitude = 0.5f;
+	public float 	audioMaxMonoChannelAmplitude = 0.5f;
+	public boolean 	audioStereo = false;					// Channel 0 to the left, channel 1 to the right
+	public float 	audioMaxStereoChannelAmplitude = 0.9f;
+
+	public int 		ramFryZeroBits = 100;					// Quantity of bits to change
+	public int 		ramFryOneBits = 25;
+	public float 	ramFryVariance = 0.3f;
+
+	public boolean 	busDataRetention = true;
+
+	public int 		rewindMaxBytes = 4 * 1024 * 1024;		// 0 = No Rewind
+	public int 		rewindMaxFrames = 5 * 60 * 60;
+	public int 		rewindKeyframeInterval = 60;			// One full state each this many frames, the others are deltas
+
+}
@@ -0,0 +1,92 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.console;
+
+import general.av.video.VideoMonitor;
+import general.av.video.VideoStandard;
+import general.board.ClockDriven;
+
+// Console without a Clock. Frames are generated on demand, on the caller thread and as fast as possible
+public class HeadlessConsole extends Console implements ClockDriven {
+
+	public HeadlessConsole() {
+		super();
+	}
+
+	public HeadlessConsole(ConsoleConfiguration configuration) {
+		super(configuration);
+	}
+
+	@Override
+	public void clockPulse() {
+		tia.clockPulse();
+		if (videoStandardDetectionFramesLeft > 0) videoStandardDetectionFrame();
+	}
+
+	public void runFrames(int frames) {
+		for (int i = 0; i < frames; i++)
+			clockPulse();
+	}
+
+	@Override
+	protected void mainClockCreate() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void mainClockAdjustToNormal() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void mainClockAdjustToFast() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void mainClockGo() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void mainClockPause() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void mainClockDestroy() {
+		// Ignore, frames are generated on demand
+	}
+
+	@Override
+	protected void videoStandardAutoDetectionStart() {
+		if (!videoStandardAuto) return;
+		// If the Cartridge has suggested a VideoStandard, use it
+		VideoStandard suggestedStandard = cartridge() != null
+				? cartridge().suggestedVideoStandard() : VideoStandard.NTSC;
+		if (suggestedStandard != null) {
+			videoStandard(suggestedStandard);
+			return;
+		}
+		// Otherwise ask the monitor, checking its detection at each frame instead of using a polling thread
+		VideoMonitor monitor = tia.videoOutput().monitor();
+		if (monitor == null) return;
+		monitor.videoStandardDetectionStart();
+		videoStandardDetectionFramesLeft = VIDEO_STANDARD_DETECTION_MAX_FRAMES;
+	}
+
+	private void videoStandardDetectionFrame() {
+		VideoStandard std = tia.videoOutput().monitor().videoStandardDetected();
+		if (std != null) {
+			videoStandardDetectionFramesLeft = 0;
+			videoStandard(std);
+		} else
+			if (--videoStandardDetectionFramesLeft == 0) showOSD("AUTO: FAILED");
+	}
+
+
+	private int videoStandardDetectionFramesLeft = 0;
+
+	private static final int VIDEO_STANDARD_DETECTION_MAX_FRAMES = 60;
+
+}
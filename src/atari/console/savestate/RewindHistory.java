@@ -0,0 +1,177 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.console.savestate;
+
+// Bounded history of Console snapshots, one per frame, that can be stepped backwards from the most recent.
+// Every keyframeInterval frames a full snapshot is kept. The frames in between keep only the XOR against their keyframe,
+// run-length encoded, as most of the state does not change between nearby frames.
+// All frames share one area of fixed size. When it is full, the oldest frames are dropped
+public final class RewindHistory {
+
+	public RewindHistory(int snapshotSize, int maxBytes, int maxFrames, int keyframeInterval) {
+		this.snapshotSize = snapshotSize;
+		this.keyframeInterval = keyframeInterval;
+		data = new byte[Math.max(maxBytes, snapshotSize)];
+		offsets = new int[maxFrames];
+		lengths = new int[maxFrames];
+		keyframes = new boolean[maxFrames];
+		encoded = new byte[snapshotSize + MAX_TOKEN_HEADER];
+	}
+
+	public int snapshotSize() {
+		return snapshotSize;
+	}
+
+	public int frames() {
+		return (int)(nextFrame - firstFrame);
+	}
+
+	public int bytesUsed() {
+		return bytesUsed;
+	}
+
+	public void clear() {
+		firstFrame = nextFrame = 0;
+		latestKeyframe = -1;
+		writePosition = 0;
+		bytesUsed = 0;
+	}
+
+	// Adds the snapshot as the most recent frame. Only the first snapshotSize bytes are used
+	public void push(byte[] snapshot) {
+		if (frames() == offsets.length) dropOldest();
+		int length = -1;
+		if (latestKeyframe >= 0 && nextFrame - latestKeyframe < keyframeInterval)
+			length = encodeDelta(snapshot, offsets[slot(latestKeyframe)]);
+		if (length >= 0) {
+			int position = reserve(length);
+			// The keyframe may have been dropped to make room
+			if (latestKeyframe >= firstFrame) {
+				System.arraycopy(encoded, 0, data, position, length);
+				add(position, length, false);
+				return;
+			}
+		}
+		int position = reserve(snapshotSize);
+		System.arraycopy(snapshot, 0, data, position, snapshotSize);
+		latestKeyframe = nextFrame;
+		add(position, snapshotSize, true);
+	}
+
+	// Removes the most recent frame, restoring its snapshot into the given array. Returns false if there are no frames left
+	public boolean pop(byte[] snapshot) {
+		if (nextFrame == firstFrame) return false;
+		long frame = --nextFrame;
+		int slot = slot(frame);
+		if (keyframes[slot]) {
+			System.arraycopy(data, offsets[slot], snapshot, 0, snapshotSize);
+			latestKeyframe = frame - 1;
+			while (latestKeyframe >= firstFrame && !keyframes[slot(latestKeyframe)]) latestKeyframe--;
+		} else
+			decodeDelta(offsets[slot], lengths[slot], offsets[slot(latestKeyframe)], snapshot);
+		writePosition = offsets[slot];
+		bytesUsed -= lengths[slot];
+		return true;
+	}
+
+	private void add(int position, int length, boolean keyframe) {
+		int slot = slot(nextFrame++);
+		offsets[slot] = position;
+		lengths[slot] = length;
+		keyframes[slot] = keyframe;
+		writePosition = position + length;
+		bytesUsed += length;
+	}
+
+	// Frames are laid in sequence and wrap to the start of the area, so the ones found ahead of the write position are the oldest
+	private int reserve(int length) {
+		int start = writePosition;
+		if (start + length > data.length) {
+			while (firstFrame < nextFrame && offsets[slot(firstFrame)] >= start) dropOldest();
+			start = 0;
+		}
+		while (firstFrame < nextFrame && offsets[slot(firstFrame)] < start + length
+				&& offsets[slot(firstFrame)] + lengths[slot(firstFrame)] > start) dropOldest();
+		return start;
+	}
+
+	// Frames stored as deltas are useless without their keyframe, so they go together
+	private void dropOldest() {
+		do {
+			bytesUsed -= lengths[slot(firstFrame++)];
+		} while (firstFrame < nextFrame && !keyframes[slot(firstFrame)]);
+	}
+
+	// Tokens of unchanged bytes count, changed bytes count, then the changed bytes XORed with the keyframe.
+	// Returns the encoded length, or -1 if it would not be smaller than a keyframe
+	private int encodeDelta(byte[] snapshot, int keyframe) {
+		int length = 0;
+		int i = 0;
+		while (i < snapshotSize) {
+			int unchangedStart = i;
+			while (i < snapshotSize && snapshot[i] == data[keyframe + i]) i++;
+			int changedStart = i;
+			// Changed bytes go on until enough unchanged bytes are found to be worth a new token
+			int unchangedRun = 0;
+			while (i < snapshotSize && unchangedRun < MIN_UNCHANGED_RUN) {
+				unchangedRun = snapshot[i] == data[keyframe + i] ? unchangedRun + 1 : 0;
+				i++;
+			}
+			i -= unchangedRun;
+			if (length + MAX_TOKEN_HEADER + i - changedStart >= snapshotSize) return -1;
+			length = putVarInt(length, changedStart - unchangedStart);
+			length = putVarInt(length, i - changedStart);
+			for (int j = changedStart; j < i; j++)
+				encoded[length++] = (byte)(snapshot[j] ^ data[keyframe + j]);
+		}
+		return length;
+	}
+
+	private void decodeDelta(int position, int length, int keyframe, byte[] snapshot) {
+		System.arraycopy(data, keyframe, snapshot, 0, snapshotSize);
+		int end = position + length;
+		int i = 0;
+		while (position < end) {
+			int value = 0, shift = 0, b;
+			do { b = data[position++]; value |= (b & 0x7f) << shift; shift += 7; } while ((b & 0x80) != 0);
+			i += value;
+			value = 0; shift = 0;
+			do { b = data[position++]; value |= (b & 0x7f) << shift; shift += 7; } while ((b & 0x80) != 0);
+			for (int changedEnd = i + value; i < changedEnd; i++)
+				snapshot[i] ^= data[position++];
+		}
+	}
+
+	private int putVarInt(int position, int value) {
+		while ((value & ~0x7f) != 0) {
+			encoded[position++] = (byte)((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		encoded[position++] = (byte)value;
+		return position;
+	}
+
+	private int slot(long frame) {
+		return (int)(frame % offsets.length);
+	}
+
+
+	private final int snapshotSize;
+	private final int keyframeInterval;
+
+	private final byte[] data;
+	private final byte[] encoded;					// Delta being encoded, before it is known to fit
+	private final int[] offsets;					// Position and length in the data area of each frame kept
+	private final int[] lengths;
+	private final boolean[] keyframes;
+
+	private long firstFrame = 0;					// Oldest frame kept
+	private long nextFrame = 0;						// Frames kept are from firstFrame to nextFrame - 1
+	private long latestKeyframe = -1;
+	private int writePosition = 0;
+	private int bytesUsed = 0;
+
+	private static final int MIN_UNCHANGED_RUN = 4;
+	private static final int MAX_TOKEN_HEADER = 10;		// Two varints
+
+}
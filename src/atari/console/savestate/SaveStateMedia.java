@@ -2,10 +2,17 @@
 
 package atari.console.savestate;
 
+import java.nio.ByteBuffer;
+
 public interface SaveStateMedia {
 
-	public boolean save(int slot, ConsoleState state);
+	// Snapshot as written by Console.saveSnapshot, from position to limit. The Cartridge is only referenced by its hash
+	public boolean save(int slot, long cartridgeHash, ByteBuffer snapshot);
+
+	// Snapshot ready to be read by Console.loadSnapshot, or null if not available. Valid until the next call
+	public ByteBuffer load(int slot);
 
-	public ConsoleState load(int slot);
+	// States saved by older versions as a whole serialized ConsoleState, or null if not available
+	public ConsoleState loadLegacy(int slot);
 	
 }
@@ -12,7 +12,7 @@ public interface ConsoleControls {
 		POWER, BLACK_WHITE, SELECT, RESET,
 		DIFFICULTY0, DIFFICULTY1,
 		DEBUG, NO_COLLISIONS, TRACE, PAUSE, FRAME, FAST_SPEED,
-		VIDEO_STANDARD, POWER_FRY,
+		VIDEO_STANDARD, POWER_FRY, REWIND,
 		
 		SAVE_STATE_0(0), SAVE_STATE_1(1), SAVE_STATE_2(2), SAVE_STATE_3(3), SAVE_STATE_4(4), SAVE_STATE_5(5),
 		SAVE_STATE_6(6), SAVE_STATE_7(7), SAVE_STATE_8(8), SAVE_STATE_9(9), SAVE_STATE_10(10), SAVE_STATE_11(11), SAVE_STATE_12(12),
@@ -2,22 +2,32 @@
 
 package atari.network;
 
+import general.board.Clock;
 import general.board.ClockDriven;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import atari.cartridge.Cartridge;
 import atari.console.Console;
+import atari.console.ConsoleConfiguration;
 import atari.console.savestate.ConsoleState;
 import atari.console.savestate.SaveStateMedia;
 import atari.controls.ConsoleControls.Control;
 import atari.controls.ConsoleControlsSocket;
 
+// Without rollback, frames are generated only as Server updates arrive, so the Client is always one trip behind.
+// With rollback, the Client runs its own clock ahead of the Server, applies its controls right away and predicts
+// the Server controls will not change. When a Server update shows otherwise, the Client restores the snapshot of
+// that frame and re-simulates up to the current frame
 public class ClientConsole extends Console implements ClockDriven {
 
-	public ClientConsole(RemoteReceiver receiver) {
-		super();
+	public ClientConsole(RemoteReceiver receiver, ConsoleConfiguration configuration) {
+		super(configuration);
 		setupReceiver(receiver);
 	}
 
@@ -27,32 +37,33 @@ public class ClientConsole extends Console implements ClockDriven {
 
 	@Override
 	protected void mainClockCreate() {
-		// Ignore, the clock is controlled remotely
+		// Only runs in rollback mode. Otherwise the clock is controlled remotely
+		mainClock = new Clock("Client Console", this, configuration.tiaDefaultClockNTSC);
 	}
 
 	@Override
 	protected void mainClockAdjustToNormal() {
-		// Ignore, the clock is controlled remotely
+		mainClock.speed(tia.desiredClockForVideoStandard());
 	}
 
 	@Override
 	protected void mainClockAdjustToFast() {
-		// Ignore, the clock is controlled remotely
+		// Ignore, the speed is controlled remotely
 	}
 
 	@Override
 	protected void mainClockGo() {
 		// Ignore, the clock is controlled remotely
 	}
-	
+
 	@Override
 	protected void mainClockPause() {
 		// Ignore, the clock is controlled remotely
 	}
-	
+
 	@Override
 	protected void mainClockDestroy() {
-		// Ignore, the clock is controlled remotely
+		mainClock.terminate();
 	}
 
 	@Override
@@ -66,19 +77,30 @@ public class ClientConsole extends Console implements ClockDriven {
 	}
 
 	@Override
-	public void clockPulse() {
-		tia.clockPulse();
+	public synchronized void clockPulse() {
+		if (rollback) rollbackClockPulse();
+		else tia.clockPulse();
 	}
 
 	void connected() {
+		if (remoteReceiver.isRollback()) {
+			rollbackStart();
+			mainClock.go();
+		}
 		showOSD("Connected to Player 1 Server");
 	}
 
 	void disconnected(){
+		mainClock.pause();
+		rollbackStop();
 		showOSD("Disconnected from Player 1 Server");
 	}
 
 	void receiveServerUpdate(ServerUpdate update) {
+		if (rollback) {
+			queueServerUpdate(update);
+			return;
+		}
 		if (update.powerOn != null)
 			receiveServerPower(update.powerOn);
 		if (update.consoleState != null)
@@ -90,9 +112,11 @@ public class ClientConsole extends Console implements ClockDriven {
 	}
 
 	List<ControlChange> controlChangesToSend() {
+		// In rollback mode changes are sent by the clock, stamped with the frame they were applied
+		if (rollback) return null;
 		return ((ClientConsoleControlsSocketAdapter) controlsSocket).getChangesToSend();
 	}
-	
+
 	private void receiveServerPower(boolean serverPowerOn) {
 		if (serverPowerOn && !powerOn) powerOn();
 		else if (!serverPowerOn && powerOn) powerOff();
@@ -101,21 +125,239 @@ public class ClientConsole extends Console implements ClockDriven {
 	private void receiveServerState(ConsoleState state) {
 		loadState(state);
 	}
-	
+
 	private void setupReceiver(RemoteReceiver receiver) {
 		remoteReceiver = receiver;
 		remoteReceiver.clientConsole(this);
 	}
 
+	private synchronized void rollbackStart() {
+		maxFrames = remoteReceiver.rollbackMaxFrames();
+		inputDelay = remoteReceiver.inputDelayFrames();
+		snapshots = new ByteBuffer[maxFrames];
+		frameChanges = new ArrayList<List<ControlChange>>(Collections.<List<ControlChange>>nCopies(maxFrames, null));
+		localChanges.clear();
+		synchronized (serverUpdates) {
+			serverUpdates.clear();
+		}
+		serverFrame = -1;
+		synched = false;
+		aheadFrames = 0;
+		rollback = true;
+	}
+
+	private synchronized void rollbackStop() {
+		rollback = false;
+		snapshots = null;
+		frameChanges = null;
+		localChanges.clear();
+		synchronized (serverUpdates) {
+			serverUpdates.clear();
+		}
+	}
+
+	// Called by the updates consumer. Only updates with contents are kept, the others just confirm their frame
+	private void queueServerUpdate(ServerUpdate update) {
+		if (update.powerOn != null || update.consoleState != null || (update.controlChanges != null && !update.controlChanges.isEmpty())) {
+			ServerUpdate copy = new ServerUpdate();
+			copy.frame = update.frame;
+			copy.powerOn = update.powerOn;
+			copy.consoleState = update.consoleState;
+			if (update.controlChanges != null) copy.controlChanges = new ArrayList<ControlChange>(update.controlChanges);
+			synchronized (serverUpdates) {
+				serverUpdates.add(copy);
+			}
+		}
+		// Only after the update is queued, so the clock never confirms a frame without its contents
+		serverFrame = update.frame;
+	}
+
+	private void rollbackClockPulse() {
+		confirmServerFrames();
+		if (!synched) return;
+		// Keep running ahead of the last frame received, gradually catching up or waiting if needed
+		long target = serverFrame + aheadFrames;
+		int frames = frame < target - 1 ? 2 : frame > target + 1 ? 0 : 1;
+		for (int i = 0; i < frames; i++) {
+			// Never go beyond the frames that can be rolled back
+			if (frame - confirmedFrame >= maxFrames - 1) return;
+			sendLocalChanges(frame + 1);
+			simulateFrame(frame + 1);
+		}
+	}
+
+	// Applies the Server updates received. Finds the first frame where the prediction failed, and re-simulates from there
+	private void confirmServerFrames() {
+		long rollbackFrom = -1;
+		long lastFrame = serverFrame;
+		while (true) {
+			// Frames not yet simulated can also be confirmed, as long as they fit in the frames kept. With a rollback pending,
+			// only up to where their slots would reuse those of the frames to re-simulate. The rest are confirmed after it
+			long limit = Math.min(lastFrame, (rollbackFrom >= 0 ? rollbackFrom : frame) + maxFrames - 1);
+			ServerUpdate update = nextServerUpdate(confirmedFrame + 1, limit);
+			// Full states from the Server, sent after the frame they refer to, reset everything
+			if (update != null && update.consoleState != null) {
+				resynch(update);
+				rollbackFrom = -1;
+				continue;
+			}
+			if (!synched) break;
+			long f = confirmedFrame + 1;
+			if (f > limit) break;
+			List<ControlChange> actual = update != null && update.controlChanges != null ? update.controlChanges : NO_CHANGES;
+			if (f <= frame && rollbackFrom < 0 && !sameChanges(actual, frameChanges.get((int) (f % maxFrames)))) rollbackFrom = f;
+			frameChanges.set((int) (f % maxFrames), actual);
+			confirmedFrame = f;
+			if (confirmLocalChanges(f, actual) && f <= frame && rollbackFrom < 0) rollbackFrom = f + 1;
+		}
+		if (rollbackFrom >= 0 && rollbackFrom <= frame) resimulateFrom(rollbackFrom);
+	}
+
+	private ServerUpdate nextServerUpdate(long nextFrame, long limit) {
+		synchronized (serverUpdates) {
+			ServerUpdate update;
+			// Before the first full state nothing else matters
+			if (!synched) {
+				while ((update = serverUpdates.poll()) != null)
+					if (update.consoleState != null) return update;
+				return null;
+			}
+			update = serverUpdates.peek();
+			if (update == null || update.frame > nextFrame) return null;
+			if (update.consoleState == null && nextFrame > limit) return null;
+			return serverUpdates.poll();
+		}
+	}
+
+	private void resynch(ServerUpdate update) {
+		if (update.powerOn != null) receiveServerPower(update.powerOn);
+		loadState(update.consoleState);
+		frame = confirmedFrame = update.frame;
+		for (ScheduledChange local : localChanges)
+			if (local.frame <= frame) local.frame = frame + 1;
+		synched = true;
+	}
+
+	// Local changes seen in the Server update are confirmed. Those that should be there but were late will now be predicted to the next frame,
+	// and the Client runs one more frame ahead so its changes arrive in time. Returns true if any change was late
+	private boolean confirmLocalChanges(long f, List<ControlChange> actual) {
+		for (ControlChange change : actual)
+			for (Iterator<ScheduledChange> it = localChanges.iterator(); it.hasNext();)
+				if (sameChange(it.next().change, change)) {
+					it.remove();
+					break;
+				}
+		boolean late = false;
+		for (ScheduledChange local : localChanges)
+			if (local.frame <= f) {
+				local.frame = f + 1;
+				late = true;
+			}
+		if (late && aheadFrames < maxFrames / 2) aheadFrames++;
+		return late;
+	}
+
+	private void resimulateFrom(long from) {
+		long to = frame;
+		ByteBuffer snapshot = snapshots[(int) (from % maxFrames)];
+		snapshot.rewind();
+		loadSnapshot(snapshot);
+		tia.resimulating(true);
+		for (long f = from; f < to; f++)
+			simulateFrame(f);
+		tia.resimulating(false);
+		// The last frame is presented again, with audio
+		simulateFrame(to);
+	}
+
+	private void simulateFrame(long f) {
+		int i = (int) (f % maxFrames);
+		// Buffers are reused, and only replaced if a bigger Cartridge state does not fit
+		ByteBuffer snapshot = snapshots[i];
+		if (snapshot == null || snapshot.capacity() < snapshotSize()) snapshot = snapshots[i] = ByteBuffer.allocate(snapshotSize());
+		snapshot.clear();
+		saveSnapshot(snapshot);
+		List<ControlChange> changes = f <= confirmedFrame ? frameChanges.get(i) : predictedChanges(f);
+		frameChanges.set(i, changes);
+		((ClientConsoleControlsSocketAdapter) controlsSocket).serverControlChanges(changes);
+		tia.clockPulse();
+		frame = f;
+	}
+
+	// Only the local changes are predicted. Server controls are predicted to stay as they are
+	private List<ControlChange> predictedChanges(long f) {
+		List<ControlChange> changes = null;
+		for (ScheduledChange local : localChanges)
+			if (local.frame == f) {
+				if (changes == null) changes = new ArrayList<ControlChange>();
+				changes.add(local.change);
+			}
+		return changes != null ? changes : NO_CHANGES;
+	}
+
+	// The Server will apply them at the stamp plus the input delay, and so will the Client
+	private void sendLocalChanges(long f) {
+		List<ControlChange> changes = ((ClientConsoleControlsSocketAdapter) controlsSocket).getChangesToSend();
+		if (changes == null) return;
+		long target = Math.max(f + inputDelay, confirmedFrame + 1);
+		for (ControlChange change : changes)
+			localChanges.add(new ScheduledChange(target, change));
+		remoteReceiver.sendControlChanges(f, changes);
+	}
+
+	private static boolean sameChanges(List<ControlChange> a, List<ControlChange> b) {
+		if (a.size() != b.size()) return false;
+		List<ControlChange> rest = new ArrayList<ControlChange>(b);
+		for (ControlChange change : a) {
+			int i = 0;
+			while (i < rest.size() && !sameChange(change, rest.get(i))) i++;
+			if (i == rest.size()) return false;
+			rest.remove(i);
+		}
+		return true;
+	}
+
+	private static boolean sameChange(ControlChange a, ControlChange b) {
+		if (a.control != b.control) return false;
+		if (a instanceof ControlChangeForPaddle)
+			return b instanceof ControlChangeForPaddle && ((ControlChangeForPaddle) a).position == ((ControlChangeForPaddle) b).position;
+		return !(b instanceof ControlChangeForPaddle) && a.state == b.state;
+	}
+
 
 	private RemoteReceiver remoteReceiver;
 
-	
+	// Rollback mode
+	private boolean rollback = false;
+	private boolean synched = false;
+	private int maxFrames;
+	private int inputDelay;
+	private int aheadFrames;
+	private long frame;							// Last frame simulated
+	private long confirmedFrame;				// Last frame with the Server controls applied
+	private volatile long serverFrame;			// Last frame received from the Server
+	private ByteBuffer[] snapshots;				// State at the start of each frame not yet confirmed
+	private List<List<ControlChange>> frameChanges;		// Changes applied at each frame, predicted or confirmed
+	private final List<ScheduledChange> localChanges = new ArrayList<ScheduledChange>();	// Sent but not yet confirmed
+	private final ArrayDeque<ServerUpdate> serverUpdates = new ArrayDeque<ServerUpdate>();
+
+	private static final List<ControlChange> NO_CHANGES = Collections.emptyList();
+
+
+	private static class ScheduledChange {
+		ScheduledChange(long frame, ControlChange change) {
+			this.frame = frame;
+			this.change = change;
+		}
+		long frame;
+		final ControlChange change;
+	}
+
 	private class ClientConsoleControlsSocketAdapter extends ConsoleControlsSocket {
 		@Override
 		public void controlStateChanged(Control control, boolean state) {
 			synchronized (queuedChanges) {
-				queuedChanges.add(new ControlChange(control, state));
+				queuedChanges.add(ControlChange.of(control, state));
 			}
 		}
 		@Override
@@ -137,7 +379,7 @@ public class ClientConsole extends Console implements ClockDriven {
 			}
 		}
 		public void serverControlChanges(List<ControlChange> changes) {
-			// Effectively accepts the control changes, received from the server 
+			// Effectively accepts the control changes, received from the server
 			for (ControlChange change : changes)
 				if (change instanceof ControlChangeForPaddle)
 					super.controlStateChanged(change.control, ((ControlChangeForPaddle)change).position);
@@ -146,7 +388,7 @@ public class ClientConsole extends Console implements ClockDriven {
 		}
 		private List<ControlChange> queuedChanges = new ArrayList<ControlChange>();
 	}
-	
+
 	// Cartridge insertion is controlled only by the Server
 	private class ClientConsoleCartridgeSocketAdapter extends CartridgeSocketAdapter {
 		@Override
@@ -17,9 +17,27 @@ public class ControlChange implements Serializable {
 		this.state = state;
 	}
 
+	// Shared instances for each Control and state, as changes are never modified once created
+	public static ControlChange of(Control control, boolean state) {
+		return SHARED[control.ordinal() << 1 | (state ? 1 : 0)];
+	}
+
+	private static ControlChange[] shared() {
+		Control[] controls = Control.values();
+		ControlChange[] shared = new ControlChange[controls.length * 2];
+		for (Control control : controls) {
+			shared[control.ordinal() << 1] = new ControlChange(control, false);
+			shared[control.ordinal() << 1 | 1] = new ControlChange(control, true);
+		}
+		return shared;
+	}
+
+
 	public Control control;
 	public boolean state;
 
+	private static final ControlChange[] SHARED = shared();
+
 	public static final long serialVersionUID = 1L;
 
 }
\ No newline at end of file
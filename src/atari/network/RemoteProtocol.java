@@ -0,0 +1,199 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import atari.console.savestate.ConsoleState;
+import atari.controls.ConsoleControls.Control;
+
+// Binary wire format used between the Server and the Client, with fixed layout messages.
+// Each message starts with the frame number it refers to. The only variable sized content is the
+// rare full ConsoleState, still sent as a serialized blob.
+// Any change in layout or in the Control enum must increase VERSION
+public final class RemoteProtocol {
+
+	private RemoteProtocol() {
+	}
+
+	// The Server decides the mode and the input delay. The Client sends its mode as false and follows the Server
+	public static void writeHandshake(DataOutputStream out, boolean pipelined, int inputDelayFrames) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeBoolean(pipelined);
+		writeVarInt(out, inputDelayFrames);
+		out.flush();
+	}
+
+	// Returns the input delay in frames of the peer, or -1 if it is not pipelined
+	public static int readHandshake(DataInputStream in) throws IOException {
+		int magic = in.readInt();
+		if (magic != MAGIC) throw new IOException("Not a Javatari multiplayer peer");
+		int version = in.readUnsignedShort();
+		if (version != VERSION) throw new IOException("Incompatible multiplayer protocol version: " + version + ", expected: " + VERSION);
+		boolean pipelined = in.readBoolean();
+		int inputDelayFrames = readVarInt(in);
+		return pipelined ? inputDelayFrames : -1;
+	}
+
+	// Server -> Client: frame, flags, then only the parts present
+	public static void writeServerUpdate(DataOutputStream out, ServerUpdate update) throws IOException {
+		int flags = 0;
+		if (update.isClockPulse) flags |= CLOCK_PULSE;
+		if (update.powerOn != null) flags |= update.powerOn ? POWER_ON : POWER_OFF;
+		if (update.controlChanges != null && !update.controlChanges.isEmpty()) flags |= CONTROL_CHANGES;
+		if (update.consoleState != null) flags |= CONSOLE_STATE;
+		writeVarLong(out, update.frame);
+		out.writeByte(flags);
+		if ((flags & CONTROL_CHANGES) != 0) writeControlChanges(out, update.controlChanges);
+		if ((flags & CONSOLE_STATE) != 0) writeConsoleState(out, update.consoleState);
+		out.flush();
+	}
+
+	// Reads into the given update, reusing its control changes List if any
+	public static void readServerUpdate(DataInputStream in, ServerUpdate update) throws IOException {
+		update.frame = readVarLong(in);
+		int flags = in.readUnsignedByte();
+		update.isClockPulse = (flags & CLOCK_PULSE) != 0;
+		update.powerOn = (flags & POWER_ON) != 0 ? Boolean.TRUE : (flags & POWER_OFF) != 0 ? Boolean.FALSE : null;
+		if (update.controlChanges != null) update.controlChanges.clear();
+		if ((flags & CONTROL_CHANGES) != 0) {
+			if (update.controlChanges == null) update.controlChanges = new ArrayList<ControlChange>();
+			readControlChanges(in, update.controlChanges);
+		}
+		update.consoleState = (flags & CONSOLE_STATE) != 0 ? readConsoleState(in) : null;
+	}
+
+	// Client -> Server: frame stamp, then the control changes. The stamp is the last frame received, or the Client own frame in rollback mode.
+	// In lock-step mode it answers every update. In pipelined mode it is sent only when there are changes
+	public static void writeClientReply(DataOutputStream out, long frame, List<ControlChange> changes) throws IOException {
+		writeVarLong(out, frame);
+		if (changes == null) writeVarInt(out, 0);
+		else writeControlChanges(out, changes);
+		out.flush();
+	}
+
+	// Returns the frame stamp. Changes received are added to the given List
+	public static long readClientReply(DataInputStream in, List<ControlChange> changes) throws IOException {
+		long frame = readVarLong(in);
+		readControlChanges(in, changes);
+		return frame;
+	}
+
+	// Each change is the Control ordinal with a paddle flag, then the state or the position
+	private static void writeControlChanges(DataOutputStream out, List<ControlChange> changes) throws IOException {
+		writeVarInt(out, changes.size());
+		for (int i = 0, size = changes.size(); i < size; i++) {
+			ControlChange change = changes.get(i);
+			if (change instanceof ControlChangeForPaddle) {
+				writeVarInt(out, change.control.ordinal() << 1 | 1);
+				writeVarInt(out, zigZag(((ControlChangeForPaddle) change).position));
+			} else {
+				writeVarInt(out, change.control.ordinal() << 1);
+				out.writeBoolean(change.state);
+			}
+		}
+	}
+
+	private static void readControlChanges(DataInputStream in, List<ControlChange> changes) throws IOException {
+		int count = readVarInt(in);
+		for (int i = 0; i < count; i++) {
+			int code = readVarInt(in);
+			int ordinal = code >>> 1;
+			if (ordinal >= CONTROLS.length) throw new IOException("Invalid control received: " + ordinal);
+			Control control = CONTROLS[ordinal];
+			if ((code & 1) != 0)
+				changes.add(new ControlChangeForPaddle(control, unZigZag(readVarInt(in))));
+			else
+				changes.add(ControlChange.of(control, in.readBoolean()));
+		}
+	}
+
+	private static void writeConsoleState(DataOutputStream out, ConsoleState state) throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		ObjectOutputStream stream = new ObjectOutputStream(data);
+		stream.writeObject(state);
+		stream.close();
+		writeVarInt(out, data.size());
+		data.writeTo(out);
+	}
+
+	private static ConsoleState readConsoleState(DataInputStream in) throws IOException {
+		byte[] data = new byte[readVarInt(in)];
+		in.readFully(data);
+		ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data));
+		try {
+			return (ConsoleState) stream.readObject();
+		} catch (ClassNotFoundException ex) {
+			throw new IOException("Invalid ConsoleState received", ex);
+		}
+	}
+
+	// Unsigned LEB128, 7 bits per byte
+	public static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	public static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Invalid varint received");
+	}
+
+	public static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7fL) != 0) {
+			out.writeByte((int) (value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	public static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Invalid varlong received");
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+
+	public static final int MAGIC = 0x4a545249;		// "JTRI"
+	public static final int VERSION = 4;
+
+	public static final int BUFFER_SIZE = 512;
+
+	private static final int CLOCK_PULSE = 0x01;
+	private static final int POWER_ON = 0x02;
+	private static final int POWER_OFF = 0x04;
+	private static final int CONTROL_CHANGES = 0x08;
+	private static final int CONSOLE_STATE = 0x10;
+
+	private static final Control[] CONTROLS = Control.values();
+
+}
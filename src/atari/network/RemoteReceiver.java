@@ -2,10 +2,12 @@
 
 package atari.network;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.util.ArrayList;
@@ -18,6 +20,7 @@ public class RemoteReceiver {
 
 	public RemoteReceiver() {
 		updates = new ConcurrentLinkedQueue<ServerUpdate>();
+		freeUpdates = new ConcurrentLinkedQueue<ServerUpdate>();
 	}
 
 	public void connect(String server) throws IOException {
@@ -45,6 +48,37 @@ public class RemoteReceiver {
 		return serverAddress;
 	}
 	
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
+	// Rollback needs the Server to accept control changes at any time
+	public boolean isRollback() {
+		return ROLLBACK && pipelined;
+	}
+
+	public int rollbackMaxFrames() {
+		return ROLLBACK_MAX_FRAMES;
+	}
+
+	// Frames ahead of the stamp when the Server applies the control changes sent
+	public int inputDelayFrames() {
+		return inputDelayFrames;
+	}
+
+	// Sends control changes right away, not waiting for the next update. Only for pipelined Servers
+	public void sendControlChanges(long frame, List<ControlChange> changes) {
+		DataOutputStream out = outputStream;
+		if (out == null) return;
+		try {
+			synchronized (out) {
+				RemoteProtocol.writeClientReply(out, frame, changes);
+			}
+		} catch (IOException ex) {
+			// Ignore, the receiver will notice the disconnection
+		}
+	}
+
 	public void clientConsole(ClientConsole console) {
 		this.console = console;
 	}
@@ -61,19 +95,23 @@ public class RemoteReceiver {
 			socket = new Socket(addr, port);
 			socket.setTcpNoDelay(true);
 			socketOutputStream = socket.getOutputStream();
-			outputStream = new ObjectOutputStream(socketOutputStream);
+			outputStream = new DataOutputStream(new BufferedOutputStream(socketOutputStream, RemoteProtocol.BUFFER_SIZE));
 			socketInputStream = socket.getInputStream();
-			inputStream = new ObjectInputStream(socketInputStream);
+			inputStream = new DataInputStream(new BufferedInputStream(socketInputStream, RemoteProtocol.BUFFER_SIZE));
+			inputDelayFrames = RemoteProtocol.readHandshake(inputStream);
+			pipelined = inputDelayFrames >= 0;
+			RemoteProtocol.writeHandshake(outputStream, false, 0);
 		} catch (IOException ex) {
 			disconnection();
 			throw ex;
 		}
 		resetUpdatesPending();
+		// The Console must be ready for rollback before the first update, with the initial full state, is consumed
+		console.connected();
 		updatesReceiver = new UpdatesReceiver();
 		updatesReceiver.start();
 		updatesConsumer = new UpdatesConsumer();
 		updatesConsumer.start();
-		console.connected();
 		notifyConnectionStatusListeners();	
 	}
 	
@@ -152,12 +190,17 @@ public class RemoteReceiver {
 	private UpdatesReceiver updatesReceiver;
 	private OutputStream socketOutputStream;
 	private InputStream socketInputStream;
-	private ObjectOutputStream outputStream;
-	private ObjectInputStream inputStream;
+	private DataOutputStream outputStream;
+	private DataInputStream inputStream;
+	private ConcurrentLinkedQueue<ServerUpdate> freeUpdates;
+	private boolean pipelined = false;
+	private int inputDelayFrames = 0;
 	
 	private List<ConnectionStatusListener> connectionListeners = new ArrayList<ConnectionStatusListener>();
 
 	private static final int MAX_UPDATES_PENDING = Parameters.CLIENT_MAX_UPDATES_PENDING;
+	private static final boolean ROLLBACK = Parameters.CLIENT_ROLLBACK;
+	private static final int ROLLBACK_MAX_FRAMES = Math.max(Parameters.CLIENT_ROLLBACK_MAX_FRAMES, 2);
 
 
 	private class UpdatesReceiver extends Thread {
@@ -166,10 +209,15 @@ public class RemoteReceiver {
 			ServerUpdate update;
 			try {
 				while(inputStream != null) {
-					update = (ServerUpdate) inputStream.readObject();
-					outputStream.writeObject(console.controlChangesToSend());
-					outputStream.flush();
-					socketOutputStream.flush();
+					update = freeUpdates.poll();
+					if (update == null) update = new ServerUpdate();
+					RemoteProtocol.readServerUpdate(inputStream, update);
+					List<ControlChange> changes = console.controlChangesToSend();
+					// In pipelined mode the Server does not wait for answers, so only send when there are changes
+					if (!pipelined || changes != null)
+						synchronized (outputStream) {
+							RemoteProtocol.writeClientReply(outputStream, update.frame, changes);
+						}
 					receiveServerUpdate(update);
 				}
 			} catch (Exception ex) {
@@ -194,6 +242,8 @@ public class RemoteReceiver {
 					}
 					if (inputStream != null && update != null) {
 						console.receiveServerUpdate(update);
+						update.clear();
+						freeUpdates.add(update);
 						yield();
 					}
 				}
@@ -2,10 +2,12 @@
 
 package atari.network;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -19,6 +21,7 @@ public class RemoteTransmitter {
 
 	public RemoteTransmitter() {
 		updates = new ConcurrentLinkedQueue<ServerUpdate>();
+		freeUpdates = new ConcurrentLinkedQueue<ServerUpdate>();
 	}
 
 	public void start() throws IOException {
@@ -60,6 +63,12 @@ public class RemoteTransmitter {
 		this.console = console;
 	}
 
+	// Gets an update from the pool. Updates sent are given back to the pool after written
+	public ServerUpdate newUpdate() {
+		ServerUpdate update = freeUpdates.poll();
+		return update != null ? update : new ServerUpdate();
+	}
+
 	public void sendUpdate(ServerUpdate update) {
 		if (outputStream == null) return;
 		synchronized (updates) {
@@ -73,6 +82,15 @@ public class RemoteTransmitter {
 		}
 	}
 
+	public boolean isPipelined() {
+		return PIPELINED;
+	}
+
+	// Frames ahead of the Client frame stamp when the Client control changes are applied, in pipelined mode
+	public int inputDelayFrames() {
+		return INPUT_DELAY_FRAMES;
+	}
+
 	public boolean isClientConnected() {
 		return outputStream != null;
 	}
@@ -94,10 +112,13 @@ public class RemoteTransmitter {
 		socket = toSocket;
 		socket.setTcpNoDelay(true);
 		socketOutputStream = socket.getOutputStream();
-		outputStream = new ObjectOutputStream(socketOutputStream);
+		outputStream = new DataOutputStream(new BufferedOutputStream(socketOutputStream, RemoteProtocol.BUFFER_SIZE));
 		socketInputStream = socket.getInputStream();
-		inputStream = new ObjectInputStream(socketInputStream);
+		inputStream = new DataInputStream(new BufferedInputStream(socketInputStream, RemoteProtocol.BUFFER_SIZE));
+		RemoteProtocol.writeHandshake(outputStream, PIPELINED, INPUT_DELAY_FRAMES);
+		RemoteProtocol.readHandshake(inputStream);
 		resetUpdatesPending();
+		if (PIPELINED) new ClientInputsReceiver(socket, inputStream).start();
 		console.clientConnected();
 		notifyConnectionStatusListeners();
 	}
@@ -145,12 +166,16 @@ public class RemoteTransmitter {
 	private UpdatesSender updatesSender;
 	private OutputStream socketOutputStream;
 	private InputStream socketInputStream;
-	private ObjectOutputStream outputStream;
-	private ObjectInputStream inputStream;
+	private DataOutputStream outputStream;
+	private DataInputStream inputStream;
+	private ConcurrentLinkedQueue<ServerUpdate> freeUpdates;
+	private final List<ControlChange> clientControlChanges = new ArrayList<ControlChange>();
 
 	private List<ConnectionStatusListener> connectionListeners = new ArrayList<ConnectionStatusListener>();
 	
 	private static final int MAX_UPDATES_PENDING = Parameters.SERVER_MAX_UPDATES_PENDING;
+	private static final boolean PIPELINED = Parameters.SERVER_PIPELINED;
+	private static final int INPUT_DELAY_FRAMES = Parameters.SERVER_INPUT_DELAY_FRAMES;
 	
 	
 	private class UpdatesSender extends Thread {
@@ -169,15 +194,18 @@ public class RemoteTransmitter {
 							}
 							if (started && update != null) {
 								synchronized (outputStream) {
-									outputStream.writeObject(update);
-									outputStream.flush();
-									socketOutputStream.flush();
-									@SuppressWarnings("unchecked")
-									List<ControlChange> clientControlChanges = 
-										(List<ControlChange>) inputStream.readObject();
-									if (clientControlChanges != null)
-										console.receiveClientControlChanges(clientControlChanges);
+									RemoteProtocol.writeServerUpdate(outputStream, update);
+									if (!PIPELINED) {
+										// Lock-step. Wait for the Client answer to this update
+										clientControlChanges.clear();
+										long frame = RemoteProtocol.readClientReply(inputStream, clientControlChanges);
+										if (frame != update.frame) throw new IOException("Client reply out of sync");
+										if (!clientControlChanges.isEmpty())
+											console.receiveClientControlChanges(frame, clientControlChanges);
+									}
 								}
+								update.clear();
+								freeUpdates.add(update);
 							}
 						}
 					} catch (Exception ex) {
@@ -194,4 +222,29 @@ public class RemoteTransmitter {
 		}
 	}
 
+	// Pipelined mode only. Reads Client control changes as they come, while updates are being sent
+	private class ClientInputsReceiver extends Thread {
+		public ClientInputsReceiver(Socket socket, DataInputStream inputStream) {
+			super("Client Inputs Receiver");
+			this.socket = socket;
+			this.inputStream = inputStream;
+		}
+		@Override
+		public void run() {
+			List<ControlChange> changes = new ArrayList<ControlChange>();
+			try {
+				while (true) {
+					changes.clear();
+					long frame = RemoteProtocol.readClientReply(inputStream, changes);
+					console.receiveClientControlChanges(frame, changes);
+				}
+			} catch (Exception ex) {
+			}
+			// Exception while receiving or disconnected. Close the socket so the sender disconnects
+			try { socket.close(); } catch (Exception e) {}
+		}
+		private final Socket socket;
+		private final DataInputStream inputStream;
+	}
+
 }
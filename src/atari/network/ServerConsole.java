@@ -5,21 +5,25 @@ package atari.network;
 import general.board.Clock;
 import general.board.ClockDriven;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
 import atari.cartridge.Cartridge;
 import atari.console.Console;
+import atari.console.ConsoleConfiguration;
 import atari.console.savestate.ConsoleState;
 import atari.controls.ConsoleControls.Control;
 import atari.controls.ConsoleControlsSocket;
-import atari.tia.TIA;
 
 public class ServerConsole extends Console implements ClockDriven {
 
-	public ServerConsole(RemoteTransmitter transmitter) {
-		super();
+	public ServerConsole(RemoteTransmitter transmitter, ConsoleConfiguration configuration) {
+		super(configuration);
 		setupTransmitter(transmitter);
+		// The server clock is always running. Only started when the Console is complete
+		mainClock.go();
 	}
 
 	public RemoteTransmitter remoteTransmitter() {
@@ -35,9 +39,7 @@ public class ServerConsole extends Console implements ClockDriven {
 
 	@Override
 	protected void mainClockCreate() {
-		// The server clock is always running
-		mainClock = new Clock("Server Console", this, TIA.DEFAUL_CLOCK_NTSC);
-		mainClock.go();
+		mainClock = new Clock("Server Console", this, configuration.tiaDefaultClockNTSC);
 	}
 
 	@Override
@@ -62,13 +64,29 @@ public class ServerConsole extends Console implements ClockDriven {
 		sendStateUpdate();
 	}
 
+	@Override
+	protected synchronized void loadState(ByteBuffer snapshot) {
+		super.loadState(snapshot);
+		sendStateUpdate();
+	}
+
 	@Override
 	public synchronized void clockPulse() {
-		List<ControlChange> controlChanges = ((ServerConsoleControlsSocketAdapter) controlsSocket).commitAndGetChangesToSend();
+		// States loaded here are sent stamped with the frame just finished, and the changes of the new frame apply over them
+		if (powerOn) saveStateSocket.commitFrameBoundaryOperations();
+		frame++;
+		commitDueClientControlChanges();
+		List<ControlChange> controlChanges = ((ServerConsoleControlsSocketAdapter) controlsSocket).commitChanges();
 		if (powerOn) tia.clockPulse();
 		if (remoteTransmitter != null && remoteTransmitter.isClientConnected()) {
-			ServerUpdate update = new ServerUpdate();
-			update.controlChanges = controlChanges;
+			ServerUpdate update = remoteTransmitter.newUpdate();
+			update.frame = frame;
+			// Copied into the List of the pooled update, kept from its previous uses
+			if (!controlChanges.isEmpty()) {
+				if (update.controlChanges == null) update.controlChanges = new ArrayList<ControlChange>();
+				for (int i = 0, size = controlChanges.size(); i < size; i++)
+					update.controlChanges.add(controlChanges.get(i));
+			}
 			update.isClockPulse = powerOn;
 			remoteTransmitter.sendUpdate(update);
 		}
@@ -87,10 +105,36 @@ public class ServerConsole extends Console implements ClockDriven {
 	}
 
 	void clientDisconnected() {
+		synchronized (scheduledClientChanges) {
+			scheduledClientChanges.clear();
+		}
 		showOSD("Player 2 Client Disconnected");
 	}
 
-	void receiveClientControlChanges(List<ControlChange> clientControlChages) {
+	// Lock-step: changes are applied at the next frame. Pipelined: scheduled to the Client frame stamp plus the input delay
+	void receiveClientControlChanges(long clientFrame, List<ControlChange> clientControlChages) {
+		if (!remoteTransmitter.isPipelined()) {
+			forwardClientControlChanges(clientControlChages);
+			return;
+		}
+		synchronized (scheduledClientChanges) {
+			scheduledClientChanges.add(new ScheduledControlChanges(
+				clientFrame + remoteTransmitter.inputDelayFrames(), new ArrayList<ControlChange>(clientControlChages)));
+		}
+	}
+
+	// Changes arriving later than their scheduled frame are applied right away
+	private void commitDueClientControlChanges() {
+		synchronized (scheduledClientChanges) {
+			ScheduledControlChanges scheduled;
+			while ((scheduled = scheduledClientChanges.peek()) != null && scheduled.frame <= frame) {
+				scheduledClientChanges.poll();
+				forwardClientControlChanges(scheduled.changes);
+			}
+		}
+	}
+
+	private void forwardClientControlChanges(List<ControlChange> clientControlChages) {
 		for (ControlChange change : clientControlChages)
 			if (change instanceof ControlChangeForPaddle)
 				controlsSocket.controlStateChanged(change.control, ((ControlChangeForPaddle)change).position);
@@ -100,7 +144,8 @@ public class ServerConsole extends Console implements ClockDriven {
 
 	private void sendStateUpdate() {
 		if (remoteTransmitter != null && remoteTransmitter.isClientConnected()) {
-			ServerUpdate update = new ServerUpdate();
+			ServerUpdate update = remoteTransmitter.newUpdate();
+			update.frame = frame;
 			update.powerOn = powerOn;
 			update.consoleState = saveState();
 			remoteTransmitter.sendUpdate(update);
@@ -114,18 +159,20 @@ public class ServerConsole extends Console implements ClockDriven {
 
 	
 	private RemoteTransmitter remoteTransmitter;
+	private long frame = 0;			// Clock pulses, sent with each update
+	private final ArrayDeque<ScheduledControlChanges> scheduledClientChanges = new ArrayDeque<ScheduledControlChanges>();
 		
 	
 	private class ServerConsoleControlsSocketAdapter extends ConsoleControlsSocket {
 		@Override
 		public void controlStateChanged(Control control, boolean state) {
 			// Send some controls directly and locally only
-			if (control == Control.FAST_SPEED || control == Control.POWER_FRY || control.isStateControl()) {
+			if (control == Control.FAST_SPEED || control == Control.POWER_FRY || control == Control.REWIND || control.isStateControl()) {
 				super.controlStateChanged(control, state);
 				return;
 			}
 			synchronized (queuedChanges) {
-				queuedChanges.add(new ControlChange(control, state));
+				queuedChanges.add(ControlChange.of(control, state));
 			}
 		}
 		@Override
@@ -134,25 +181,35 @@ public class ServerConsole extends Console implements ClockDriven {
 				queuedChanges.add(new ControlChangeForPaddle(control, position));
 			}
 		}
-		private List<ControlChange> commitAndGetChangesToSend() {
-			List<ControlChange> changesToSend;
+		// Returns the changes committed, in a List reused every frame
+		private List<ControlChange> commitChanges() {
+			committedChanges.clear();
 			synchronized (queuedChanges) {
-				if (queuedChanges.isEmpty())
-					return null;
-				else {
-					changesToSend = new ArrayList<ControlChange>(queuedChanges);
-					queuedChanges.clear();
-				}
+				for (int i = 0, size = queuedChanges.size(); i < size; i++)
+					committedChanges.add(queuedChanges.get(i));
+				queuedChanges.clear();
 			}
 			// Effectively process the control changes 
-			for (ControlChange change : changesToSend)
+			for (int i = 0, size = committedChanges.size(); i < size; i++) {
+				ControlChange change = committedChanges.get(i);
 				if (change instanceof ControlChangeForPaddle)
 					super.controlStateChanged(change.control, ((ControlChangeForPaddle)change).position);
 				else
 					super.controlStateChanged(change.control, change.state);
-			return changesToSend;
+			}
+			return committedChanges;
 		}
 		private List<ControlChange> queuedChanges = new ArrayList<ControlChange>();
+		private final List<ControlChange> committedChanges = new ArrayList<ControlChange>();
+	}
+
+	private static class ScheduledControlChanges {
+		ScheduledControlChanges(long frame, List<ControlChange> changes) {
+			this.frame = frame;
+			this.changes = changes;
+		}
+		final long frame;
+		final List<ControlChange> changes;
 	}
 
 	private class ServerConsoleCartridgeSocketAdapter extends CartridgeSocketAdapter {}
@@ -2,18 +2,26 @@
 
 package atari.network;
 
-import java.io.Serializable;
 import java.util.List;
 
 import atari.console.savestate.ConsoleState;
 
-public class ServerUpdate implements Serializable {
+// Sent through the RemoteProtocol binary format. Instances are pooled and reused by the transmitter and receiver
+public class ServerUpdate {
 
+	// Keeps the control changes List, if any, to be reused
+	public void clear() {
+		frame = 0;
+		powerOn = null;
+		if (controlChanges != null) controlChanges.clear();
+		consoleState = null;
+		isClockPulse = false;
+	}
+
+	public long frame = 0;
 	public Boolean powerOn = null;
 	public List<ControlChange> controlChanges = null;
 	public ConsoleState consoleState = null;
 	public boolean isClockPulse = false;
-	
-	public static final long serialVersionUID = 1L;
 
 }
@@ -6,6 +6,7 @@ import general.board.BUS16Bits;
 import general.board.ClockDriven;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import utils.Randomizer;
@@ -31,6 +32,18 @@ public final class PIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		if (--timerCount <= 0)
 			decrementTimer();
 	}
+
+	// Same as calling clockPulse() the given number of times
+	public void clockPulses(int pulses) {
+		while (pulses > 0) {
+			if (timerCount > pulses) {
+				timerCount -= pulses;
+				return;
+			}
+			pulses -= timerCount > 0 ? timerCount : 1;
+			decrementTimer();
+		}
+	}
 		
 	private void setTimerInterval(int value, int interval) {
 		INTIM = value & 0xff;	
@@ -176,6 +189,29 @@ public final class PIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		T1024T               = state.T1024T;
 	}
 
+	// Same contents as saveState(), including the controls state, written as primitives into a reusable buffer
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putInt(timerCount).putInt(currentTimerInterval).putInt(lastSetTimerInterval);
+		buffer.putInt(SWCHA).putInt(SWACNT).putInt(SWCHB).putInt(SWBCNT).putInt(INTIM).putInt(INSTAT);
+		buffer.putInt(TIM1T).putInt(TIM8T).putInt(TIM64T).putInt(T1024T);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+		timerCount           = buffer.getInt();
+		currentTimerInterval = buffer.getInt();
+		lastSetTimerInterval = buffer.getInt();
+		SWCHA                = buffer.getInt();
+		SWACNT               = buffer.getInt();
+		SWCHB                = buffer.getInt();
+		SWBCNT               = buffer.getInt();
+		INTIM                = buffer.getInt();
+		INSTAT               = buffer.getInt();
+		TIM1T                = buffer.getInt();
+		TIM8T                = buffer.getInt();
+		TIM64T               = buffer.getInt();
+		T1024T               = buffer.getInt();
+	}
+
 
 	private Console console;	// Used only to show OSDs
 
@@ -207,6 +243,8 @@ public final class PIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 
 	private static final int READ_ADDRESS_MASK = 0x0007;
 	private static final int WRITE_ADDRESS_MASK = 0x0007;
+
+	public static final int SNAPSHOT_SIZE = 13 * 4;
 	
 
 	// Used to save/load states
@@ -5,13 +5,17 @@ package atari.pia;
 import general.board.BUS16Bits;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
-import parameters.Parameters;
 import utils.Randomizer;
+import atari.console.ConsoleConfiguration;
 
 public final class RAM implements BUS16Bits {
 
-	public RAM() {
+	public RAM(ConsoleConfiguration configuration) {
+		fryZeroBits = configuration.ramFryZeroBits;
+		fryOneBits = configuration.ramFryOneBits;
+		fryVariance = configuration.ramFryVariance;
 		// RAM come totally random at creation
 		Randomizer.instance.nextBytes(bytes);
 	}
@@ -48,19 +52,32 @@ public final class RAM implements BUS16Bits {
 	public void loadState(RAMState state) {
 		System.arraycopy(state.bytes, 0, bytes, 0, bytes.length);
 	}
+
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.put(bytes);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+		buffer.get(bytes);
+	}
 	
 	public void powerFry() {
-		float var = 1 - FRY_VARIANCE + 2 * Randomizer.instance.nextFloat() * FRY_VARIANCE;
+		float var = 1 - fryVariance + 2 * Randomizer.instance.nextFloat() * fryVariance;
 		// Randomly put "0" in bits on the ram
-		int fryZeroBits = (int)(var * FRY_ZERO_BITS);
-		for (int i = 0; i < fryZeroBits; i++)
+		int zeroBits = (int)(var * fryZeroBits);
+		for (int i = 0; i < zeroBits; i++)
 			bytes[Randomizer.instance.nextInt(128)] &= (byte)Randomizer.instance.nextInt(256);
 		// Randomly put "1" in bits on the ram
-		int fryOneBits = (int)(var * FRY_ONE_BITS);
-		for (int i = 0; i < fryOneBits; i++)
+		int oneBits = (int)(var * fryOneBits);
+		for (int i = 0; i < oneBits; i++)
 			bytes[Randomizer.instance.nextInt(128)] |= (byte)(0x01 << Randomizer.instance.nextInt(8));
 	}
 
+	// Configuration ----------------------------------------
+	private final int fryZeroBits;
+	private final int fryOneBits;
+	private final float fryVariance;
+
 	// State Variables --------------------------------------
 	private final byte[] bytes = new byte[128];
 	
@@ -68,9 +85,7 @@ public final class RAM implements BUS16Bits {
 	// Constants -------------------------------------------
 	private static final int ADDRESS_MASK = 0x007f;
 
-	private static final int FRY_ZERO_BITS = Parameters.RAM_FRY_ZERO_BITS;
-	private static final int FRY_ONE_BITS = Parameters.RAM_FRY_ONE_BITS;
-	private static final float FRY_VARIANCE = Parameters.RAM_FRY_VARIANCE;
+	public static final int SNAPSHOT_SIZE = 128;
 
 
 	// Used to save/load states
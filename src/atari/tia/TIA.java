@@ -2,6 +2,10 @@
 
 package atari.tia;		
 
+import static utils.SnapshotBuffers.getBoolean;
+import static utils.SnapshotBuffers.getInts;
+import static utils.SnapshotBuffers.putBoolean;
+import static utils.SnapshotBuffers.putInts;
 import general.av.video.VideoSignal;
 import general.av.video.VideoStandard;
 import general.board.BUS16Bits;
@@ -9,17 +13,19 @@ import general.board.ClockDriven;
 import general.m6502.M6502;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Map;
 
-import parameters.Parameters;
 import utils.Array2DCopy;
 import atari.console.Console;
+import atari.console.ConsoleConfiguration;
 import atari.controls.ConsoleControls;
 import atari.controls.ConsoleControlsInput;
 import atari.pia.PIA;
 import atari.tia.audio.AudioGenerator;
 import atari.tia.audio.AudioMonoGenerator;
+import atari.tia.audio.AudioStereoGenerator;
 import atari.tia.video.NTSCPalette;
 import atari.tia.video.PALPalette;
 import atari.tia.video.VideoGenerator;
@@ -27,11 +33,16 @@ import atari.tia.video.VideoGenerator;
 @SuppressWarnings("unused")
 public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 
-	public TIA(M6502 cpu, PIA pia) {
+	public TIA(M6502 cpu, PIA pia, ConsoleConfiguration configuration) {
 		this.cpu = cpu;
 		this.pia = pia;
 		videoOutput = new VideoGenerator();
-		audioOutput = new AudioMonoGenerator();
+		audioOutput = configuration.audioStereo ? new AudioStereoGenerator(configuration) : new AudioMonoGenerator(configuration);
+		syncWithAudioMonitor = configuration.tiaSyncWithAudioMonitor;
+		syncWithVideoMonitor = configuration.tiaSyncWithVideoMonitor;
+		forcedClock = configuration.tiaForcedClock;
+		defaultClockNTSC = configuration.tiaDefaultClockNTSC;
+		defaultClockPAL = configuration.tiaDefaultClockPAL;
 	}
 
 	public VideoGenerator videoOutput() {	// VideoSignal
@@ -44,13 +55,13 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 
 	public void videoStandard(VideoStandard standard) {
 		videoOutput.standard = standard;
-		audioOutput.videoStandard = standard;
+		audioOutput.videoStandard(standard);
 		palette = standard.equals(VideoStandard.NTSC) ? NTSCPalette.getPalette() : PALPalette.getPalette();
 	}
 	
 	public double desiredClockForVideoStandard() {
-		if (FORCED_CLOCK != 0) return FORCED_CLOCK;
-		return videoOutput.standard().equals(VideoStandard.NTSC) ? DEFAUL_CLOCK_NTSC : DEFAUL_CLOCK_PAL;
+		if (forcedClock != 0) return forcedClock;
+		return videoOutput.standard().equals(VideoStandard.NTSC) ? defaultClockNTSC : defaultClockPAL;
 	}
 	
 	public void powerOn() {
@@ -75,21 +86,31 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 			// Releases the CPU at the beginning of the line in case a WSYNC has halted it
 			cpu.RDY = true;
 			// HBLANK period
-			for (clock = 3; clock < HBLANK_DURATION; clock += 3) {	// 3 .. 66
+			clock = 3;
+			while (clock < HBLANK_DURATION) {	// 3 .. 66
 				// If one entire line since last observable change has just completed, enter repeatLastLine mode
 				if (clock == lastObservableChangeClock) {
 					repeatLastLine = true;
 					lastObservableChangeClock = -1;
 				}
+				// While the CPU is idle nothing observable happens, so advance the CPU and PIA many cycles at once
+				int cycles = cpu.idleCycles();
+				if (cycles > 1) {
+					cycles = Math.min(cycles, (HBLANK_DURATION - clock + 2) / 3);
+					hblankSkipClocks(cycles);
+					continue;
+				}
 				// Send clock pulse to the CPU and PIA each 3 TIA cycles, at the end of the 3rd cycle, 
 				pia.clockPulse();
 				cpu.clockPulse();
+				clock += 3;
 			}
 			// 67
-			// First Audio Sample. 2 samples per scan line ~ 31440 KHz
-			audioOutput.generateNextSamples(1);
+			// First Audio clock. 2 clocks per scan line ~ 31440 Hz
+			audioOutput.clockPulses(1);
 			// Display period
-			for (clock = 68; clock < LINE_WIDTH; clock++) {			// 68 .. 227
+			clock = 68;
+			while (clock < LINE_WIDTH) {			// 68 .. 227
 				// Clock delay decodes
 				if (vBlankDecode.isActive) vBlankDecode.clockPulse();
 				// If one entire line since last observable change has just completed, enter repeatLastLine mode
@@ -97,6 +118,12 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 					repeatLastLine = true;
 					lastObservableChangeClock = -1;
 				}
+				// While no object is being drawn and the CPU is idle, pixels only depend on the PlayField, so draw them in spans
+				int span = displaySpanClocks();
+				if (span > 1) {
+					displaySpan(span);
+					continue;
+				}
 				// Send clock pulse to the CPU and PIA each 3 TIA cycles, at the end of the 3rd cycle, 
 				if (clock % 3 == 0) {
 					pia.clockPulse();
@@ -105,6 +132,7 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 				objectsTriggerScanCounters();
 				if (!repeatLastLine) setPixelValue();
 				objectsIncrementCounters();
+				clock++;
 			}
 			// Send the last clock pulse to the CPU and PIA, at the end of the 227th cycle, perceived by the TIA at clock 0 next line
 			clock = 0;
@@ -116,16 +144,94 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 			// Send the finished line to the output
 			adjustLineAtEnd();
 			videoOutputVSynched = videoOutput.newLine(linePixels, vSyncOn);
-			// Second Audio Sample. 2 samples per scan line ~ 31440 KHz
-			audioOutput.generateNextSamples(1);
+			// Second Audio clock. 2 clocks per scan line ~ 31440 Hz
+			audioOutput.clockPulses(1);
 		} while (!videoOutputVSynched && powerOn);
 		if (powerOn) {
+			if (resimulating) {
+				audioOutput.discardSamplesFrame();
+				return;
+			}
 			audioOutput.sendSamplesFrameToMonitor();
 			// If needed, synch with audio output after each frame
-			if (SYNC_WITH_AUDIO_MONITOR) audioOutput.monitor.synchOutput();
+			if (syncWithAudioMonitor) audioOutput.monitor.synchOutput();
 			// If needed, synch with video output
-			if (SYNC_WITH_VIDEO_MONITOR) videoOutput.monitor.synchOutput();
+			if (syncWithVideoMonitor) videoOutput.monitor.synchOutput();
+		}
+	}
+
+	private void hblankSkipClocks(int cycles) {
+		int end = clock + cycles * 3;
+		// Check for the end of the repeatLastLine wait at each skipped CPU cycle, as if they were run one by one
+		if (lastObservableChangeClock > clock && lastObservableChangeClock < end && (lastObservableChangeClock - clock) % 3 == 0) {
+			repeatLastLine = true;
+			lastObservableChangeClock = -1;
+		}
+		pia.clockPulses(cycles);
+		cpu.skipIdleCycles(cycles);
+		clock = end;
+	}
+
+	// Number of clocks from the current one in which nothing but the PlayField can change the pixels.
+	// Clocks with objects being scanned are not batched on purpose: their state changes almost every clock, and runs of equal
+	// objects average under 2 clocks, so coloring them and latching collisions per run measured slower than setPixelValue()
+	private int displaySpanClocks() {
+		if (vBlankDecode.isActive || playfieldDelayedChangePart != -1) return 0;
+		if (player0ScanCounter >= 0 || player1ScanCounter >= 0 || missile0ScanCounter >= 0 || missile1ScanCounter >= 0 || ballScanCounter >= 0) return 0;
+		if (player0ScanStartCountdown >= 0 || player1ScanStartCountdown >= 0) return 0;
+		// Stop before any object counter reaches a value that could start a scan, copies included
+		int span = LINE_WIDTH - clock;
+		span = Math.min(span, playerTriggerDistance(player0Counter));
+		span = Math.min(span, playerTriggerDistance(player1Counter));
+		span = Math.min(span, missileTriggerDistance(missile0Counter));
+		span = Math.min(span, missileTriggerDistance(missile1Counter));
+		span = Math.min(span, (160 - ballCounter) % 160);
+		// Stop before the repeatLastLine wait ends
+		if (lastObservableChangeClock > clock) span = Math.min(span, lastObservableChangeClock - clock);
+		// Stop before the CPU becomes active again
+		int idle = Math.min(cpu.idleCycles(), LINE_WIDTH);
+		int firstCycleClock = clock + (3 - clock % 3) % 3;
+		return Math.min(span, firstCycleClock + idle * 3 - clock);
+	}
+
+	private void displaySpan(int span) {
+		int end = clock + span;
+		// Advance the CPU and PIA by the cycles inside the span. The CPU is idle so nothing is written to the TIA
+		int cycles = (end + 2) / 3 - (clock + 2) / 3;
+		if (cycles > 0) {
+			pia.clockPulses(cycles);
+			cpu.skipIdleCycles(cycles);
+		}
+		if (!repeatLastLine) {
+			// Fill the pixels, one run for each PlayField pixel
+			while (clock < end) {
+				if (clock % 4 == 0) playfieldUpdateCurrentPixel();
+				int runEnd = Math.min(end, (clock & ~0x03) + 4);
+				int color;
+				if (vBlankOn)
+					color = vSyncOn ? vSyncColor : vBlankColor;
+				else if (playfieldCurrentPixel)
+					color = !playfieldScoreMode ? playfieldColor : (clock < 148 ? player0Color : player1Color);
+				else
+					color = playfieldBackground;
+				while (clock < runEnd) linePixels[clock++] = color;
+			}
 		}
+		clock = end;
+		// No scans are started in the span, so only the position counters advance
+		player0Counter = (player0Counter + span) % 160;
+		player1Counter = (player1Counter + span) % 160;
+		missile0Counter = (missile0Counter + span) % 160;
+		missile1Counter = (missile1Counter + span) % 160;
+		ballCounter = (ballCounter + span) % 160;
+	}
+
+	private static int playerTriggerDistance(int counter) {
+		return Math.min(Math.min((316 - counter) % 160, (172 - counter) % 160), Math.min((188 - counter) % 160, (220 - counter) % 160));
+	}
+
+	private static int missileTriggerDistance(int counter) {
+		return Math.min(Math.min((160 - counter) % 160, (176 - counter) % 160), Math.min((192 - counter) % 160, (224 - counter) % 160));
 	}
 
 	private boolean debugPausedNoMoreFrames() {
@@ -145,20 +251,20 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		}
 		// Pixel color
 		int color = -1;
-		// Flags for Collision latches
-		boolean P0 = false, P1 = false, M0 = false, M1 = false, FL = false, BL = false;
+		// Objects present at this pixel, for the Collision latches
+		int objects = 0;
 		// Get the value for the PlayField and Ball first only if PlayField and Ball have higher priority
 		if (playfieldPriority) {
 			// Get the value for the Ball
 			if (ballScanCounter == 0) {
 				playersPerformDelayedSpriteChanges();		// May trigger Ball delayed enablement
 				if (ballEnabled) {
-					BL = true;
+					objects |= OBJ_BL;
 					color = ballColor;
 				}
 			}
 			if (playfieldCurrentPixel) { 
-				FL = true;
+				objects |= OBJ_PF;
 				if (color == -1) color = !playfieldScoreMode ? playfieldColor : (clock < 148 ? player0Color : player1Color);
 			}
 		}
@@ -166,28 +272,26 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		if (player0ScanCounter >= 0) {
 			playersPerformDelayedSpriteChanges();
 			int sprite = player0VerticalDelay ? player0ActiveSprite : player0DelayedSprite;
-			if (sprite != 0)
-				if (((sprite >> (player0Reflected ? (7 - player0ScanCounter) : player0ScanCounter)) & 0x01) != 0) {
-					P0 = true;
-					if (color == -1) color = player0Color;
-				}
+			if (sprite != 0 && (((player0Reflected ? REVERSED_BYTES[sprite] : sprite) >> player0ScanCounter) & 0x01) != 0) {
+				objects |= OBJ_P0;
+				if (color == -1) color = player0Color;
+			}
 		}
 		if (missile0ScanCounter == 0 && missile0Enabled && !missile0ResetToPlayer) {
-			M0 = true;
+			objects |= OBJ_M0;
 			if (color == -1) color = missile0Color;
 		}
 		// Get the value for Player1
 		if (player1ScanCounter >= 0) {
 			playersPerformDelayedSpriteChanges();
 			int sprite = player1VerticalDelay ? player1ActiveSprite : player1DelayedSprite;
-			if (sprite != 0)
-				if (((sprite >> (player1Reflected ? (7 - player1ScanCounter) : player1ScanCounter)) & 0x01) != 0) {
-					P1 = true;
-					if (color == -1) color = player1Color;
-				}
+			if (sprite != 0 && (((player1Reflected ? REVERSED_BYTES[sprite] : sprite) >> player1ScanCounter) & 0x01) != 0) {
+				objects |= OBJ_P1;
+				if (color == -1) color = player1Color;
+			}
 		}
 		if (missile1ScanCounter == 0 && missile1Enabled && !missile1ResetToPlayer) {
-			M1 = true;
+			objects |= OBJ_M1;
 			if (color == -1) color = missile1Color;
 		}
 		if (!playfieldPriority) {
@@ -195,13 +299,13 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 			if (ballScanCounter == 0) {
 				playersPerformDelayedSpriteChanges();		// May trigger Ball delayed enablement
 				if (ballEnabled) {
-					BL = true;
+					objects |= OBJ_BL;
 					if (color == -1) color = ballColor;
 				}
 			}
 			// Get the value for the the PlayField (low priority)
 			if (playfieldCurrentPixel) {
-				FL = true;
+				objects |= OBJ_PF;
 				if (color == -1) color = !playfieldScoreMode ? playfieldColor : (clock < 148 ? player0Color : player1Color);
 			}
 		}
@@ -209,73 +313,20 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		if (color == -1) color = playfieldBackground;
 		// Set the correct pixel color
 		linePixels[clock] = color;
-		// Finish collision latches
-		if (debugNoCollisions) return;
-		if (P0 && FL) 
-			CXP0FB |= 0x80;
-		if (P1) {
-			if (FL) CXP1FB |= 0x80;
-			if (P0) CXPPMM |= 0x80;
-		}
-		if (BL) {
-			if (FL) CXBLPF |= 0x80;
-			if (P0) CXP0FB |= 0x40; 
-			if (P1) CXP1FB |= 0x40; 
-		}
-		if (M0) {
-			if (P1) CXM0P |= 0x80;
-			if (P0) CXM0P |= 0x40; 
-			if (FL) CXM0FB |= 0x80;
-			if (BL) CXM0FB |= 0x40; 
-		}
-		if (M1) {
-			if (P0) CXM1P |= 0x80;
-			if (P1) CXM1P |= 0x40; 
-			if (FL) CXM1FB |= 0x80;
-			if (BL) CXM1FB |= 0x40; 
-			if (M0) CXPPMM |= 0x40; 
-		}
+		// Set all Collision latches for the objects present at once
+		if (!debugNoCollisions) collisions |= COLLISIONS_FOR_OBJECTS[objects];
 	}
 
 	private void playfieldUpdateCurrentPixel() {
 		playfieldPerformDelayedSpriteChange(false);
 		if (playfieldPatternInvalid) {
-			// Shortcuts if the Playfield is all clear
-			if (PF0 == 0 && PF1 == 0 && PF2 == 0) {
-				Arrays.fill(playfieldPattern, false);
-				playfieldPatternInvalid = false;
-				playfieldCurrentPixel = false;
-				return;
-			}
-			int s, i;
-			if (playfieldReflected) {
-				s = 40; i = -1;
-			} else {
-				s = 19; i = 1;
-			}
-			playfieldPattern[0]  = playfieldPattern[s+=i] = (PF0 & 0x10) != 0;
-			playfieldPattern[1]  = playfieldPattern[s+=i] = (PF0 & 0x20) != 0;
-			playfieldPattern[2]  = playfieldPattern[s+=i] = (PF0 & 0x40) != 0;
-			playfieldPattern[3]  = playfieldPattern[s+=i] = (PF0 & 0x80) != 0;
-			playfieldPattern[4]  = playfieldPattern[s+=i] = (PF1 & 0x80) != 0;
-			playfieldPattern[5]  = playfieldPattern[s+=i] = (PF1 & 0x40) != 0;
-			playfieldPattern[6]  = playfieldPattern[s+=i] = (PF1 & 0x20) != 0;
-			playfieldPattern[7]  = playfieldPattern[s+=i] = (PF1 & 0x10) != 0;
-			playfieldPattern[8]  = playfieldPattern[s+=i] = (PF1 & 0x08) != 0;
-			playfieldPattern[9]  = playfieldPattern[s+=i] = (PF1 & 0x04) != 0;
-			playfieldPattern[10] = playfieldPattern[s+=i] = (PF1 & 0x02) != 0;
-			playfieldPattern[11] = playfieldPattern[s+=i] = (PF1 & 0x01) != 0;
-			playfieldPattern[12] = playfieldPattern[s+=i] = (PF2 & 0x01) != 0;
-			playfieldPattern[13] = playfieldPattern[s+=i] = (PF2 & 0x02) != 0;
-			playfieldPattern[14] = playfieldPattern[s+=i] = (PF2 & 0x04) != 0;
-			playfieldPattern[15] = playfieldPattern[s+=i] = (PF2 & 0x08) != 0;
-			playfieldPattern[16] = playfieldPattern[s+=i] = (PF2 & 0x10) != 0;
-			playfieldPattern[17] = playfieldPattern[s+=i] = (PF2 & 0x20) != 0;
-			playfieldPattern[18] = playfieldPattern[s+=i] = (PF2 & 0x40) != 0;
-			playfieldPattern[19] = playfieldPattern[s+=i] = (PF2 & 0x80) != 0;
+			// Left half always in PF0, PF1, PF2 order. Right half reflected or not
+			int left = (PF0 >> 4) | REVERSED_BYTES[PF1] << 4 | PF2 << 12;
+			int right = !playfieldReflected ? left : REVERSED_BYTES[PF2] | PF1 << 8 | (REVERSED_BYTES[PF0] & 0x0f) << 16;
+			playfieldPattern = (long)right << 20 | left;
 			playfieldPatternInvalid = false;
 		}
-		playfieldCurrentPixel = playfieldPattern[(clock - HBLANK_DURATION) / 4 % 40];
+		playfieldCurrentPixel = ((playfieldPattern >> ((clock - HBLANK_DURATION) >> 2)) & 1) != 0;
 	}
 
 	private void playfieldDelaySpriteChange(int part, int sprite) {
@@ -738,22 +789,30 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 	}
 
 	private void initLatchesAtPowerOn() {
-		CXM0P = CXM1P = CXP0FB = CXP1FB = CXM0FB = CXM1FB = CXBLPF = CXPPMM = 0;
+		collisions = 0;
 		INPT0 = INPT1 = INPT2 = INPT3 = 0;
 		INPT4 = INPT5 = 0x80;
 	}
 
+	private int collisionLatches(int register) {
+		return ((collisions >> (register << 1)) & 0x03) << 6;
+	}
+
+	private void collisionLatchesSet(int register, int value) {
+		collisions |= ((value >> 6) & 0x03) << (register << 1);
+	}
+
 	@Override
 	public byte readByte(int address) {
 		switch(address & READ_ADDRESS_MASK) {
-			case 0x00:	return (byte) CXM0P;
-			case 0x01:	return (byte) CXM1P;
-			case 0x02:	return (byte) CXP0FB;
-			case 0x03:	return (byte) CXP1FB;
-			case 0x04:	return (byte) CXM0FB;
-			case 0x05:	return (byte) CXM1FB;
-			case 0x06:	return (byte) CXBLPF;
-			case 0x07:	return (byte) CXPPMM;
+			case 0x00:	return (byte) collisionLatches(0);		// CXM0P
+			case 0x01:	return (byte) collisionLatches(1);		// CXM1P
+			case 0x02:	return (byte) collisionLatches(2);		// CXP0FB
+			case 0x03:	return (byte) collisionLatches(3);		// CXP1FB
+			case 0x04:	return (byte) collisionLatches(4);		// CXM0FB
+			case 0x05:	return (byte) collisionLatches(5);		// CXM1FB
+			case 0x06:	return (byte) collisionLatches(6);		// CXBLPF
+			case 0x07:	return (byte) collisionLatches(7);		// CXPPMM
 			case 0x08:	return (byte) INPT0;
 			case 0x09:	return (byte) INPT1;
 			case 0x0A:	return (byte) INPT2;
@@ -814,7 +873,7 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 			case 0x29:	RESMP1 = i; missile1SetResetToPlayer(i); return;
 			case 0x2A:	HMOVE  = i; hitHMOVE();	return;						   	
 			case 0x2B:	HMCLR  = i; HMP0 = HMP1 = HMM0 = HMM1 = HMBL = 0; return;
-			case 0x2C:	CXCLR  = i; observableChange(); CXM0P = CXM1P = CXP0FB = CXP1FB = CXM0FB = CXM1FB = CXBLPF = CXPPMM = 0; return;
+			case 0x2C:	CXCLR  = i; observableChange(); collisions = 0; return;
 			case 0x2D:	// Register DOES NOT EXIST
 			case 0x2E:	// Register DOES NOT EXIST
 			case 0x2F:	// Register DOES NOT EXIST
@@ -887,7 +946,6 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		state.repeatLastLine 				   =  repeatLastLine;
 		state.vSyncOn                     	   =  vSyncOn;                    
 		state.vBlankOn                    	   =  vBlankOn;
-		state.playfieldPattern            	   =  playfieldPattern.clone();
 		state.playfieldPatternInvalid     	   =  playfieldPatternInvalid;    
 		state.playfieldCurrentPixel       	   =  playfieldCurrentPixel;      
 		state.playfieldColor              	   =  playfieldColor;             
@@ -973,14 +1031,14 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		state.HMM0						  	   =  HMM0;  	
 		state.HMM1						  	   =  HMM1;  	
 		state.HMBL						  	   =  HMBL;  	
-		state.CXM0P 					  	   =  CXM0P;  
-		state.CXM1P 					  	   =  CXM1P;  
-		state.CXP0FB 					  	   =  CXP0FB;
-		state.CXP1FB 					  	   =  CXP1FB;
-		state.CXM0FB 					  	   =  CXM0FB;
-		state.CXM1FB 					  	   =  CXM1FB;
-		state.CXBLPF 					  	   =  CXBLPF;
-		state.CXPPMM 					  	   =  CXPPMM;
+		state.CXM0P 					  	   =  collisionLatches(0);  
+		state.CXM1P 					  	   =  collisionLatches(1);  
+		state.CXP0FB 					  	   =  collisionLatches(2);
+		state.CXP1FB 					  	   =  collisionLatches(3);
+		state.CXM0FB 					  	   =  collisionLatches(4);
+		state.CXM1FB 					  	   =  collisionLatches(5);
+		state.CXBLPF 					  	   =  collisionLatches(6);
+		state.CXPPMM 					  	   =  collisionLatches(7);
 		state.INPT0 					  	   =  INPT0;
 		state.INPT1 					  	   =  INPT1;
 		state.INPT2 					  	   =  INPT2;
@@ -999,8 +1057,7 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		repeatLastLine 					 =	state.repeatLastLine;
 		vSyncOn                     	 =  state.vSyncOn;                     
 		vBlankOn                    	 =  state.vBlankOn;
-		playfieldPattern            	 =  state.playfieldPattern;            
-		playfieldPatternInvalid     	 =  state.playfieldPatternInvalid;     
+		playfieldPatternInvalid     	 =  true;		// Pattern is not saved, rebuild it from the registers
 		playfieldCurrentPixel       	 =  state.playfieldCurrentPixel;       
 		playfieldColor              	 =  state.playfieldColor;              
 		playfieldBackground         	 =  state.playfieldBackground;         
@@ -1085,14 +1142,15 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		HMM0							 =  state.HMM0;
 		HMM1							 =  state.HMM1;		
 		HMBL							 =  state.HMBL;
-		CXM0P 							 =  state.CXM0P; 
-		CXM1P 							 =  state.CXM1P; 
-		CXP0FB							 =  state.CXP0FB;
-		CXP1FB							 =  state.CXP1FB;
-		CXM0FB							 =  state.CXM0FB;
-		CXM1FB							 =  state.CXM1FB;
-		CXBLPF							 =  state.CXBLPF;
-		CXPPMM							 =  state.CXPPMM;
+		collisions = 0;
+		collisionLatchesSet(0, state.CXM0P);
+		collisionLatchesSet(1, state.CXM1P);
+		collisionLatchesSet(2, state.CXP0FB);
+		collisionLatchesSet(3, state.CXP1FB);
+		collisionLatchesSet(4, state.CXM0FB);
+		collisionLatchesSet(5, state.CXM1FB);
+		collisionLatchesSet(6, state.CXBLPF);
+		collisionLatchesSet(7, state.CXPPMM);
 		// INPT0 					 	 =	state.INPT0;	// Do not load controls state
 		// INPT1 					 	 =	state.INPT1;
 		// INPT2 					 	 =	state.INPT2;
@@ -1101,6 +1159,215 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		// INPT5 				 		 =	state.INPT5;
 		if (debug) debugSetColors();						// IF debug is on, ensure debug colors are used
 	}
+
+	// Same contents as saveState() plus the controls state, written as primitives into a reusable buffer. No objects are created
+	public void saveSnapshot(ByteBuffer buffer) {
+		putInts(buffer, linePixels);
+		buffer.putInt(lastObservableChangeClock);
+		putBoolean(buffer, repeatLastLine);
+		putBoolean(buffer, vSyncOn);
+		putBoolean(buffer, vBlankOn);
+		putBoolean(buffer, playfieldCurrentPixel);
+		buffer.putInt(playfieldColor);
+		buffer.putInt(playfieldBackground);
+		putBoolean(buffer, playfieldReflected);
+		putBoolean(buffer, playfieldScoreMode);
+		putBoolean(buffer, playfieldPriority);
+		buffer.putInt(player0ActiveSprite);
+		buffer.putInt(player0DelayedSprite);
+		buffer.putInt(player0Color);
+		putBoolean(buffer, player0RecentResetHit);
+		buffer.putInt(player0Counter);
+		buffer.putInt(player0ScanStartCountdown);
+		buffer.putInt(player0ScanCounter);
+		buffer.putInt(player0ScanSpeed);
+		buffer.putInt(player0ScanSubCounter);
+		putBoolean(buffer, player0VerticalDelay);
+		putBoolean(buffer, player0CloseCopy);
+		putBoolean(buffer, player0MediumCopy);
+		putBoolean(buffer, player0WideCopy);
+		putBoolean(buffer, player0Reflected);
+		buffer.putInt(player1ActiveSprite);
+		buffer.putInt(player1DelayedSprite);
+		buffer.putInt(player1Color);
+		putBoolean(buffer, player1RecentResetHit);
+		buffer.putInt(player1Counter);
+		buffer.putInt(player1ScanStartCountdown);
+		buffer.putInt(player1ScanCounter);
+		buffer.putInt(player1ScanSpeed);
+		buffer.putInt(player1ScanSubCounter);
+		putBoolean(buffer, player1VerticalDelay);
+		putBoolean(buffer, player1CloseCopy);
+		putBoolean(buffer, player1MediumCopy);
+		putBoolean(buffer, player1WideCopy);
+		putBoolean(buffer, player1Reflected);
+		putBoolean(buffer, missile0Enabled);
+		buffer.putInt(missile0Color);
+		putBoolean(buffer, missile0RecentResetHit);
+		buffer.putInt(missile0Counter);
+		buffer.putInt(missile0ScanCounter);
+		buffer.putInt(missile0ScanSpeed);
+		buffer.putInt(missile0ScanSubCounter);
+		putBoolean(buffer, missile0ResetToPlayer);
+		putBoolean(buffer, missile1Enabled);
+		buffer.putInt(missile1Color);
+		putBoolean(buffer, missile1RecentResetHit);
+		buffer.putInt(missile1Counter);
+		buffer.putInt(missile1ScanCounter);
+		buffer.putInt(missile1ScanSpeed);
+		buffer.putInt(missile1ScanSubCounter);
+		putBoolean(buffer, missile1ResetToPlayer);
+		putBoolean(buffer, ballEnabled);
+		putBoolean(buffer, ballDelayedEnablement);
+		buffer.putInt(ballColor);
+		buffer.putInt(ballCounter);
+		buffer.putInt(ballScanCounter);
+		buffer.putInt(ballScanSpeed);
+		buffer.putInt(ballScanSubCounter);
+		putBoolean(buffer, ballVerticalDelay);
+		buffer.putInt(playfieldDelayedChangeClock);
+		buffer.putInt(playfieldDelayedChangePart);
+		buffer.putInt(playfieldDelayedChangePattern);
+		for (int i = 0; i < PLAYERS_DELAYED_SPRITE_GHANGES_MAX_COUNT; i++)
+			if (i < playersDelayedSpriteChangesCount) putInts(buffer, playersDelayedSpriteChanges[i]);
+			else buffer.putInt(0).putInt(0).putInt(0);		// Unused changes are written as zeros, so the layout is fixed
+		buffer.putInt(playersDelayedSpriteChangesCount);
+		putBoolean(buffer, controlsButtonsLatched);
+		putBoolean(buffer, controlsJOY0ButtonPressed);
+		putBoolean(buffer, controlsJOY1ButtonPressed);
+		buffer.putInt(paddle0Position);
+		buffer.putInt(paddle0CapacitorCharge);
+		buffer.putInt(paddle1Position);
+		buffer.putInt(paddle1CapacitorCharge);
+		buffer.putInt(PF0);
+		buffer.putInt(PF1);
+		buffer.putInt(PF2);
+		buffer.putInt(AUDC0);
+		buffer.putInt(AUDC1);
+		buffer.putInt(AUDF0);
+		buffer.putInt(AUDF1);
+		buffer.putInt(AUDV0);
+		buffer.putInt(AUDV1);
+		buffer.putInt(HMP0);
+		buffer.putInt(HMP1);
+		buffer.putInt(HMM0);
+		buffer.putInt(HMM1);
+		buffer.putInt(HMBL);
+		buffer.putInt(collisions);
+		buffer.putInt(INPT0);
+		buffer.putInt(INPT1);
+		buffer.putInt(INPT2);
+		buffer.putInt(INPT3);
+		buffer.putInt(INPT4);
+		buffer.putInt(INPT5);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+		getInts(buffer, linePixels);
+		playfieldPatternInvalid = true;		// Pattern is not saved, rebuild it from the registers
+		lastObservableChangeClock = buffer.getInt();
+		repeatLastLine = getBoolean(buffer);
+		vSyncOn = getBoolean(buffer);
+		vBlankOn = getBoolean(buffer);
+		playfieldCurrentPixel = getBoolean(buffer);
+		playfieldColor = buffer.getInt();
+		playfieldBackground = buffer.getInt();
+		playfieldReflected = getBoolean(buffer);
+		playfieldScoreMode = getBoolean(buffer);
+		playfieldPriority = getBoolean(buffer);
+		player0ActiveSprite = buffer.getInt();
+		player0DelayedSprite = buffer.getInt();
+		player0Color = buffer.getInt();
+		player0RecentResetHit = getBoolean(buffer);
+		player0Counter = buffer.getInt();
+		player0ScanStartCountdown = buffer.getInt();
+		player0ScanCounter = buffer.getInt();
+		player0ScanSpeed = buffer.getInt();
+		player0ScanSubCounter = buffer.getInt();
+		player0VerticalDelay = getBoolean(buffer);
+		player0CloseCopy = getBoolean(buffer);
+		player0MediumCopy = getBoolean(buffer);
+		player0WideCopy = getBoolean(buffer);
+		player0Reflected = getBoolean(buffer);
+		player1ActiveSprite = buffer.getInt();
+		player1DelayedSprite = buffer.getInt();
+		player1Color = buffer.getInt();
+		player1RecentResetHit = getBoolean(buffer);
+		player1Counter = buffer.getInt();
+		player1ScanStartCountdown = buffer.getInt();
+		player1ScanCounter = buffer.getInt();
+		player1ScanSpeed = buffer.getInt();
+		player1ScanSubCounter = buffer.getInt();
+		player1VerticalDelay = getBoolean(buffer);
+		player1CloseCopy = getBoolean(buffer);
+		player1MediumCopy = getBoolean(buffer);
+		player1WideCopy = getBoolean(buffer);
+		player1Reflected = getBoolean(buffer);
+		missile0Enabled = getBoolean(buffer);
+		missile0Color = buffer.getInt();
+		missile0RecentResetHit = getBoolean(buffer);
+		missile0Counter = buffer.getInt();
+		missile0ScanCounter = buffer.getInt();
+		missile0ScanSpeed = buffer.getInt();
+		missile0ScanSubCounter = buffer.getInt();
+		missile0ResetToPlayer = getBoolean(buffer);
+		missile1Enabled = getBoolean(buffer);
+		missile1Color = buffer.getInt();
+		missile1RecentResetHit = getBoolean(buffer);
+		missile1Counter = buffer.getInt();
+		missile1ScanCounter = buffer.getInt();
+		missile1ScanSpeed = buffer.getInt();
+		missile1ScanSubCounter = buffer.getInt();
+		missile1ResetToPlayer = getBoolean(buffer);
+		ballEnabled = getBoolean(buffer);
+		ballDelayedEnablement = getBoolean(buffer);
+		ballColor = buffer.getInt();
+		ballCounter = buffer.getInt();
+		ballScanCounter = buffer.getInt();
+		ballScanSpeed = buffer.getInt();
+		ballScanSubCounter = buffer.getInt();
+		ballVerticalDelay = getBoolean(buffer);
+		playfieldDelayedChangeClock = buffer.getInt();
+		playfieldDelayedChangePart = buffer.getInt();
+		playfieldDelayedChangePattern = buffer.getInt();
+		for (int i = 0; i < PLAYERS_DELAYED_SPRITE_GHANGES_MAX_COUNT; i++)
+			getInts(buffer, playersDelayedSpriteChanges[i]);
+		playersDelayedSpriteChangesCount = buffer.getInt();
+		controlsButtonsLatched = getBoolean(buffer);
+		controlsJOY0ButtonPressed = getBoolean(buffer);
+		controlsJOY1ButtonPressed = getBoolean(buffer);
+		paddle0Position = buffer.getInt();
+		paddle0CapacitorCharge = buffer.getInt();
+		paddle1Position = buffer.getInt();
+		paddle1CapacitorCharge = buffer.getInt();
+		PF0 = buffer.getInt();
+		PF1 = buffer.getInt();
+		PF2 = buffer.getInt();
+		AUDC0 = buffer.getInt(); audioOutput.channel0().setControl(AUDC0 & 0x0f);
+		AUDC1 = buffer.getInt(); audioOutput.channel1().setControl(AUDC1 & 0x0f);
+		AUDF0 = buffer.getInt(); audioOutput.channel0().setDivider((AUDF0 & 0x1f) + 1);
+		AUDF1 = buffer.getInt(); audioOutput.channel1().setDivider((AUDF1 & 0x1f) + 1);
+		AUDV0 = buffer.getInt(); audioOutput.channel0().setVolume(AUDV0 & 0x0f);
+		AUDV1 = buffer.getInt(); audioOutput.channel1().setVolume(AUDV1 & 0x0f);
+		HMP0 = buffer.getInt();
+		HMP1 = buffer.getInt();
+		HMM0 = buffer.getInt();
+		HMM1 = buffer.getInt();
+		HMBL = buffer.getInt();
+		collisions = buffer.getInt();
+		INPT0 = buffer.getInt();
+		INPT1 = buffer.getInt();
+		INPT2 = buffer.getInt();
+		INPT3 = buffer.getInt();
+		INPT4 = buffer.getInt();
+		INPT5 = buffer.getInt();
+		if (debug) debugSetColors();
+	}
+
+	// While frames already presented are re-simulated, like in rollbacks, audio is discarded and there is no synch with the monitors
+	public void resimulating(boolean state) {
+		resimulating = state;
+	}
 	
 	
 	// Variables ----------------------------------------------
@@ -1113,6 +1380,14 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 	private final M6502 cpu;
 	private final PIA pia;
 
+	private boolean resimulating = false;
+
+	private final boolean syncWithAudioMonitor;
+	private final boolean syncWithVideoMonitor;
+	private final double forcedClock;				//  TIA Real Clock = NTSC clock = 3584160 or 3579545 Hz
+	private final double defaultClockNTSC;
+	private final double defaultClockPAL;
+
 	private boolean powerOn = false;
 	private final int debugPixels[] = new int[LINE_WIDTH];
 	
@@ -1142,7 +1417,7 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 
 	private boolean hMoveHitBlank = false;
 	
-	private boolean[] playfieldPattern = new boolean[40];
+	private long playfieldPattern = 0;			// One bit for each of the 40 PlayField pixels in the line
 	private boolean playfieldPatternInvalid = true;
 	private boolean playfieldCurrentPixel = false;
 	private int playfieldColor = 0xff000000;
@@ -1227,14 +1502,15 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 
 	// Read registers -------------------------------------------
 
-	private int CXM0P; 		// collision M0-P1, M0-P0 (Bit 7,6)
-	private int CXM1P; 		// collision M1-P0, M1-P1
-	private int CXP0FB;		// collision P0-PF, P0-BL
-	private int CXP1FB;		// collision P1-PF, P1-BL
-	private int CXM0FB;		// collision M0-PF, M0-BL
-	private int CXM1FB;		// collision M1-PF, M1-BL
-	private int CXBLPF;		// collision BL-PF, unused
-	private int CXPPMM;		// collision P0-P1, M0-M1
+	private int collisions;	// All collision latches. Bits 7,6 of register n at bits 2n+1,2n:
+							// CXM0P  collision M0-P1, M0-P0 (Bit 7,6)
+							// CXM1P  collision M1-P0, M1-P1
+							// CXP0FB collision P0-PF, P0-BL
+							// CXP1FB collision P1-PF, P1-BL
+							// CXM0FB collision M0-PF, M0-BL
+							// CXM1FB collision M1-PF, M1-BL
+							// CXBLPF collision BL-PF, unused
+							// CXPPMM collision P0-P1, M0-M1
 	private int INPT0; 		// Paddle0 Left pot port
 	private int INPT1; 		// Paddle0 Right pot port
 	private int INPT2; 		// Paddle1 Left pot port
@@ -1326,15 +1602,50 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 	private static final int READ_ADDRESS_MASK = 0x000f;
 	private static final int WRITE_ADDRESS_MASK = 0x003f;
 	
+	private static final int OBJ_P0 = 0x01;
+	private static final int OBJ_P1 = 0x02;
+	private static final int OBJ_M0 = 0x04;
+	private static final int OBJ_M1 = 0x08;
+	private static final int OBJ_BL = 0x10;
+	private static final int OBJ_PF = 0x20;
+
+	private static final int[] REVERSED_BYTES = buildReversedBytes();
+	private static final int[] COLLISIONS_FOR_OBJECTS = buildCollisionsForObjects();	// Indexed by the OBJ_ bits present in a pixel
+
 	private static final int PLAYERS_DELAYED_SPRITE_GHANGES_MAX_COUNT = 50;  // Supports a maximum of player GR changes before any is drawn
-	
-	private static final boolean SYNC_WITH_AUDIO_MONITOR = Parameters.TIA_SYNC_WITH_AUDIO_MONITOR;
-	private static final boolean SYNC_WITH_VIDEO_MONITOR = Parameters.TIA_SYNC_WITH_VIDEO_MONITOR;
-	
-	private static final double FORCED_CLOCK = Parameters.TIA_FORCED_CLOCK;	//  TIA Real Clock = NTSC clock = 3584160 or 3579545 Hz
 
-	public static final double DEFAUL_CLOCK_NTSC = Parameters.TIA_DEFAULT_CLOCK_NTSC;		
-	public static final double DEFAUL_CLOCK_PAL =  Parameters.TIA_DEFAULT_CLOCK_PAL;		
+	public static final int SNAPSHOT_SIZE = (LINE_WIDTH + PLAYERS_DELAYED_SPRITE_GHANGES_MAX_COUNT * 3 + 63) * 4 + 31;		// Line pixels, sprite changes, 63 ints and 31 booleans
+
+
+	// Lookup tables
+	private static int[] buildReversedBytes() {
+		int[] table = new int[256];
+		for (int b = 0; b < 256; b++)
+			for (int bit = 0; bit < 8; bit++)
+				if ((b & (1 << bit)) != 0) table[b] |= 0x80 >> bit;
+		return table;
+	}
+
+	private static int[] buildCollisionsForObjects() {
+		// Pairs of objects for each collision latch, in the same order as the collisions bits: register n bit 6 first, then bit 7
+		int[][] pairs = {
+			{ OBJ_M0, OBJ_P0 }, { OBJ_M0, OBJ_P1 },		// CXM0P
+			{ OBJ_M1, OBJ_P1 }, { OBJ_M1, OBJ_P0 },		// CXM1P
+			{ OBJ_P0, OBJ_BL }, { OBJ_P0, OBJ_PF },		// CXP0FB
+			{ OBJ_P1, OBJ_BL }, { OBJ_P1, OBJ_PF },		// CXP1FB
+			{ OBJ_M0, OBJ_BL }, { OBJ_M0, OBJ_PF },		// CXM0FB
+			{ OBJ_M1, OBJ_BL }, { OBJ_M1, OBJ_PF },		// CXM1FB
+			{ 0, 0 },           { OBJ_BL, OBJ_PF },		// CXBLPF
+			{ OBJ_M0, OBJ_M1 }, { OBJ_P0, OBJ_P1 }		// CXPPMM
+		};
+		int[] table = new int[64];
+		for (int objects = 0; objects < 64; objects++)
+			for (int bit = 0; bit < pairs.length; bit++) {
+				int pair = pairs[bit][0] | pairs[bit][1];
+				if (pair != 0 && (objects & pair) == pair) table[objects] |= 1 << bit;
+			}
+		return table;
+	}
 
 
 	// Delayed decodes
@@ -1361,7 +1672,6 @@ public final class TIA implements BUS16Bits, ClockDriven, ConsoleControlsInput {
 		boolean repeatLastLine;
 		boolean vSyncOn;
 		boolean vBlankOn;
-		boolean[] playfieldPattern;
 		boolean playfieldPatternInvalid;
 		boolean playfieldCurrentPixel;
 		int playfieldColor;
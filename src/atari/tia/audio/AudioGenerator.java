@@ -2,54 +2,147 @@
 
 package atari.tia.audio;
 
+import static general.av.audio.BandLimitedStepBuffer.TIME_FRACTION_BITS;
 import general.av.audio.AudioMonitor;
 import general.av.audio.AudioSignal;
+import general.av.audio.BandLimitedStepBuffer;
 import general.av.video.VideoStandard;
-import parameters.Parameters;
+import atari.console.ConsoleConfiguration;
 
+// The channels are clocked as in the TIA, 2 times per scanline. Each change in the output amplitude is placed as a
+// band-limited step at its exact time, and the samples are produced at the output sample rate, 16 bits.
+// Output time advances a fixed amount per clock, so each frame gives the same samples for the same frame rate.
+// Clocks are only counted as they come. The channels are advanced when their output is needed, before any change to them
+// and at the end of the frame, skipping at once the clocks in which neither output changes
+// Output channels are interleaved
 public abstract class AudioGenerator implements AudioSignal {
 
+	public AudioGenerator(ConsoleConfiguration configuration, int outputChannels) {
+		this.outputChannels = outputChannels;
+		amplitudeScale = configuration.audioMaxAmplitude * Short.MAX_VALUE;
+		sampleRate = configuration.audioSampleRate;
+		framesPerSecondNTSC = configuration.tiaDefaultClockNTSC;
+		framesPerSecondPAL = configuration.tiaDefaultClockPAL;
+		videoStandard(VideoStandard.NTSC);
+	}
+
 	@Override
 	public void connectMonitor(AudioMonitor monitor) {
 		this.monitor = monitor;
 	}
 
-	public void generateNextSamples(int samples) {
-		int remainingSamples = Math.max(desiredSamplesPerFrame() - generatedSamples, 0);
-		internalGenerateNextSamples(Math.min(samples, remainingSamples));
+	@Override
+	public int sampleRate() {
+		return sampleRate;
+	}
+
+	@Override
+	public int channels() {
+		return outputChannels;
+	}
+
+	public void videoStandard(VideoStandard standard) {
+		videoStandard = standard;
+		double framesPerSecond = standard == VideoStandard.NTSC ? framesPerSecondNTSC : framesPerSecondPAL;
+		if (framesPerSecond <= 0) framesPerSecond = standard.fps;
+		double samplesPerClock = sampleRate / (framesPerSecond * clocksPerFrame());
+		timePerClock = (int)Math.round(samplesPerClock * (1 << TIME_FRACTION_BITS));
+		int capacity = (int)Math.ceil(samplesPerClock * clocksPerFrame()) + 1;
+		if (samples == null || samples.length < capacity * outputChannels) {
+			samples = new short[capacity * outputChannels];
+			steps = new BandLimitedStepBuffer[outputChannels];
+			for (int c = 0; c < outputChannels; c++) steps[c] = new BandLimitedStepBuffer(capacity);
+			lastAmplitudes = new int[outputChannels];
+			time = 0;
+		}
+	}
+
+	// Counts clocks for the channels, up to the clocks of one frame
+	public void clockPulses(int clocks) {
+		int remainingClocks = Math.max(clocksPerFrame() - generatedClocks, 0);
+		clocks = Math.min(clocks, remainingClocks);
+		pendingClocks += clocks;
+		generatedClocks += clocks;
 	}
 
 	public ChannelStream channel0() {
+		advanceChannels();
 		return channel0;
 	}
 
 	public ChannelStream channel1() {
+		advanceChannels();
 		return channel1;
 	}
 
 	public void sendSamplesFrameToMonitor() {
-		int missingSamples = desiredSamplesPerFrame() - generatedSamples;
-		if (missingSamples > 0) generateNextSamples(missingSamples);
-		if (monitor != null) monitor.nextSamples(samples, generatedSamples);
-		generatedSamples = 0;
+		int quant = completeSamplesFrame();
+		if (monitor != null) monitor.nextSamples(samples, quant * outputChannels);
+	}
+
+	// Generates the frame as usual, so the channels advance, but the samples are not heard
+	public void discardSamplesFrame() {
+		completeSamplesFrame();
+	}
+
+	// The fraction of sample left at the end of the frame goes to the next one
+	private int completeSamplesFrame() {
+		int missingClocks = clocksPerFrame() - generatedClocks;
+		if (missingClocks > 0) clockPulses(missingClocks);
+		advanceChannels();
+		int quant = time >> TIME_FRACTION_BITS;
+		for (int c = 0; c < outputChannels; c++)
+			steps[c].readSamples(samples, c, outputChannels, quant);
+		time -= quant << TIME_FRACTION_BITS;
+		generatedClocks = 0;
+		return quant;
 	}
 
-	protected abstract void internalGenerateNextSamples(int min);
+	// Amplitude of the output channel for the current samples of the TIA channels
+	protected abstract int amplitude(int outputChannel);
+
+	private void advanceChannels() {
+		while (pendingClocks > 0) {
+			int clocks = Math.min(pendingClocks, Math.min(channel0.clocksToChange(), channel1.clocksToChange()));
+			channel0.advance(clocks);
+			channel1.advance(clocks);
+			// Only the last clock may have changed the amplitude
+			time += (clocks - 1) * timePerClock;
+			for (int c = 0; c < outputChannels; c++) {
+				int amplitude = amplitude(c);
+				if (amplitude != lastAmplitudes[c]) {
+					steps[c].addStep(time, amplitude - lastAmplitudes[c]);
+					lastAmplitudes[c] = amplitude;
+				}
+			}
+			time += timePerClock;
+			pendingClocks -= clocks;
+		}
+	}
 
-	private int desiredSamplesPerFrame() {
-		return videoStandard.height * 2;		// Perfect amount is 2 samples per scan line
+	private int clocksPerFrame() {
+		return videoStandard.height * 2;		// 2 clocks per scan line
 	}
 
 	protected final ChannelStream channel0 = new ChannelStream(); 
 	protected final ChannelStream channel1 = new ChannelStream(); 
 
 	public AudioMonitor monitor;
-	public VideoStandard videoStandard;
 
-	protected int generatedSamples = 0;
-	
-	protected final byte[] samples = new byte[1024];	// More than enough samples for a frame
+	protected VideoStandard videoStandard;
+	protected final float amplitudeScale;		// From channel amplitude to 16 bits
+
+	private final int sampleRate;
+	private final int outputChannels;
+	private final double framesPerSecondNTSC;
+	private final double framesPerSecondPAL;
 
-	protected static final float MAX_AMPLITUDE = Parameters.TIA_AUDIO_MAX_AMPLITUDE;
+	private BandLimitedStepBuffer[] steps;
+	private short[] samples;
+	private int time = 0;						// Output samples from the start of the frame, fixed point
+	private int timePerClock;
+	private int[] lastAmplitudes;
+	private int generatedClocks = 0;
+	private int pendingClocks = 0;				// Counted but not yet advanced in the channels
 
 }
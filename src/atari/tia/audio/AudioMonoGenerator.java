@@ -2,18 +2,21 @@
 
 package atari.tia.audio;
 
-import parameters.Parameters;
+import atari.console.ConsoleConfiguration;
 
 public final class AudioMonoGenerator extends AudioGenerator {
 
+	public AudioMonoGenerator(ConsoleConfiguration configuration) {
+		super(configuration, 1);
+		maxMonoChannelAmplitude = configuration.audioMaxMonoChannelAmplitude;
+	}
+
 	@Override
-	protected void internalGenerateNextSamples(int quant) {
-		for (int i = 0; i < quant; i++) {
-			float mixedSample = channel0.nextSample() * MAX_MONO_CHANNEL_AMPLITUDE + channel1.nextSample() * MAX_MONO_CHANNEL_AMPLITUDE;
-			samples[generatedSamples++] = ((byte) (mixedSample * (MAX_AMPLITUDE * 127)));
-		}
+	protected int amplitude(int outputChannel) {
+		float mixedSample = channel0.currentSample() * maxMonoChannelAmplitude + channel1.currentSample() * maxMonoChannelAmplitude;
+		return (int) (mixedSample * amplitudeScale);
 	}
 
-	private static final float MAX_MONO_CHANNEL_AMPLITUDE = Parameters.TIA_AUDIO_MAX_MONO_CHANNEL_AMPLITUDE;
+	private final float maxMonoChannelAmplitude;
 	
 }
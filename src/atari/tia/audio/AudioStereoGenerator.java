@@ -0,0 +1,23 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package atari.tia.audio;
+
+import atari.console.ConsoleConfiguration;
+
+// Channel 0 to the left output, channel 1 to the right
+public final class AudioStereoGenerator extends AudioGenerator {
+
+	public AudioStereoGenerator(ConsoleConfiguration configuration) {
+		super(configuration, 2);
+		maxStereoChannelAmplitude = configuration.audioMaxStereoChannelAmplitude;
+	}
+
+	@Override
+	protected int amplitude(int outputChannel) {
+		ChannelStream channel = outputChannel == 0 ? channel0 : channel1;
+		return (int) (channel.currentSample() * maxStereoChannelAmplitude * amplitudeScale);
+	}
+
+	private final float maxStereoChannelAmplitude;
+	
+}
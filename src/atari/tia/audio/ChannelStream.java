@@ -2,18 +2,31 @@
 
 package atari.tia.audio;
 
+// The output only changes when the divider counts down, so clocks can be advanced many at a time.
+// Each AUDC mode is a precomputed state machine over the positions of the poly counters and tone dividers it uses,
+// so each divider count is a table read and a state change
 public final class ChannelStream {
 
-	public float nextSample() {
-		if (--dividerCountdown <= 0) {
+	// Clocks until the output is next computed
+	public int clocksToChange() {
+		return dividerCountdown < 1 ? 1 : dividerCountdown;
+	}
+
+	// Advances up to clocksToChange() clocks
+	public void advance(int clocks) {
+		dividerCountdown -= clocks;
+		if (dividerCountdown <= 0) {
 			dividerCountdown = divider;
 			currentSample = nextSampleForControl() == 1 ? volume : -volume;
 		}
+	}
+
+	public float currentSample() {
 		return currentSample;
 	}
 	
 	public void setVolume(int newVolume) {
-		volume = (float)Math.pow(((float)newVolume / MAX_VOLUME), NON_LINEAR_CONVERSION);
+		volume = VOLUMES[newVolume];
 	}
 
 	public void setDivider(int newDivider) {
@@ -24,136 +37,174 @@ public final class ChannelStream {
 
 	public void setControl(int control) {
 		if (this.control == control) return;
+		// Counters keep their positions between modes, as in the TIA
+		mode.positions(state, positions);
 		this.control = control;
+		mode = MODES[control];
+		state = mode.state(positions);
+		outputs = mode.outputs;
+		nextStates = mode.nextStates;
 	}
 	
 	private int nextSampleForControl() {
+		int bit = outputs[state];
+		state = nextStates[state];
+		return bit;
+	}
+
+	// One step of the counters used by the control, at each divider count. Only used to build the Mode tables
+	private static int step(int control, int[] p) {
+		int bit;
 		switch (control) {
 			case 0x00:						// Silence  ("set to 1" per specification)
 			case 0x0b:						// Set last 4 bits to 1	(same as silence)
 				return 1;
 			case 0x01:						// 4 bit poly
-				return nextPoly4();
+				bit = POLY4[p[POLY4_COUNTER]]; if (++p[POLY4_COUNTER] == POLY4.length) p[POLY4_COUNTER] = 0;
+				return bit;
 			case 0x02:						// div 15 > 4 bit poly
-				return currentTone31() != nextTone31()
-					? nextPoly4()
-					: currentPoly4();
+				if (++p[TONE31_COUNTER] == TONE31.length) p[TONE31_COUNTER] = 0;
+				bit = POLY4[p[POLY4_COUNTER]];
+				if (TONE31_EDGES[p[TONE31_COUNTER]] && ++p[POLY4_COUNTER] == POLY4.length) p[POLY4_COUNTER] = 0;
+				return bit;
 			case 0x03:						// 5 bit poly > 4 bit poly
-				return nextPoly5() == 1
-					? nextPoly4()
-					: currentPoly4();
+				bit = POLY4[p[POLY4_COUNTER]];
+				if (POLY5[p[POLY5_COUNTER]] == 1 && ++p[POLY4_COUNTER] == POLY4.length) p[POLY4_COUNTER] = 0;
+				if (++p[POLY5_COUNTER] == POLY5.length) p[POLY5_COUNTER] = 0;
+				return bit;
 			case 0x04:						// div 2 pure tone
 			case 0x05:						// div 2 pure tone
-				return nextTone2();
+				return p[TONE2_COUNTER] ^= 1;
 			case 0x06:						// div 31 pure tone (18 high, 13, low)
 			case 0x0a:						// div 31 pure tone (18 high, 13, low)
-				return nextTone31();
+				if (++p[TONE31_COUNTER] == TONE31.length) p[TONE31_COUNTER] = 0;
+				return TONE31[p[TONE31_COUNTER]];
 			case 0x07:						// 5 bit poly > div 2 (same as 5 bit poly)
 			case 0x09:						// 5 bit poly
-				return nextPoly5();
+				bit = POLY5[p[POLY5_COUNTER]]; if (++p[POLY5_COUNTER] == POLY5.length) p[POLY5_COUNTER] = 0;
+				return bit;
 			case 0x08:						// 9 bit poly
-				return nextPoly9();
+				bit = POLY9[p[POLY9_COUNTER]]; if (++p[POLY9_COUNTER] == POLY9.length) p[POLY9_COUNTER] = 0;
+				return bit;
 			case 0x0c:						// div 6 pure tone (3 high, 3 low)
 			case 0x0d:						// div 6 pure tone (3 high, 3 low)
-				return nextTone6();
+				if (++p[TONE6_COUNTER] == TONE6.length) p[TONE6_COUNTER] = 0;
+				return TONE6[p[TONE6_COUNTER]];
 			case 0x0e:						// div 93 pure tone	(31 tone each 3)
-				return currentTone31() != nextTone31()
-					? nextTone6()
-					: currentTone6();
+				if (++p[TONE31_COUNTER] == TONE31.length) p[TONE31_COUNTER] = 0;
+				if (TONE31_EDGES[p[TONE31_COUNTER]] && ++p[TONE6_COUNTER] == TONE6.length) p[TONE6_COUNTER] = 0;
+				return TONE6[p[TONE6_COUNTER]];
 			case 0x0f:						// 5 bit poly div 6 (poly 5 each 3)		
-				return nextPoly5() == 1
-					? nextTone6()
-					: currentTone6();
+				if (POLY5[p[POLY5_COUNTER]] == 1 && ++p[TONE6_COUNTER] == TONE6.length) p[TONE6_COUNTER] = 0;
+				if (++p[POLY5_COUNTER] == POLY5.length) p[POLY5_COUNTER] = 0;
+				return TONE6[p[TONE6_COUNTER]];
 			default:	
 				throw new IllegalStateException("Invalid TIA Audio Channel Control: " + control);
 		}
 	}
 
-	private int currentPoly4() {
-		return poly4 & 0x01;
+	// Counters used by each control
+	private static Mode[] modes() {
+		int[][] counters = {
+			{}, { POLY4_COUNTER }, { TONE31_COUNTER, POLY4_COUNTER }, { POLY5_COUNTER, POLY4_COUNTER },
+			{ TONE2_COUNTER }, { TONE2_COUNTER }, { TONE31_COUNTER }, { POLY5_COUNTER },
+			{ POLY9_COUNTER }, { POLY5_COUNTER }, { TONE31_COUNTER }, {},
+			{ TONE6_COUNTER }, { TONE6_COUNTER }, { TONE31_COUNTER, TONE6_COUNTER }, { POLY5_COUNTER, TONE6_COUNTER }
+		};
+		Mode[] modes = new Mode[counters.length];
+		for (int control = 0; control < modes.length; control++)
+			modes[control] = new Mode(control, counters[control]);
+		return modes;
 	}
 
-	private int nextPoly4() {
-		int carry = poly4 & 0x01;					// bit 0
-		int push = ((poly4 >> 1) ^ carry) & 0x01;	// bit 1 XOR bit 0
-		poly4 = poly4 >>> 1;						// shift right
-		if (push == 0)								// set bit 3 = push
-			poly4 &= 0x07;
-		else
-			poly4 |= 0x08;
-		return carry;
-	}
-
-	private int nextPoly5() {
-		int carry = poly5 & 0x01;					// bit 0
-		int push = ((poly5 >> 2) ^ carry) & 0x01;	// bit 2 XOR bit 0
-		poly5 = poly5 >>> 1;						// shift right
-		if (push == 0)								// set bit 4 = push
-			poly5 &= 0x0f;
-		else
-			poly5 |= 0x10;
-		return carry;
-	}
-
-	private int nextPoly9() {
-		int carry = poly9 & 0x01;					// bit 0
-		int push = ((poly9 >> 4) ^ carry) & 0x01;	// bit 4 XOR bit 0
-		poly9 = poly9 >>> 1;						// shift right
-		if (push == 0)								// set bit 8 = push
-			poly9 &= 0x0ff;
-		else
-			poly9 |= 0x100;
-		return carry;
-	}
-
-	private int nextTone2() {
-		return tone2 = tone2 == 0 ? 1 : 0;
-	}
-
-	private int currentTone6() {
-		return tone6;
-	}
-
-	private int nextTone6() {
-		if (--tone6Countdown == 0) {
-			tone6Countdown = 3;
-			tone6 = tone6 == 0 ? 1 : 0;
+	// Output bit of each state of a shift register, starting with all bits set. Bit 0 goes out, bit 0 XOR the tap bit goes in the top
+	private static int[] polySequence(int bits, int tap) {
+		int[] sequence = new int[(1 << bits) - 1];
+		int poly = (1 << bits) - 1;
+		for (int i = 0; i < sequence.length; i++) {
+			sequence[i] = poly & 0x01;
+			int push = ((poly >> tap) ^ poly) & 0x01;
+			poly = (poly >>> 1) | (push << (bits - 1));
 		}
-		return tone6;
+		return sequence;
 	}
 
-	private int currentTone31() {
-		return tone31Stream[tone31Count];
+	private static boolean[] edges(int[] sequence) {
+		boolean[] edges = new boolean[sequence.length];
+		for (int i = 0; i < sequence.length; i++)
+			edges[i] = sequence[i] != sequence[(i + sequence.length - 1) % sequence.length];
+		return edges;
 	}
 
-	private int nextTone31() {
-		if (++tone31Count == 31)
-			tone31Count = 0;
-		return tone31Stream[tone31Count];
+	private static float[] volumes() {
+		float[] volumes = new float[MAX_VOLUME + 1];
+		for (int v = 0; v <= MAX_VOLUME; v++)
+			volumes[v] = (float)Math.pow(((float)v / MAX_VOLUME), NON_LINEAR_CONVERSION);
+		return volumes;
 	}
 
+
 	private float volume = 0;					// 0 - 1
 	private int control = 0;					// 0-f
+	private Mode mode = MODES[0];
+	private int state = 0;						// Of the mode
+	private int[] outputs = mode.outputs;
+	private int[] nextStates = mode.nextStates;
 	private int divider = 1;					// Changes to dividers will only be reflected at the next countdown cycle
 	private int dividerCountdown = 1;
 	
 	private float currentSample = 1;
 	
-	private int poly4 = 0x0f;
-	private int poly5 = 0x1f;
-	private int poly9 = 0x1ff;
-	
-	private int tone2 = 1;
-	
-	private int tone6 = 1;
-	private int tone6Countdown = 3;
-
-	private int tone31Count = 30;
-	private static final int[] tone31Stream = new int[] { 
+	// Positions in the sequences of all counters, only updated when the mode changes
+	private final int[] positions = new int[] { 0, 0, 0, 1, 0, 30 };
+
+	private static final int[] POLY4 = polySequence(4, 1);
+	private static final int[] POLY5 = polySequence(5, 2);
+	private static final int[] POLY9 = polySequence(9, 4);
+	private static final int[] TONE6 = new int[] { 1, 1, 1, 0, 0, 0 };
+	private static final int[] TONE31 = new int[] { 
 		1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
 	};
+	private static final boolean[] TONE31_EDGES = edges(TONE31);		// Positions where the tone changes when entered
+
+	private static final int POLY4_COUNTER = 0, POLY5_COUNTER = 1, POLY9_COUNTER = 2, TONE2_COUNTER = 3, TONE6_COUNTER = 4, TONE31_COUNTER = 5;
+	private static final int[] COUNTER_SIZES = new int[] { POLY4.length, POLY5.length, POLY9.length, 2, TONE6.length, TONE31.length };
+	private static final Mode[] MODES = modes();
 	
 	private static final int   MAX_VOLUME = 15;
 	private static final float NON_LINEAR_CONVERSION = 1.15f;
+	private static final float[] VOLUMES = volumes();
+
+
+	// Output and next state for each state of one control. States are the positions of the counters used, in mixed radix
+	private static final class Mode {
+		Mode(int control, int[] counters) {
+			this.counters = counters;
+			int states = 1;
+			for (int counter : counters) states *= COUNTER_SIZES[counter];
+			outputs = new int[states];
+			nextStates = new int[states];
+			int[] p = new int[COUNTER_SIZES.length];
+			for (int s = 0; s < states; s++) {
+				positions(s, p);
+				outputs[s] = step(control, p);
+				nextStates[s] = state(p);
+			}
+		}
+		int state(int[] positions) {
+			int state = 0;
+			for (int counter : counters) state = state * COUNTER_SIZES[counter] + positions[counter];
+			return state;
+		}
+		void positions(int state, int[] positions) {
+			for (int i = counters.length - 1; i >= 0; i--) {
+				positions[counters[i]] = state % COUNTER_SIZES[counters[i]];
+				state /= COUNTER_SIZES[counters[i]];
+			}
+		}
+		final int[] counters;
+		final int[] outputs;
+		final int[] nextStates;
+	}
 
 }
@@ -0,0 +1,43 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.av.video.VideoStandard;
+import parameters.Parameters;
+import atari.tia.audio.AudioMonoGenerator;
+
+// Generates a frame of audio samples the same way the TIA does, two audio clocks per scanline
+public final class AudioBenchmark extends Benchmark {
+
+	public AudioBenchmark(String name, int control0, int control1) {
+		super(name, "frame");
+		this.control0 = control0;
+		this.control1 = control1;
+	}
+
+	@Override
+	public void setUp() {
+		generator = new AudioMonoGenerator(Parameters.consoleConfiguration());
+		generator.videoStandard(VideoStandard.NTSC);
+		generator.channel0().setControl(control0); generator.channel0().setDivider(12); generator.channel0().setVolume(15);
+		generator.channel1().setControl(control1); generator.channel1().setDivider(5); generator.channel1().setVolume(8);
+	}
+
+	@Override
+	public void run(int operations) {
+		int lines = VideoStandard.NTSC.height;
+		for (int i = 0; i < operations; i++) {
+			for (int line = 0; line < lines; line++) {
+				generator.clockPulses(1);
+				generator.clockPulses(1);
+			}
+			generator.sendSamplesFrameToMonitor();
+		}
+	}
+
+
+	private final int control0;
+	private final int control1;
+	private AudioMonoGenerator generator;
+
+}
@@ -0,0 +1,75 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.av.video.VideoStandard;
+import general.m6502.M6502;
+import parameters.Parameters;
+import atari.board.BUS;
+import atari.cartridge.Cartridge4K;
+import atari.cartridge.bankswitching.Cartridge8K;
+import atari.console.ConsoleConfiguration;
+import atari.pia.PIA;
+import atari.pia.RAM;
+import atari.tia.TIA;
+
+// Reads or writes the Atari BUS with a mix of addresses hitting the Cartridge, RAM, TIA and PIA, like a typical program.
+// The Cartridge can be a plain 4K or a bank-switched 8K, with the fetches in the same bank
+public final class BUSBenchmark extends Benchmark {
+
+	public BUSBenchmark(boolean write, boolean banked) {
+		super((write ? "bus.write" : "bus.read") + (banked ? ".banked" : ""), "access");
+		this.write = write;
+		this.banked = banked;
+	}
+
+	@Override
+	public void setUp() {
+		ConsoleConfiguration configuration = Parameters.consoleConfiguration();
+		M6502 cpu = new M6502();
+		PIA pia = new PIA(null);
+		RAM ram = new RAM(configuration);
+		TIA tia = new TIA(cpu, pia, configuration);
+		tia.videoStandard(VideoStandard.NTSC);
+		bus = new BUS(tia, pia, ram, configuration);
+		bus.cartridge(banked ? new Cartridge8K(new byte[Cartridge8K.SIZE], false) : new Cartridge4K(new byte[Cartridge4K.SIZE]));
+		cpu.connectBus(bus);
+		addresses = new int[256];
+		for (int i = 0; i < addresses.length; i++) {
+			switch (i % 8) {
+				case 0: case 1: case 2: case 3:
+					addresses[i] = 0xF000 + i * 13 % 0x1000; break;		// Cartridge, instruction fetches. Writes are ignored
+				case 4: case 5:
+					addresses[i] = 0x0080 + i % 0x80; break;				// RAM
+				case 6:
+					addresses[i] = write ? 0x0006 + i % 0x08 : i % 0x0e;	// TIA colors and PlayField, or collisions and inputs
+					break;
+				case 7:
+					addresses[i] = write ? 0x0296 : 0x0284;					// PIA timer set, or timer read
+			}
+		}
+	}
+
+	@Override
+	public void run(int operations) {
+		int[] addr = addresses;
+		if (write)
+			for (int i = 0; i < operations; i++)
+				bus.writeByte(addr[i & 0xff], (byte) i);
+		else {
+			int sum = 0;
+			for (int i = 0; i < operations; i++)
+				sum += bus.readByte(addr[i & 0xff]);
+			blackHole += sum;
+		}
+	}
+
+
+	private final boolean write;
+	private final boolean banked;
+	private BUS bus;
+	private int[] addresses;
+
+	public int blackHole;		// Keeps the JIT from discarding the reads
+
+}
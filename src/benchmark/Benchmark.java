@@ -0,0 +1,28 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+// A piece of the emulator measured by the BenchmarkRunner, in time per operation
+public abstract class Benchmark {
+
+	public Benchmark(String name, String operation) {
+		this.name = name;
+		this.operation = operation;
+	}
+
+	public void setUp() {
+		// Nothing by default
+	}
+
+	// Must run exactly the given number of operations
+	public abstract void run(int operations);
+
+	public void tearDown() {
+		// Nothing by default
+	}
+
+
+	public final String name;
+	public final String operation;		// What a single operation is, like "cycle" or "frame"
+
+}
@@ -0,0 +1,62 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+// Runs each Benchmark for a number of timed iterations, after some warmup iterations to let the JIT settle
+public final class BenchmarkHarness {
+
+	public BenchmarkHarness(int warmupIterations, int iterations, int iterationMillis) {
+		this.warmupIterations = warmupIterations;
+		this.iterations = Math.max(iterations, 1);
+		this.iterationNanos = iterationMillis * 1000000L;
+	}
+
+	public BenchmarkResult run(Benchmark benchmark) {
+		benchmark.setUp();
+		try {
+			int batch = calibrateBatch(benchmark);
+			for (int i = 0; i < warmupIterations; i++)
+				iteration(benchmark, batch);
+			double[] results = new double[iterations];
+			for (int i = 0; i < iterations; i++)
+				results[i] = iteration(benchmark, batch);
+			return new BenchmarkResult(benchmark, results);
+		} finally {
+			benchmark.tearDown();
+		}
+	}
+
+	// Number of operations run between each time check, so the time taken by checking does not count
+	private int calibrateBatch(Benchmark benchmark) {
+		int batch = 1;
+		while (batch < MAX_BATCH) {
+			long start = System.nanoTime();
+			benchmark.run(batch);
+			if (System.nanoTime() - start >= BATCH_NANOS) break;
+			batch *= 2;
+		}
+		return batch;
+	}
+
+	// Returns the time per operation in nanoseconds
+	private double iteration(Benchmark benchmark, int batch) {
+		long operations = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			benchmark.run(batch);
+			operations += batch;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < iterationNanos);
+		return (double) elapsed / operations;
+	}
+
+
+	private final int warmupIterations;
+	private final int iterations;
+	private final long iterationNanos;
+
+	private static final long BATCH_NANOS = 10000000;		// 10ms
+	private static final int MAX_BATCH = 1 << 24;
+
+}
@@ -0,0 +1,55 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import java.util.Locale;
+
+public final class BenchmarkResult {
+
+	BenchmarkResult(Benchmark benchmark, double[] nanosPerOperation) {
+		name = benchmark.name;
+		operation = benchmark.operation;
+		iterations = nanosPerOperation.length;
+		double sum = 0, minimum = Double.MAX_VALUE, maximum = 0;
+		for (double n : nanosPerOperation) {
+			sum += n;
+			if (n < minimum) minimum = n;
+			if (n > maximum) maximum = n;
+		}
+		mean = sum / iterations;
+		double squares = 0;
+		for (double n : nanosPerOperation) squares += (n - mean) * (n - mean);
+		stdDev = iterations > 1 ? Math.sqrt(squares / (iterations - 1)) : 0;
+		min = minimum;
+		max = maximum;
+	}
+
+	public double operationsPerSecond() {
+		return mean > 0 ? 1000000000d / mean : 0;
+	}
+
+	public static String csvHeader() {
+		return "benchmark,operation,iterations,mean_ns,stddev_ns,min_ns,max_ns,ops_per_sec";
+	}
+
+	public String toCSV() {
+		return String.format(Locale.US, "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.1f", 
+				name, operation, iterations, mean, stdDev, min, max, operationsPerSecond());
+	}
+
+	public String toJSON() {
+		return String.format(Locale.US, 
+				"{\"benchmark\": \"%s\", \"operation\": \"%s\", \"iterations\": %d, \"meanNs\": %.3f, \"stdDevNs\": %.3f, \"minNs\": %.3f, \"maxNs\": %.3f, \"opsPerSec\": %.1f}", 
+				name, operation, iterations, mean, stdDev, min, max, operationsPerSecond());
+	}
+
+
+	public final String name;
+	public final String operation;
+	public final int iterations;
+	public final double mean;		// All in nanoseconds per operation
+	public final double stdDev;
+	public final double min;
+	public final double max;
+
+}
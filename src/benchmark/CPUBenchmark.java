@@ -0,0 +1,93 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.board.BUS16Bits;
+import general.m6502.M6502;
+
+// Runs a small 6502 program in a loop, over a flat 64K RAM so only the CPU is measured
+public final class CPUBenchmark extends Benchmark {
+
+	public CPUBenchmark(String name, int... program) {
+		super(name, "cycle");
+		this.program = program;
+	}
+
+	// Arithmetic and logic on registers and zero page, with a short loop
+	public static CPUBenchmark arithmetic() {
+		return new CPUBenchmark("cpu.arithmetic",
+			0xA2, 0x00,				// F000 LDX #$00
+			0x8A,					// F002 TXA
+			0x69, 0x13,				// F003 ADC #$13
+			0x29, 0x7F,				// F005 AND #$7F
+			0x49, 0x55,				// F007 EOR #$55
+			0x0A,					// F009 ASL A
+			0x85, 0x80,				// F00A STA $80
+			0x65, 0x80,				// F00C ADC $80
+			0xE8,					// F00E INX
+			0xD0, 0xF1,				// F00F BNE $F002
+			0x4C, 0x00, 0xF0		// F011 JMP $F000
+		);
+	}
+
+	// Indexed and indirect memory accesses
+	public static CPUBenchmark memory() {
+		return new CPUBenchmark("cpu.memory",
+			0xA9, 0x00, 0x85, 0x80,	// F000 LDA #$00, STA $80
+			0xA9, 0x02, 0x85, 0x81,	// F004 LDA #$02, STA $81
+			0xA0, 0x00,				// F008 LDY #$00
+			0xB1, 0x80,				// F00A LDA ($80),Y
+			0x69, 0x01,				// F00C ADC #$01
+			0x91, 0x80,				// F00E STA ($80),Y
+			0xBE, 0x00, 0x03,		// F010 LDX $0300,Y
+			0x9D, 0x00, 0x04,		// F013 STA $0400,X
+			0xC8,					// F016 INY
+			0xD0, 0xF1,				// F017 BNE $F00A
+			0x4C, 0x08, 0xF0		// F019 JMP $F008
+		);
+	}
+
+	// Subroutine calls and stack operations
+	public static CPUBenchmark stack() {
+		return new CPUBenchmark("cpu.stack",
+			0x20, 0x08, 0xF0,		// F000 JSR $F008
+			0x48,					// F003 PHA
+			0x68,					// F004 PLA
+			0x4C, 0x00, 0xF0,		// F005 JMP $F000
+			0xE6, 0x80,				// F008 INC $80
+			0x60					// F00A RTS
+		);
+	}
+
+	@Override
+	public void setUp() {
+		final byte[] ram = new byte[65536];
+		for (int i = 0; i < program.length; i++)
+			ram[PROGRAM_START + i] = (byte) program[i];
+		ram[0xFFFC] = (byte) PROGRAM_START; ram[0xFFFD] = (byte) (PROGRAM_START >> 8);
+		cpu = new M6502(new BUS16Bits() {
+			@Override
+			public byte readByte(int address) {
+				return ram[address & 0xffff];
+			}
+			@Override
+			public void writeByte(int address, byte b) {
+				ram[address & 0xffff] = b;
+			}
+		});
+		cpu.powerOn();
+	}
+
+	@Override
+	public void run(int operations) {
+		for (int i = 0; i < operations; i++)
+			cpu.clockPulse();
+	}
+
+
+	private final int[] program;
+	private M6502 cpu;
+
+	private static final int PROGRAM_START = 0xF000;
+
+}
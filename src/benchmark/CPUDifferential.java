@@ -0,0 +1,88 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.board.BUS16Bits;
+import general.m6502.M6502;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+// Runs random programs on a CPU with the generic Instructions and on one with the specialized Instructions, side by side.
+// After every cycle both must have the same registers and Instruction in progress, and must have made the same memory accesses
+public final class CPUDifferential {
+
+	public CPUDifferential(int cyclesPerProgram) {
+		this.cyclesPerProgram = cyclesPerProgram;
+	}
+
+	// The whole 64K is random: code, data, vectors and stack. Returns null if both CPUs agree, or a description of the first difference
+	public String run(long seed) {
+		byte[] content = new byte[65536];
+		new Random(seed).nextBytes(content);
+		TracingRAM genericRAM = new TracingRAM(content);
+		TracingRAM specializedRAM = new TracingRAM(content);
+		M6502 generic = new M6502(false);
+		M6502 specialized = new M6502(true);
+		generic.connectBus(genericRAM);
+		specialized.connectBus(specializedRAM);
+		generic.powerOn();
+		specialized.powerOn();
+		for (int cycle = 0; cycle < cyclesPerProgram; cycle++) {
+			char pc = generic.PC;
+			generic.clockPulse();
+			specialized.clockPulse();
+			if (generic.PC != pc) opcodesExecuted[genericRAM.ram[pc] & 0xff] = true;
+			genericState.clear(); specializedState.clear();
+			generic.saveSnapshot(genericState);
+			specialized.saveSnapshot(specializedState);
+			genericState.flip(); specializedState.flip();
+			if (!genericState.equals(specializedState) || genericRAM.accesses != specializedRAM.accesses || genericRAM.trace != specializedRAM.trace)
+				return "seed " + seed + ", cycle " + cycle + ", PC " + Integer.toHexString(pc) + ", opcode " + Integer.toHexString(genericRAM.ram[pc] & 0xff)
+					+ ":\n  generic     " + generic.printState() + "\n  specialized " + specialized.printState();
+		}
+		if (!Arrays.equals(genericRAM.ram, specializedRAM.ram)) return "seed " + seed + ": memory differs at the end";
+		return null;
+	}
+
+	public int opcodesExecuted() {
+		int count = 0;
+		for (boolean executed : opcodesExecuted)
+			if (executed) count++;
+		return count;
+	}
+
+
+	private final int cyclesPerProgram;
+	private final boolean[] opcodesExecuted = new boolean[256];
+	private final ByteBuffer genericState = ByteBuffer.allocate(M6502.SNAPSHOT_SIZE);
+	private final ByteBuffer specializedState = ByteBuffer.allocate(M6502.SNAPSHOT_SIZE);
+
+
+	// Flat 64K RAM keeping a running hash of every access, with its address, value and direction
+	private static final class TracingRAM implements BUS16Bits {
+		TracingRAM(byte[] content) {
+			ram = content.clone();
+		}
+		@Override
+		public byte readByte(int address) {
+			byte b = ram[address & 0xffff];
+			access(address & 0xffff, b, 0);
+			return b;
+		}
+		@Override
+		public void writeByte(int address, byte b) {
+			ram[address & 0xffff] = b;
+			access(address & 0xffff, b, 1);
+		}
+		private void access(int address, byte b, int write) {
+			accesses++;
+			trace = trace * 31 + ((address << 9) | ((b & 0xff) << 1) | write);
+		}
+		final byte[] ram;
+		long accesses = 0;
+		long trace = 0;
+	}
+
+}
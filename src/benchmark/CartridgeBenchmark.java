@@ -0,0 +1,74 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.av.video.VideoStandard;
+import general.m6502.M6502;
+
+import java.util.Random;
+
+import parameters.Parameters;
+import atari.board.BUS;
+import atari.cartridge.Cartridge;
+import atari.cartridge.bankswitching.CartridgeFormat;
+import atari.console.ConsoleConfiguration;
+import atari.pia.PIA;
+import atari.pia.RAM;
+import atari.tia.TIA;
+
+// Reads the Cartridge space through the Atari BUS, for a Cartridge format with random content.
+// Mostly fetches in the current banks, then the last page where most formats have the hotspots, and a bank switch now and then.
+// Bank switches are writes to a hotspot, as some formats only switch on writes
+public final class CartridgeBenchmark extends Benchmark {
+
+	public CartridgeBenchmark(CartridgeFormat format) {
+		super("cartridge.read." + format.id(), "access");
+		this.format = format;
+	}
+
+	@Override
+	public void setUp() {
+		ConsoleConfiguration configuration = Parameters.consoleConfiguration();
+		M6502 cpu = new M6502();
+		PIA pia = new PIA(null);
+		RAM ram = new RAM(configuration);
+		TIA tia = new TIA(cpu, pia, configuration);
+		tia.videoStandard(VideoStandard.NTSC);
+		bus = new BUS(tia, pia, ram, configuration);
+		byte[] content = new byte[format.size()];
+		new Random(format.size()).nextBytes(content);
+		Cartridge cartridge = format.create(content, false);
+		bus.cartridge(cartridge);
+		cpu.connectBus(bus);
+		int[] hotspots = cartridge.hotspots();
+		addresses = new int[256];
+		for (int i = 0; i < addresses.length; i++) {
+			if (i == BANK_SWITCH)
+				addresses[i] = hotspots.length > 0 ? hotspots[0] : 0xFF00;
+			else if (i % 16 == 15)
+				addresses[i] = 0xFF00 + i * 7 % 0xe0;						// Last page, under the usual hotspots
+			else
+				addresses[i] = 0xF100 + i * 13 % 0x0e00;					// Pages 1 to 14, away from the SuperChip RAM
+		}
+	}
+
+	@Override
+	public void run(int operations) {
+		int[] addr = addresses;
+		int sum = 0;
+		for (int i = 0; i < operations; i++)
+			if ((i & 0xff) == BANK_SWITCH) bus.writeByte(addr[BANK_SWITCH], (byte) (i >> 8));
+			else sum += bus.readByte(addr[i & 0xff]);
+		blackHole += sum;
+	}
+
+
+	private final CartridgeFormat format;
+	private BUS bus;
+	private int[] addresses;
+
+	public int blackHole;		// Keeps the JIT from discarding the reads
+
+	private static final int BANK_SWITCH = 255;
+
+}
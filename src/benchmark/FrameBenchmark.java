@@ -0,0 +1,50 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+
+import parameters.Parameters;
+import pc.cartridge.ROMLoader;
+import pc.headless.HeadlessAudioMonitor;
+import pc.headless.HeadlessVideoMonitor;
+import atari.cartridge.Cartridge;
+import atari.console.HeadlessConsole;
+
+// Full Console frames for one of the test ROMs: CPU, TIA video and audio, PIA and BUS together
+public final class FrameBenchmark extends Benchmark {
+
+	public FrameBenchmark(String rom) {
+		super("frame." + rom, "frame");
+		this.rom = rom;
+	}
+
+	@Override
+	public void setUp() {
+		Cartridge cartridge = ROMLoader.load(new ByteArrayInputStream(TestROMs.rom(rom)), rom);
+		if (cartridge == null) throw new IllegalStateException("Test ROM could not be loaded: " + rom);
+		console = new HeadlessConsole(Parameters.consoleConfiguration());
+		new HeadlessVideoMonitor().connect(console.videoOutput());
+		new HeadlessAudioMonitor().connect(console.audioOutput());
+		console.cartridgeSocket().insert(cartridge, false);
+		console.powerOn();
+	}
+
+	@Override
+	public void run(int operations) {
+		console.runFrames(operations);
+	}
+
+	@Override
+	public void tearDown() {
+		console.powerOff();
+		console.destroy();
+	}
+
+
+	private final String rom;
+	private HeadlessConsole console;
+
+	public static final String[] ROMS = { "playfield", "objects", "sparse" };
+
+}
@@ -0,0 +1,51 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import general.av.video.VideoStandard;
+
+import java.awt.image.BufferedImage;
+
+import pc.screen.FrameTripleBuffer;
+
+// The path of a frame from the TIA lines to the image drawn by the Monitor, without the actual drawing to a display
+public final class MonitorFrameBenchmark extends Benchmark {
+
+	public MonitorFrameBenchmark(boolean direct) {
+		super(direct ? "monitor.frame.direct" : "monitor.frame.copy", "frame");
+		this.direct = direct;
+	}
+
+	@Override
+	public void setUp() {
+		width = VideoStandard.NTSC.width;
+		height = VideoStandard.NTSC.height;
+		line = new int[width];
+		for (int i = 0; i < width; i++) line[i] = 0xff000000 | i * 0x010203;
+		frameBuffer = new FrameTripleBuffer(width * height);
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	@Override
+	public void run(int operations) {
+		for (int i = 0; i < operations; i++) {
+			// Producer side, as in Monitor.nextLine() and newFrame()
+			int[] buffer = frameBuffer.producerBuffer();
+			for (int y = 0; y < height; y++)
+				System.arraycopy(line, 0, buffer, y * width, width);
+			frameBuffer.publish();
+			// Consumer side, as in Monitor.renderFrame(). Direct mode images already have the frame
+			if (frameBuffer.acquire() && !direct)
+				image.getRaster().setDataElements(0, 0, width, height, frameBuffer.consumerBuffer());
+		}
+	}
+
+
+	private final boolean direct;
+	private int width;
+	private int height;
+	private int[] line;
+	private FrameTripleBuffer frameBuffer;
+	private BufferedImage image;
+
+}
@@ -0,0 +1,372 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The 4K test ROMs used by the frame benchmarks, assembled at setup so their programs are readable here.
+// Each draws 192 visible lines per frame with a different mix of TIA work
+final class TestROMs {
+
+	static byte[] rom(String name) {
+		if (name.equals("playfield")) return playfield();
+		if (name.equals("objects")) return objects();
+		if (name.equals("sparse")) return sparse();
+		throw new IllegalArgumentException("Unknown test ROM: " + name);
+	}
+
+	// Only the background and PF1 change, once per line. Nothing else is drawn
+	static byte[] playfield() {
+		Program p = new Program();
+		p.reset();
+		p.label("frame");
+		p.op(LDA_IMM, 2);
+		p.op(STA_ZP, VSYNC);
+		p.op(STA_ZP, WSYNC);
+		p.op(STA_ZP, WSYNC);
+		p.op(STA_ZP, WSYNC);
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, VSYNC);
+		p.op(LDX_IMM, 37);
+		p.label("vblank");
+		p.op(STA_ZP, WSYNC);
+		p.op(DEX);
+		p.branch(BNE, "vblank");
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, VBLANK);
+		p.op(LDX_IMM, 192);
+		p.label("kernel");
+		p.op(STX_ZP, COLUBK);
+		p.op(STX_ZP, PF1);
+		p.op(STA_ZP, WSYNC);
+		p.op(DEX);
+		p.branch(BNE, "kernel");
+		p.op(LDA_IMM, 2);
+		p.op(STA_ZP, VBLANK);
+		p.op(LDX_IMM, 30);
+		p.label("overscan");
+		p.op(STA_ZP, WSYNC);
+		p.op(DEX);
+		p.branch(BNE, "overscan");
+		p.jmp("frame");
+		return p.build();
+	}
+
+	// All objects on and moving, with sizes, copies, reflection, vertical delay and graphics changing every frame or line.
+	// Mid-line resets and PlayField writes, and collisions read every line and fed to the audio
+	static byte[] objects() {
+		Program p = new Program();
+		p.reset();
+		p.frameStart();
+		p.op(INC_ZP, FRAME);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, COLUP0);
+		p.op(EOR_IMM, 0xff);
+		p.op(STA_ZP, COLUP1);
+		p.op(LDA_IMM, 0x44);
+		p.op(STA_ZP, COLUPF);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, NUSIZ0);
+		p.op(LSR);
+		p.op(STA_ZP, NUSIZ1);
+		p.op(STA_ZP, REFP1);
+		p.op(STA_ZP, VDELP0);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, CTRLPF);
+		p.op(STA_ZP, ENAM0);
+		p.op(LSR);
+		p.op(STA_ZP, ENAM1);
+		p.op(STA_ZP, ENABL);
+		p.op(STA_ZP, REFP0);
+		p.op(LDA_IMM, 0x10);
+		p.op(STA_ZP, HMP0);
+		p.op(LDA_IMM, 0xf0);
+		p.op(STA_ZP, HMP1);
+		p.op(LDA_IMM, 0x20);
+		p.op(STA_ZP, HMM0);
+		p.op(LDA_IMM, 0xe0);
+		p.op(STA_ZP, HMM1);
+		p.op(STA_ZP, HMBL);
+		p.op(STA_ZP, WSYNC);
+		p.op(STA_ZP, HMOVE);
+		p.waitTimer("vblank");
+		p.op(STA_ZP, WSYNC);
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, VBLANK);
+		p.op(STA_ZP, CXCLR);
+		p.op(LDY_IMM, 192);
+		p.label("kernel");
+		p.op(STA_ZP, WSYNC);
+		p.op(TYA);
+		p.op(STA_ZP, GRP0);
+		p.op(EOR_ZP, FRAME);
+		p.op(STA_ZP, GRP1);
+		p.op(STA_ZP, PF0);
+		p.op(TYA);
+		p.op(STA_ZP, PF1);
+		p.op(EOR_IMM, 0x5a);
+		p.op(STA_ZP, PF2);
+		p.op(TYA);
+		p.op(STA_ZP, COLUBK);
+		p.op(CPY_IMM, 100);
+		p.branch(BNE, "noReset100");
+		p.op(STA_ZP, RESP0);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(STA_ZP, RESM1);
+		p.op(STA_ZP, RESBL);
+		p.op(STA_ZP, RESP1);
+		p.label("noReset100");
+		p.op(CPY_IMM, 50);
+		p.branch(BNE, "noReset50");
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(STA_ZP, RESM0);
+		p.op(STA_ZP, RESP1);
+		p.label("noReset50");
+		p.op(LDA_ZP, CXPPMM);
+		p.op(ORA_IMM, 0);
+		p.op(STA_ZP, COLLISIONS);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, PF2);
+		p.op(TYA);
+		p.op(STA_ZP, PF0);
+		p.op(DEY);
+		p.branch(BNE, "kernel");
+		p.op(LDA_IMM, 2);
+		p.op(STA_ZP, VBLANK);
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, GRP0);
+		p.op(STA_ZP, GRP1);
+		p.op(LDA_IMM, 35);
+		p.abs(STA_ABS, TIM64T);
+		p.op(LDA_ZP, CXP0FB);
+		p.op(STA_ZP, COLLISIONS + 1);
+		p.op(LDA_ZP, CXM0P);
+		p.op(STA_ZP, COLLISIONS + 2);
+		p.op(LDA_ZP, CXBLPF);
+		p.op(STA_ZP, COLLISIONS + 3);
+		p.op(LDA_ZP, COLLISIONS);
+		p.op(STA_ZP, AUDC0);
+		p.op(STA_ZP, AUDF0);
+		p.op(LDA_ZP, COLLISIONS + 1);
+		p.op(STA_ZP, AUDV0);
+		p.op(STA_ZP, AUDC1);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, AUDF1);
+		p.op(STA_ZP, AUDV1);
+		p.waitTimer("overscan");
+		p.jmp("frame");
+		return p.build();
+	}
+
+	// Mostly a static PlayField with a few short objects every 16 lines. VBLANK toggled mid-line, and an HMOVE mid-frame
+	static byte[] sparse() {
+		Program p = new Program();
+		p.reset();
+		p.frameStart();
+		p.op(INC_ZP, FRAME);
+		p.op(LDA_ZP, FRAME);
+		p.op(STA_ZP, CTRLPF);
+		p.op(STA_ZP, HMP0);
+		p.op(STA_ZP, HMM1);
+		p.op(ASL);
+		p.op(STA_ZP, HMBL);
+		p.op(STA_ZP, NUSIZ0);
+		p.op(LDA_IMM, 0x2e);
+		p.op(STA_ZP, COLUPF);
+		p.op(LDA_IMM, 0x86);
+		p.op(STA_ZP, COLUP0);
+		p.op(LDA_IMM, 0x36);
+		p.op(STA_ZP, COLUP1);
+		p.op(LDA_IMM, 0xa5);
+		p.op(STA_ZP, PF1);
+		p.op(LDA_IMM, 0x30);
+		p.op(STA_ZP, PF0);
+		p.op(LDA_IMM, 0x81);
+		p.op(STA_ZP, PF2);
+		p.op(STA_ZP, WSYNC);
+		p.op(STA_ZP, HMOVE);
+		p.waitTimer("vblank");
+		p.op(STA_ZP, WSYNC);
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, VBLANK);
+		p.op(LDY_IMM, 192);
+		p.label("kernel");
+		p.op(STA_ZP, WSYNC);
+		p.op(TYA);
+		p.op(AND_IMM, 0x0f);
+		p.branch(BNE, "noObjects");
+		p.op(LDA_IMM, 0x18);
+		p.op(STA_ZP, GRP0);
+		p.op(LDA_IMM, 2);
+		p.op(STA_ZP, ENAM1);
+		p.op(STA_ZP, ENABL);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(STA_ZP, RESP0);
+		p.op(STA_ZP, VBLANK);
+		p.op(NOP);
+		p.op(NOP);
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, VBLANK);
+		p.op(STA_ZP, RESM1);
+		p.jmp("background");
+		p.label("noObjects");
+		p.op(LDA_IMM, 0);
+		p.op(STA_ZP, GRP0);
+		p.op(STA_ZP, ENAM1);
+		p.op(STA_ZP, ENABL);
+		p.op(CPY_IMM, 77);
+		p.branch(BNE, "background");
+		p.op(STA_ZP, WSYNC);
+		p.op(STA_ZP, HMOVE);
+		p.op(DEY);
+		p.label("background");
+		p.op(TYA);
+		p.op(STA_ZP, COLUBK);
+		p.op(DEY);
+		p.branch(BNE, "kernel");
+		p.op(LDA_IMM, 2);
+		p.op(STA_ZP, VBLANK);
+		p.op(LDA_IMM, 35);
+		p.abs(STA_ABS, TIM64T);
+		p.op(LDA_ZP, CXBLPF);
+		p.op(STA_ZP, AUDV0);
+		p.op(LDA_ZP, CXM1FB);
+		p.op(STA_ZP, AUDC0);
+		p.op(STA_ZP, CXCLR);
+		p.waitTimer("overscan");
+		p.jmp("frame");
+		return p.build();
+	}
+
+
+	// TIA and PIA registers
+	private static final int VSYNC = 0x00, VBLANK = 0x01, WSYNC = 0x02, NUSIZ0 = 0x04, NUSIZ1 = 0x05, COLUP0 = 0x06, COLUP1 = 0x07,
+		COLUPF = 0x08, COLUBK = 0x09, CTRLPF = 0x0a, REFP0 = 0x0b, REFP1 = 0x0c, PF0 = 0x0d, PF1 = 0x0e, PF2 = 0x0f, RESP0 = 0x10,
+		RESP1 = 0x11, RESM0 = 0x12, RESM1 = 0x13, RESBL = 0x14, AUDC0 = 0x15, AUDC1 = 0x16, AUDF0 = 0x17, AUDF1 = 0x18, AUDV0 = 0x19,
+		AUDV1 = 0x1a, GRP0 = 0x1b, GRP1 = 0x1c, ENAM0 = 0x1d, ENAM1 = 0x1e, ENABL = 0x1f, HMP0 = 0x20, HMP1 = 0x21, HMM0 = 0x22,
+		HMM1 = 0x23, HMBL = 0x24, VDELP0 = 0x25, HMOVE = 0x2a, CXCLR = 0x2c;
+	private static final int CXM0P = 0x30, CXM1FB = 0x35, CXBLPF = 0x36, CXPPMM = 0x37, CXP0FB = 0x32;
+	private static final int INTIM = 0x284, TIM64T = 0x296;
+
+	// RAM variables
+	private static final int FRAME = 0x80, COLLISIONS = 0x81;
+
+	// Opcodes used
+	private static final int SEI = 0x78, CLD = 0xd8, TXS = 0x9a, TYA = 0x98, DEX = 0xca, DEY = 0x88, LSR = 0x4a, ASL = 0x0a, NOP = 0xea;
+	private static final int LDA_IMM = 0xa9, LDX_IMM = 0xa2, LDY_IMM = 0xa0, AND_IMM = 0x29, ORA_IMM = 0x09, EOR_IMM = 0x49, CPY_IMM = 0xc0;
+	private static final int LDA_ZP = 0xa5, STA_ZP = 0x85, STX_ZP = 0x86, EOR_ZP = 0x45, INC_ZP = 0xe6, STA_ZPX = 0x95;
+	private static final int LDA_ABS = 0xad, STA_ABS = 0x8d, JMP_ABS = 0x4c, BNE = 0xd0;
+
+	private static final int ROM_SIZE = 4096;
+	private static final int ORIGIN = 0xf000;
+
+
+	// Minimal assembler for the instructions above. Labels may be used before defined, and are resolved at build
+	private static final class Program {
+		void op(int opcode) {
+			rom[position++] = (byte) opcode;
+		}
+		// Immediate or zero page
+		void op(int opcode, int operand) {
+			op(opcode);
+			rom[position++] = (byte) operand;
+		}
+		void abs(int opcode, int address) {
+			op(opcode);
+			rom[position++] = (byte) address;
+			rom[position++] = (byte) (address >> 8);
+		}
+		void jmp(String label) {
+			op(JMP_ABS);
+			absolutes.add(new Reference(position, label));
+			position += 2;
+		}
+		void branch(int opcode, String label) {
+			op(opcode);
+			branches.add(new Reference(position, label));
+			position++;
+		}
+		void label(String name) {
+			labels.put(name, ORIGIN + position);
+		}
+		// Disables interrupts and clears the stack, the RAM and the TIA registers
+		void reset() {
+			op(SEI);
+			op(CLD);
+			op(LDX_IMM, 0xff);
+			op(TXS);
+			op(LDA_IMM, 0);
+			label("clear");
+			op(STA_ZPX, 0);
+			op(DEX);
+			branch(BNE, "clear");
+		}
+		// 3 lines of VSYNC, and the timer set for the VBLANK lines
+		void frameStart() {
+			label("frame");
+			op(LDA_IMM, 2);
+			op(STA_ZP, VSYNC);
+			op(STA_ZP, WSYNC);
+			op(STA_ZP, WSYNC);
+			op(STA_ZP, WSYNC);
+			op(LDA_IMM, 0);
+			op(STA_ZP, VSYNC);
+			op(LDA_IMM, 43);
+			abs(STA_ABS, TIM64T);
+		}
+		void waitTimer(String label) {
+			label(label);
+			abs(LDA_ABS, INTIM);
+			branch(BNE, label);
+		}
+		byte[] build() {
+			for (Reference ref : absolutes) {
+				int address = address(ref.label);
+				rom[ref.position] = (byte) address;
+				rom[ref.position + 1] = (byte) (address >> 8);
+			}
+			for (Reference ref : branches) {
+				int offset = address(ref.label) - (ORIGIN + ref.position + 1);
+				if (offset < -128 || offset > 127) throw new IllegalStateException("Branch too far: " + ref.label);
+				rom[ref.position] = (byte) offset;
+			}
+			// Reset vector
+			rom[ROM_SIZE - 4] = (byte) ORIGIN;
+			rom[ROM_SIZE - 3] = (byte) (ORIGIN >> 8);
+			return rom;
+		}
+		private int address(String label) {
+			Integer address = labels.get(label);
+			if (address == null) throw new IllegalStateException("Undefined label: " + label);
+			return address;
+		}
+		private final byte[] rom = new byte[ROM_SIZE];
+		private int position = 0;
+		private final Map<String, Integer> labels = new HashMap<String, Integer>();
+		private final List<Reference> absolutes = new ArrayList<Reference>();
+		private final List<Reference> branches = new ArrayList<Reference>();
+	}
+
+	private static final class Reference {
+		Reference(int position, String label) {
+			this.position = position;
+			this.label = label;
+		}
+		final int position;
+		final String label;
+	}
+
+}
@@ -4,7 +4,8 @@ package general.av.audio;
 
 public interface AudioMonitor  {
 
-	public void nextSamples(byte[] samples, int quant);
+	// Signed 16 bits, at the signal sample rate. Channels are interleaved, and quant counts the samples of all of them
+	public void nextSamples(short[] samples, int quant);
 
 	public void synchOutput();
 	
@@ -7,4 +7,8 @@ public interface AudioSignal {
 
 	public void connectMonitor(AudioMonitor monitor);
 
+	public int sampleRate();
+
+	public int channels();
+
 }
@@ -0,0 +1,85 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package general.av.audio;
+
+import java.util.Arrays;
+
+// Synthesizes a signal made of steps, like square waves, directly at the output sample rate without aliasing.
+// Each amplitude change is added as a band-limited impulse at its exact fractional sample time, and the samples are
+// the running sum of those impulses. Impulses are precomputed windowed sincs for PHASES sub-sample positions.
+// All in integer math so the running sum never drifts
+public final class BandLimitedStepBuffer {
+
+	// Capacity is the maximum number of samples read at once
+	public BandLimitedStepBuffer(int capacity) {
+		deltas = new long[capacity + KERNEL_WIDTH];
+	}
+
+	public int capacity() {
+		return deltas.length - KERNEL_WIDTH;
+	}
+
+	// Time in samples from the start of the buffer, with TIME_FRACTION_BITS of fraction
+	public void addStep(int time, int delta) {
+		int[] impulse = IMPULSES[(time >> (TIME_FRACTION_BITS - PHASE_BITS)) & (PHASES - 1)];
+		int position = time >> TIME_FRACTION_BITS;
+		for (int i = 0; i < KERNEL_WIDTH; i++)
+			deltas[position + i] += (long)delta * impulse[i];
+	}
+
+	// Reads the first samples clipped to 16 bits, then makes the buffer start right after them.
+	// Samples are stored from offset on, stride positions apart. Steps are delayed by KERNEL_WIDTH / 2 samples
+	public void readSamples(short[] samples, int offset, int stride, int quant) {
+		for (int i = 0; i < quant; i++, offset += stride) {
+			sum += deltas[i];
+			long sample = sum >> IMPULSE_BITS;
+			samples[offset] = (short)(sample > Short.MAX_VALUE ? Short.MAX_VALUE : sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+		}
+		System.arraycopy(deltas, quant, deltas, 0, KERNEL_WIDTH);
+		Arrays.fill(deltas, KERNEL_WIDTH, quant + KERNEL_WIDTH, 0);
+	}
+
+	public void clear() {
+		Arrays.fill(deltas, 0);
+		sum = 0;
+	}
+
+	// Blackman windowed sinc with cutoff a little below the output Nyquist frequency, one for each phase.
+	// Each sums exactly to 1 << IMPULSE_BITS, so a step ends exactly at its amplitude
+	private static int[][] buildImpulses() {
+		int[][] impulses = new int[PHASES][KERNEL_WIDTH];
+		double[] values = new double[KERNEL_WIDTH];
+		for (int p = 0; p < PHASES; p++) {
+			double total = 0;
+			for (int i = 0; i < KERNEL_WIDTH; i++) {
+				double x = i - KERNEL_WIDTH / 2 + 1 - (double)p / PHASES;
+				double sinc = x == 0 ? 1 : Math.sin(Math.PI * CUTOFF * x) / (Math.PI * CUTOFF * x);
+				double w = (x + KERNEL_WIDTH / 2) / KERNEL_WIDTH;
+				double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * w) + 0.08 * Math.cos(4 * Math.PI * w);
+				values[i] = sinc * window;
+				total += values[i];
+			}
+			int sum = 0;
+			for (int i = 0; i < KERNEL_WIDTH; i++) {
+				impulses[p][i] = (int)Math.round(values[i] / total * (1 << IMPULSE_BITS));
+				sum += impulses[p][i];
+			}
+			impulses[p][KERNEL_WIDTH / 2] += (1 << IMPULSE_BITS) - sum;		// Rounding error goes to the center
+		}
+		return impulses;
+	}
+
+
+	private final long[] deltas;
+	private long sum = 0;
+
+	public static final int TIME_FRACTION_BITS = 16;
+	public static final int KERNEL_WIDTH = 16;
+
+	private static final int PHASE_BITS = 6;
+	private static final int PHASES = 1 << PHASE_BITS;
+	private static final int IMPULSE_BITS = 15;
+	private static final double CUTOFF = 0.9;			// Fraction of the output Nyquist frequency
+	private static final int[][] IMPULSES = buildImpulses();
+
+}
@@ -14,6 +14,19 @@ public abstract class Instruction implements Serializable {
 
 	public abstract void execute();
 
+	// Returns an equivalent Instruction with its operand type resolved in advance, if possible
+	public Instruction specialized() {
+		return this;
+	}
+
+	// Operand already fetched, waiting for the execution. Lets snapshots keep the Instruction only by its opcode
+	public int fetchedOperand() {
+		return 0;
+	}
+
+	public void fetchedOperand(int operand) {
+	}
+
 	protected transient M6502 cpu;
 
 	
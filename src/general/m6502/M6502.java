@@ -80,15 +80,23 @@ import general.m6502.instructions.uSLO;
 import general.m6502.instructions.uSRE;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 import utils.Debugger;
 
 public final class M6502 implements ClockDriven {
 
 	public M6502() {
+		this(true);
+	}
+
+	// Not specialized keeps the generic Instructions, the reference for differential testing
+	public M6502(boolean specialized) {
+		if (specialized) specializeInstructions();
 	}
 
 	public M6502(BUS16Bits memory) {
+		this();
 		connectBus(memory);
 	}
 
@@ -105,6 +113,7 @@ public final class M6502 implements ClockDriven {
 		INTERRUPT_DISABLE = true;
 		cyclesToExecute = 0;
 		instructionToExecute = null;
+		opcodeToExecute = -1;
 	}
 	
 	/** This implementation executes all fetch operations on the FIRST cycle, 
@@ -118,10 +127,38 @@ public final class M6502 implements ClockDriven {
 			if (!RDY) return;						// CPU is halted
 		if (--cyclesToExecute >= 0) return;			// CPU is still "executing" remaining instruction cycles
 		if (trace) showTrace();
-		instructionToExecute = instructions[toUnsignedByte(memory.readByte(PC++))];		// Reads the instruction to be executed
+		opcodeToExecute = toUnsignedByte(memory.readByte(PC++));		// Reads the instruction to be executed
+		instructionToExecute = instructions[opcodeToExecute];
 		cyclesToExecute = instructionToExecute.fetch() - 1;				// One cycle was just executed already!
 	}
 
+	// Same as calling clockPulse() the given number of times, but skipping idle cycles all at once
+	public void clockPulses(int cycles) {
+		while (cycles > 0) {
+			int idle = idleCycles();
+			if (idle > 0) {
+				if (idle > cycles) idle = cycles;
+				skipIdleCycles(idle);
+				cycles -= idle;
+			} else {
+				clockPulse();
+				cycles--;
+			}
+		}
+	}
+
+	// Number of next cycles in which the CPU will neither fetch nor execute, so it will not access the bus
+	public int idleCycles() {
+		if (cyclesToExecute == 1) return 0;					// Will execute on the next cycle, even if halted
+		if (!RDY) return Integer.MAX_VALUE;					// Halted until RDY is set again
+		return cyclesToExecute > 1 ? cyclesToExecute - 1 : 0;
+	}
+
+	// Same as calling clockPulse() the given number of times, as long as they are not more than idleCycles()
+	public void skipIdleCycles(int cycles) {
+		if (RDY) cyclesToExecute -= cycles;
+	}
+
 	public void powerOn() {	// Initializes the CPU as if it were just powered on
 		PC = 0;
 		SP = STACK_INITIAL_SP;
@@ -175,7 +212,7 @@ public final class M6502 implements ClockDriven {
 		return res;
 	}
 
-	public int fetchIndirectAddress() {
+	public char fetchIndirectAddress() {
 		return memoryReadWordWrappingPage(fetchAbsoluteAddress());		// Should wrap page reading effective address
 	}
 
@@ -270,6 +307,13 @@ public final class M6502 implements ClockDriven {
 		showDebug(">>> TRACE");
 	}
 	
+	// Replaces the generic Instructions in the map with the ones specialized for each operand type.
+	// The generic Instructions are kept as the reference implementation
+	private void specializeInstructions() {
+		for (int i = 0; i < instructions.length; i++)
+			instructions[i] = instructions[i].specialized();
+	}
+
 	public M6502State saveState() {
 		M6502State state = new M6502State();
 		state.PC = PC; state.A = A; state.X = X; state.Y = Y; state.SP = SP; 
@@ -279,6 +323,8 @@ public final class M6502 implements ClockDriven {
 		state.trace = trace; state.debug = debug;
 		state.pageCrossed = pageCrossed;
 		state.instructionToExecute = instructionToExecute;
+		state.opcodeToExecute = opcodeToExecute;
+		state.fetchedOperand = instructionToExecute != null ? instructionToExecute.fetchedOperand() : 0;
 		state.cyclesToExecute = cyclesToExecute;
 		return state;
 	}
@@ -291,11 +337,42 @@ public final class M6502 implements ClockDriven {
 		trace = state.trace; debug = state.debug;
 		pageCrossed = state.pageCrossed;
 		instructionToExecute = state.instructionToExecute;
-		if (instructionToExecute != null)
-			instructionToExecute.cpu = this;
+		opcodeToExecute = -1;
+		if (instructionToExecute != null) {
+			// Use the Instruction of this CPU if known. States saved by older versions have only the Instruction itself
+			int opcode = state.opcodeToExecute;
+			if (opcode >= 0 && opcode < instructions.length && instructions[opcode].getClass() == instructionToExecute.getClass()) {
+				instructionToExecute = instructions[opcode];
+				instructionToExecute.fetchedOperand(state.fetchedOperand);
+				opcodeToExecute = opcode;
+			} else
+				instructionToExecute.cpu = this;
+		}
 		cyclesToExecute = state.cyclesToExecute;
 	}
 
+	// Same contents as saveState(), written as primitives into a reusable buffer. The Instruction in progress is written as its opcode
+	public void saveSnapshot(ByteBuffer buffer) {
+		buffer.putChar(PC).put(A).put(X).put(Y).put(SP).put(PS());
+		buffer.put((byte)((RDY ? 0x01 : 0) | (pageCrossed ? 0x02 : 0)));
+		if (opcodeToExecute < 0 && instructionToExecute != null)
+			throw new IllegalStateException("Instruction in progress is not from this CPU");
+		buffer.putShort((short)opcodeToExecute);
+		buffer.putInt(opcodeToExecute >= 0 ? instructionToExecute.fetchedOperand() : 0);
+		buffer.putInt(cyclesToExecute);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer) {
+		PC = buffer.getChar(); A = buffer.get(); X = buffer.get(); Y = buffer.get(); SP = buffer.get(); PS(buffer.get());
+		byte pins = buffer.get();
+		RDY = (pins & 0x01) != 0; pageCrossed = (pins & 0x02) != 0;
+		opcodeToExecute = buffer.getShort();
+		int operand = buffer.getInt();
+		instructionToExecute = opcodeToExecute >= 0 ? instructions[opcodeToExecute] : null;
+		if (instructionToExecute != null) instructionToExecute.fetchedOperand(operand);
+		cyclesToExecute = buffer.getInt();
+	}
+
 
 	// Public real 6502 registers and memory, for instructions and general access
 
@@ -313,6 +390,7 @@ public final class M6502 implements ClockDriven {
 	public boolean pageCrossed = false;
 	private int cyclesToExecute = 0;
 	private Instruction instructionToExecute;
+	private int opcodeToExecute = -1;		// Of the instructionToExecute, -1 if none or not from this CPU
 	
 
 	// Instructions map. # = Undocumented Instruction
@@ -585,6 +663,8 @@ public final class M6502 implements ClockDriven {
 
 	public static byte STACK_INITIAL_SP = (byte)0xff;
 	public static char STACK_PAGE = (char)0x0100;
+
+	public static final int SNAPSHOT_SIZE = 18;
 	
 	// Convenience methods
 	
@@ -605,6 +685,8 @@ public final class M6502 implements ClockDriven {
 		boolean debug;
 		boolean pageCrossed;
 		Instruction instructionToExecute;
+		int opcodeToExecute;
+		int fetchedOperand;
 		int cyclesToExecute;
 
 		public static final long serialVersionUID = 2L;
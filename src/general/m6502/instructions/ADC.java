@@ -73,6 +73,32 @@ public class ADC extends Instruction {
 		cpu.A = (byte) M6502.toUnsignedByte(uAux);
 	}
 		
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case IMM: return new Immediate(cpu);
+			case Z_PAGE: return new ZeroPage(cpu);
+			case Z_PAGE_X: return new ZeroPageX(cpu);
+			case ABS: return new Absolute(cpu);
+			case ABS_X: return new AbsoluteX(cpu);
+			case ABS_Y: return new AbsoluteY(cpu);
+			case IND_X: return new IndirectX(cpu);
+			case IND_Y: return new IndirectY(cpu);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final OperandType type;
 	
 	private int ea;
@@ -80,4 +106,92 @@ public class ADC extends Instruction {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final class Immediate extends ADC {
+		Immediate(M6502 cpu) {
+			super(cpu, OperandType.IMM);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchImmediateAddress(); return 2;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPage extends ADC {
+		ZeroPage(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 3;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageX extends ADC {
+		ZeroPageX(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageXAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends ADC {
+		Absolute(M6502 cpu) {
+			super(cpu, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteX extends ADC {
+		AbsoluteX(M6502 cpu) {
+			super(cpu, OperandType.ABS_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteXAddress(); return 4 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteY extends ADC {
+		AbsoluteY(M6502 cpu) {
+			super(cpu, OperandType.ABS_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteYAddress(); return 4 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectX extends ADC {
+		IndirectX(M6502 cpu) {
+			super(cpu, OperandType.IND_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectXAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectY extends ADC {
+		IndirectY(M6502 cpu) {
+			super(cpu, OperandType.IND_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectYAddress(); return 5 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
 }
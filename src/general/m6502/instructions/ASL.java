@@ -54,11 +54,89 @@ public class ASL extends Instruction {
 		}
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case ACC: return new Accumulator(cpu);
+			case Z_PAGE: return new ZeroPage(cpu);
+			case Z_PAGE_X: return new ZeroPageX(cpu);
+			case ABS: return new Absolute(cpu);
+			case ABS_X: return new AbsoluteX(cpu);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final OperandType type;
 	
 	private int ea;
 	
 
 	public static final long serialVersionUID = 1L;
+
+	private static final class Accumulator extends ASL {
+		Accumulator(M6502 cpu) {
+			super(cpu, OperandType.ACC);
+		}
+		@Override
+		public int fetch() {
+			super.ea = -1; return 2;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPage extends ASL {
+		ZeroPage(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 5;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageX extends ASL {
+		ZeroPageX(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageXAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends ASL {
+		Absolute(M6502 cpu) {
+			super(cpu, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteX extends ASL {
+		AbsoluteX(M6502 cpu) {
+			super(cpu, OperandType.ABS_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteXAddress(); return 7;
+		}
+		public static final long serialVersionUID = 1L;
+	}
 	
 }
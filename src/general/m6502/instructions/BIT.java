@@ -33,11 +33,53 @@ public class BIT extends Instruction {
 		cpu.NEGATIVE = (val & 0x80) != 0;		// value of bit 7 from memory
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case Z_PAGE: return new ZeroPage(cpu);
+			case ABS: return new Absolute(cpu);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final OperandType type;
 	
 	private int ea;
 	
 
 	public static final long serialVersionUID = 1L;
+
+	private static final class ZeroPage extends BIT {
+		ZeroPage(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 3;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends BIT {
+		Absolute(M6502 cpu) {
+			super(cpu, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
 	
 }
@@ -29,6 +29,16 @@ public class BRK extends Instruction {
 		cpu.PC = cpu.memoryReadWord(M6502.IRQ_HANDLER_ADDRESS);
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return par;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		par = operand;
+	}
+
 	private int par;
 	
 
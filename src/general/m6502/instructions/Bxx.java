@@ -38,6 +38,17 @@ public class Bxx extends Instruction {
 		if (branch) cpu.PC = newPC;	
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return newPC | (branch ? BRANCH : 0);
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		newPC = (char) operand;
+		branch = (operand & BRANCH) != 0;
+	}
+
 	private final StatusBit bit;
 	private final boolean cond;
 	
@@ -47,4 +58,6 @@ public class Bxx extends Instruction {
 	
 	public static final long serialVersionUID = 1L;
 
+	private static final int BRANCH = 0x10000;		// Flag above the new PC in the fetched operand
+
 }
@@ -61,6 +61,32 @@ public class CPx extends Instruction {
 		cpu.NEGATIVE = ((byte)(uR - uVal)) < 0;
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case IMM: return new Immediate(cpu, reg);
+			case Z_PAGE: return new ZeroPage(cpu, reg);
+			case Z_PAGE_X: return new ZeroPageX(cpu, reg);
+			case ABS: return new Absolute(cpu, reg);
+			case ABS_X: return new AbsoluteX(cpu, reg);
+			case ABS_Y: return new AbsoluteY(cpu, reg);
+			case IND_X: return new IndirectX(cpu, reg);
+			case IND_Y: return new IndirectY(cpu, reg);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final Register reg;
 	private final OperandType type;
 	
@@ -69,4 +95,92 @@ public class CPx extends Instruction {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final class Immediate extends CPx {
+		Immediate(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.IMM);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchImmediateAddress(); return 2;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPage extends CPx {
+		ZeroPage(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 3;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageX extends CPx {
+		ZeroPageX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.Z_PAGE_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageXAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends CPx {
+		Absolute(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteX extends CPx {
+		AbsoluteX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteXAddress(); return 4 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteY extends CPx {
+		AbsoluteY(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteYAddress(); return 4 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectX extends CPx {
+		IndirectX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.IND_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectXAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectY extends CPx {
+		IndirectY(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.IND_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectYAddress(); return 5 + (cpu.pageCrossed?1:0);
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
 }
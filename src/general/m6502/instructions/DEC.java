@@ -37,6 +37,28 @@ public class DEC extends Instruction {
 		cpu.NEGATIVE = val < 0;
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case Z_PAGE: return new ZeroPage(cpu);
+			case Z_PAGE_X: return new ZeroPageX(cpu);
+			case ABS: return new Absolute(cpu);
+			case ABS_X: return new AbsoluteX(cpu);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final OperandType type;
 	
 	private int ea;
@@ -44,4 +66,48 @@ public class DEC extends Instruction {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final class ZeroPage extends DEC {
+		ZeroPage(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 5;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageX extends DEC {
+		ZeroPageX(M6502 cpu) {
+			super(cpu, OperandType.Z_PAGE_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageXAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends DEC {
+		Absolute(M6502 cpu) {
+			super(cpu, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteX extends DEC {
+		AbsoluteX(M6502 cpu) {
+			super(cpu, OperandType.ABS_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteXAddress(); return 7;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
 }
@@ -19,7 +19,7 @@ public class JMP extends Instruction {
 			case ABS:
 				newPC = (char) cpu.fetchAbsoluteAddress(); return 3;
 			case IND:
-				newPC = (char) cpu.fetchIndirectAddress(); return 5;
+				newPC = cpu.fetchIndirectAddress(); return 5;
 			default:
 				throw new IllegalStateException("JMP Invalid Operand Type: " + type);
 		}
@@ -30,11 +30,53 @@ public class JMP extends Instruction {
 		cpu.PC = newPC; 
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case ABS: return new Absolute(cpu);
+			case IND: return new Indirect(cpu);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return newPC;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		newPC = (char) operand;
+	}
+
 	private final OperandType type;
 
 	private char newPC;
 	
 
 	public static final long serialVersionUID = 1L;
+
+	private static final class Absolute extends JMP {
+		Absolute(M6502 cpu) {
+			super(cpu, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.newPC = cpu.fetchAbsoluteAddress(); return 3;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Indirect extends JMP {
+		Indirect(M6502 cpu) {
+			super(cpu, OperandType.IND);
+		}
+		@Override
+		public int fetch() {
+			super.newPC = cpu.fetchIndirectAddress(); return 5;
+		}
+		public static final long serialVersionUID = 1L;
+	}
 	
 }
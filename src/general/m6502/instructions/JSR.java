@@ -23,6 +23,16 @@ public class JSR extends Instruction {
 		cpu.PC = newPC;
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return newPC;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		newPC = (char) operand;
+	}
+
 	private char newPC;
 	
 
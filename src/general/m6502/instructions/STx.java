@@ -53,6 +53,32 @@ public class STx extends Instruction {
 		}
 	}
 
+	// Specialized instances have the OperandType fixed in advance, so fetch() does not need to switch at every execution
+	@Override
+	public Instruction specialized() {
+		switch (type) {
+			case Z_PAGE: return new ZeroPage(cpu, reg);
+			case Z_PAGE_X: return new ZeroPageX(cpu, reg);
+			case Z_PAGE_Y: return new ZeroPageY(cpu, reg);
+			case ABS: return new Absolute(cpu, reg);
+			case ABS_X: return new AbsoluteX(cpu, reg);
+			case ABS_Y: return new AbsoluteY(cpu, reg);
+			case IND_X: return new IndirectX(cpu, reg);
+			case IND_Y: return new IndirectY(cpu, reg);
+			default: return this;
+		}
+	}
+
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private final Register reg;
 	private final OperandType type;
 	
@@ -61,4 +87,92 @@ public class STx extends Instruction {
 
 	public static final long serialVersionUID = 1L;
 
+	private static final class ZeroPage extends STx {
+		ZeroPage(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.Z_PAGE);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageAddress(); return 3;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageX extends STx {
+		ZeroPageX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.Z_PAGE_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageXAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class ZeroPageY extends STx {
+		ZeroPageY(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.Z_PAGE_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchZeroPageYAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class Absolute extends STx {
+		Absolute(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteAddress(); return 4;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteX extends STx {
+		AbsoluteX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteXAddress(); return 5;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class AbsoluteY extends STx {
+		AbsoluteY(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.ABS_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchAbsoluteYAddress(); return 5;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectX extends STx {
+		IndirectX(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.IND_X);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectXAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
+	private static final class IndirectY extends STx {
+		IndirectY(M6502 cpu, Register reg) {
+			super(cpu, reg, OperandType.IND_Y);
+		}
+		@Override
+		public int fetch() {
+			super.ea = cpu.fetchIndirectYAddress(); return 6;
+		}
+		public static final long serialVersionUID = 1L;
+	}
+
 }
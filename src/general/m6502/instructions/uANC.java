@@ -24,6 +24,16 @@ public class uANC extends UndocumentedInstruction {
 		cpu.CARRY = cpu.NEGATIVE = val < 0;
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 
 	
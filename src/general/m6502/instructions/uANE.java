@@ -23,6 +23,16 @@ public class uANE extends UndocumentedInstruction {
 		cpu.debug(">>> Undocumented opcode ANE (XAA)");
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 	
 
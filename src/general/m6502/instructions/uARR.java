@@ -43,6 +43,16 @@ public class uARR extends UndocumentedInstruction {
 		}
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 	
 
@@ -26,6 +26,16 @@ public class uASR extends UndocumentedInstruction {
 		cpu.NEGATIVE = false;
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 	
 
@@ -26,6 +26,16 @@ public class uLAS extends UndocumentedInstruction {
 		cpu.NEGATIVE = val < 0;
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 
 	
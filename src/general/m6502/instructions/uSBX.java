@@ -29,6 +29,16 @@ public class uSBX extends UndocumentedInstruction {
 		cpu.NEGATIVE = newX < 0;
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 	
 
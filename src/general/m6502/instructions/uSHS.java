@@ -23,6 +23,16 @@ public class uSHS extends UndocumentedInstruction {
 		cpu.memory.writeByte(ea, val);
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 
 	
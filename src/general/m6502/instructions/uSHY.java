@@ -22,6 +22,16 @@ public class uSHY extends UndocumentedInstruction {
 		cpu.memory.writeByte(ea, val);
 	}
 
+	@Override
+	public int fetchedOperand() {
+		return ea;
+	}
+
+	@Override
+	public void fetchedOperand(int operand) {
+		ea = operand;
+	}
+
 	private int ea;
 
 	
@@ -0,0 +1,67 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import parameters.Parameters;
+import atari.cartridge.bankswitching.CartridgeFormat;
+import atari.cartridge.bankswitching.CartridgeFormats;
+import benchmark.AudioBenchmark;
+import benchmark.BUSBenchmark;
+import benchmark.Benchmark;
+import benchmark.BenchmarkHarness;
+import benchmark.BenchmarkResult;
+import benchmark.CPUBenchmark;
+import benchmark.CartridgeBenchmark;
+import benchmark.FrameBenchmark;
+import benchmark.MonitorFrameBenchmark;
+
+public class BenchmarkRunner {
+
+	public static void main(String[] args) {
+
+		// No display or audio line will ever be used
+		System.setProperty("java.awt.headless", "true");
+
+		// Load Parameters from properties file and process arguments
+		Parameters.init(args);
+
+		// All benchmarks available, filtered by name if asked
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		benchmarks.add(CPUBenchmark.arithmetic());
+		benchmarks.add(CPUBenchmark.memory());
+		benchmarks.add(CPUBenchmark.stack());
+		benchmarks.add(new BUSBenchmark(false, false));
+		benchmarks.add(new BUSBenchmark(true, false));
+		benchmarks.add(new BUSBenchmark(false, true));
+		for (CartridgeFormat format : CartridgeFormats.all())
+			benchmarks.add(new CartridgeBenchmark(format));
+		benchmarks.add(new AudioBenchmark("audio.frame.tone", 0x04, 0x0c));
+		benchmarks.add(new AudioBenchmark("audio.frame.noise", 0x08, 0x02));
+		benchmarks.add(new MonitorFrameBenchmark(false));
+		benchmarks.add(new MonitorFrameBenchmark(true));
+		for (String rom : FrameBenchmark.ROMS)
+			benchmarks.add(new FrameBenchmark(rom));
+
+		// Run them and print results in a machine readable format to the standard output. Progress goes to the error output
+		boolean json = Parameters.BENCHMARK_OUTPUT_FORMAT.equalsIgnoreCase("json");
+		BenchmarkHarness harness = new BenchmarkHarness(
+				Parameters.BENCHMARK_WARMUP_ITERATIONS, Parameters.BENCHMARK_ITERATIONS, Parameters.BENCHMARK_ITERATION_MILLIS);
+		if (json) System.out.println("{\"javaVersion\": \"" + System.getProperty("java.version") + "\", \"osArch\": \"" + System.getProperty("os.arch") + "\", \"results\": [");
+		else System.out.println(BenchmarkResult.csvHeader());
+		boolean first = true;
+		for (Benchmark benchmark : benchmarks) {
+			if (!benchmark.name.contains(Parameters.BENCHMARK_FILTER)) continue;
+			System.err.println("Running " + benchmark.name + "...");
+			BenchmarkResult result = harness.run(benchmark);
+			if (json) System.out.println((first ? "  " : ", ") + result.toJSON());
+			else System.out.println(result.toCSV());
+			first = false;
+		}
+		if (json) System.out.println("]}");
+
+	}
+
+}
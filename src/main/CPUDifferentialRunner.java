@@ -0,0 +1,30 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package main;
+
+import benchmark.CPUDifferential;
+
+public class CPUDifferentialRunner {
+
+	// Arguments: number of programs, cycles per program, first seed
+	public static void main(String[] args) {
+
+		int programs = args.length > 0 ? Integer.valueOf(args[0]) : 2000;
+		int cycles = args.length > 1 ? Integer.valueOf(args[1]) : 20000;
+		long firstSeed = args.length > 2 ? Long.valueOf(args[2]) : 1;
+
+		// Compare generic and specialized Instructions over random programs. Exit status is the number of programs that differ
+		CPUDifferential differential = new CPUDifferential(cycles);
+		int failed = 0;
+		for (long seed = firstSeed; seed < firstSeed + programs; seed++) {
+			String difference = differential.run(seed);
+			if (difference == null) continue;
+			System.out.println(difference);
+			failed++;
+		}
+		System.out.println("TOTAL: " + programs + " programs, " + cycles + " cycles each, " + differential.opcodesExecuted() + " opcodes executed, " + failed + " failed");
+		System.exit(failed);
+
+	}
+
+}
@@ -0,0 +1,87 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package main;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import parameters.Parameters;
+import pc.cartridge.ROMLibrary;
+import pc.cartridge.ROMLoader;
+import pc.headless.HeadlessConsoleEngine;
+import pc.headless.HeadlessConsoleEngine.HostedConsole;
+import atari.cartridge.Cartridge;
+
+public class HeadlessRunner {
+
+	public static void main(String[] args) {
+
+		// No display or audio line will ever be used
+		System.setProperty("java.awt.headless", "true");
+
+		// Load Parameters from properties file and process arguments
+		Parameters.init(args);
+
+		// Create the Consoles for each ROM given. Consoles for the same ROM share its content
+		HeadlessConsoleEngine engine = new HeadlessConsoleEngine(Parameters.HEADLESS_WORKERS);
+		List<String> names = new ArrayList<String>();
+		ROMLibrary library = null;
+		int roms = 0, failed = 0;
+		for (String arg : args) {
+			if (arg.startsWith("-")) continue;
+			File file = new File(arg);
+			if (arg.indexOf("://") < 0 && file.isDirectory()) {
+				// ROM library: every ROM in the directory, its subdirectories and ZIP archives
+				if (library == null) library = new ROMLibrary(new File(Parameters.ROM_LIBRARY_INDEX));
+				library.scan(file);
+				for (ROMLibrary.Entry entry : library.entries(file)) {
+					roms++;
+					if (!addConsoles(engine, names, ROMLoader.load(entry), entry.toString())) failed++;
+				}
+				continue;
+			}
+			roms++;
+			Cartridge cart = arg.indexOf("://") >= 0 ? ROMLoader.load(arg) : ROMLoader.load(file);
+			if (!addConsoles(engine, names, cart, arg)) failed++;
+		}
+		if (library != null) library.saveIndex();
+		if (roms == 0) {
+			System.out.println("Usage: HeadlessRunner [-HEADLESS_FRAMES=n] [-HEADLESS_WORKERS=n] [-HEADLESS_CONSOLES_PER_ROM=n] [-ROM_LIBRARY_INDEX=file] rom1|directory1 [rom2 ...]");
+			return;
+		}
+
+		// Run all Consoles for a fixed number of frames, as fast as possible
+		int frames = Parameters.HEADLESS_FRAMES;
+		engine.powerOn();
+		long start = System.nanoTime();
+		engine.runFrames(frames);
+		long time = System.nanoTime() - start;
+		engine.powerOff();
+
+		long totalFrames = 0;
+		for (HostedConsole hosted : engine.consoles()) {
+			System.out.println(names.get(hosted.id) + ": " + hosted.frames() + " frames, " + hosted.console.videoStandard() + ", " + fpsReport(hosted.frames(), hosted.runningTime()));
+			totalFrames += hosted.frames();
+		}
+		System.out.println("TOTAL: " + roms + " ROMs, " + failed + " failed, " + engine.consoles().size() + " Consoles, " + engine.workers() + " workers, "
+				+ totalFrames + " frames, " + fpsReport(totalFrames, time));
+		engine.destroy();
+
+	}
+
+	private static boolean addConsoles(HeadlessConsoleEngine engine, List<String> names, Cartridge cart, String name) {
+		if (cart == null) return false;
+		for (int i = 0; i < Parameters.HEADLESS_CONSOLES_PER_ROM; i++) {
+			engine.addConsole(cart);
+			names.add(name);
+		}
+		return true;
+	}
+
+	private static String fpsReport(long frames, long nanos) {
+		double secs = nanos / 1000000000d;
+		return String.format("%.3f s, %.1f fps", secs, secs > 0 ? frames / secs : 0);
+	}
+
+}
@@ -2,40 +2,24 @@
 
 package parameters;
 
-import java.awt.event.KeyEvent;
 import java.io.InputStream;
 import java.security.AccessControlException;
 import java.util.Properties;
-import java.util.prefs.Preferences;
 import java.util.regex.Pattern;
 
-import javax.swing.UIManager;
-
 import utils.Terminator;
+import atari.console.ConsoleConfiguration;
 
 public class Parameters {
 	
-	static{
-		setLookAndFeel();
-	}
-
-	// Load Properties file and also process command line options, then load preferences. Order is relevant
+	// Load Properties file and also process command line options. Order is relevant
 	public static void init(String[] args) {
 		parseMainArg(args);
 		loadPropertiesFile();
 		parseOptions(args);
 		processProperties();
-		loadPreferences();
 	}
 
-	private static void setLookAndFeel() {
-		try {
-			 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-		} catch (Exception ex) {
-			// Give up
-		}
-	}
-	
 	private static void parseMainArg(String[] args) {
 		for (String arg : args)
 			if (!arg.startsWith("-")) {
@@ -78,62 +62,28 @@ public class Parameters {
 		}
 	}
 
-	private static void loadPreferences() {
-		Preferences prefs = getUserPreferences();
-		if (prefs == null) return;
-		String val;
-		try {
-			val = prefs.get("keyP0Left", null); if (val != null) KEY_P0_LEFT = Integer.parseInt(val);
-			val = prefs.get("keyP0Up", null); if (val != null) KEY_P0_UP = Integer.parseInt(val);
-			val = prefs.get("keyP0Right", null); if (val != null) KEY_P0_RIGHT = Integer.parseInt(val);
-			val = prefs.get("keyP0Down", null); if (val != null) KEY_P0_DOWN = Integer.parseInt(val);
-			val = prefs.get("keyP0Button", null); if (val != null) KEY_P0_BUTTON = Integer.parseInt(val);
-			val = prefs.get("keyP0Button2", null); if (val != null) KEY_P0_BUTTON2 = Integer.parseInt(val);
-			val = prefs.get("keyP1Left", null); if (val != null) KEY_P1_LEFT = Integer.parseInt(val);
-			val = prefs.get("keyP1Up", null); if (val != null) KEY_P1_UP = Integer.parseInt(val);
-			val = prefs.get("keyP1Right", null); if (val != null) KEY_P1_RIGHT = Integer.parseInt(val);
-			val = prefs.get("keyP1Down", null); if (val != null) KEY_P1_DOWN = Integer.parseInt(val);
-			val = prefs.get("keyP1Button", null); if (val != null) KEY_P1_BUTTON = Integer.parseInt(val);
-			val = prefs.get("keyP1Button2", null); if (val != null) KEY_P1_BUTTON2 = Integer.parseInt(val);
-			val = prefs.get("lastROMFileChosen", null); if (val != null) LAST_ROM_FILE_CHOSEN = val;
-			val = prefs.get("lastROMURLChosen", null); if (val != null) LAST_ROM_URL_CHOSEN = val;
-		} catch (Exception e) {
-			// Give up
-		}
-	}
-	
-	public static void savePreferences() {
-		Preferences prefs = getUserPreferences();
-		if (prefs == null) return;
-		try {
-			prefs.put("keyP0Left", String.valueOf(KEY_P0_LEFT));
-			prefs.put("keyP0Up", String.valueOf(KEY_P0_UP));
-			prefs.put("keyP0Right", String.valueOf(KEY_P0_RIGHT));
-			prefs.put("keyP0Down", String.valueOf(KEY_P0_DOWN));
-			prefs.put("keyP0Button", String.valueOf(KEY_P0_BUTTON));
-			prefs.put("keyP0Button2", String.valueOf(KEY_P0_BUTTON2));
-			prefs.put("keyP1Left", String.valueOf(KEY_P1_LEFT));
-			prefs.put("keyP1Up", String.valueOf(KEY_P1_UP));
-			prefs.put("keyP1Right", String.valueOf(KEY_P1_RIGHT));
-			prefs.put("keyP1Down", String.valueOf(KEY_P1_DOWN));
-			prefs.put("keyP1Button", String.valueOf(KEY_P1_BUTTON));
-			prefs.put("keyP1Button2", String.valueOf(KEY_P1_BUTTON2));
-		 	prefs.put("lastROMFileChosen", LAST_ROM_FILE_CHOSEN);
-			prefs.put("lastROMURLChosen", LAST_ROM_URL_CHOSEN);
-		} catch (Exception e) {
-			// Give up
-		}
-	}
-	
-	private static Preferences getUserPreferences() {
-		if (!userPreferencesAsked)
-			try{
-				userPreferencesAsked = true;
-				userPreferences = Preferences.userRoot().node("javatari");
-			} catch(AccessControlException ex) {
-				// Give up
-			}
-		return userPreferences;
+	// Core configuration for new Consoles, with the current values
+	public static ConsoleConfiguration consoleConfiguration() {
+		ConsoleConfiguration config = new ConsoleConfiguration();
+		config.fastSpeedFactor = CONSOLE_FAST_SPEED_FACTOR;
+		config.tiaForcedClock = TIA_FORCED_CLOCK;
+		config.tiaDefaultClockNTSC = TIA_DEFAULT_CLOCK_NTSC;
+		config.tiaDefaultClockPAL = TIA_DEFAULT_CLOCK_PAL;
+		config.tiaSyncWithAudioMonitor = TIA_SYNC_WITH_AUDIO_MONITOR;
+		config.tiaSyncWithVideoMonitor = TIA_SYNC_WITH_VIDEO_MONITOR;
+		config.audioSampleRate = TIA_AUDIO_SAMPLE_RATE;
+		config.audioMaxAmplitude = TIA_AUDIO_MAX_AMPLITUDE;
+		config.audioMaxMonoChannelAmplitude = TIA_AUDIO_MAX_MONO_CHANNEL_AMPLITUDE;
+		config.audioStereo = TIA_AUDIO_STEREO;
+		config.audioMaxStereoChannelAmplitude = TIA_AUDIO_MAX_STEREO_CHANNEL_AMPLITUDE;
+		config.ramFryZeroBits = RAM_FRY_ZERO_BITS;
+		config.ramFryOneBits = RAM_FRY_ONE_BITS;
+		config.ramFryVariance = RAM_FRY_VARIANCE;
+		config.busDataRetention = BUS_DATA_RETENTION;
+		config.rewindMaxBytes = CONSOLE_REWIND_MAX_KB * 1024;
+		config.rewindMaxFrames = (int)(CONSOLE_REWIND_MAX_SECONDS * TIA_DEFAULT_CLOCK_NTSC);
+		config.rewindKeyframeInterval = CONSOLE_REWIND_KEYFRAME_INTERVAL;
+		return config;
 	}
 
 	private static void processProperties() {
@@ -148,6 +98,7 @@ public class Parameters {
 			val = props.getProperty("TIA_AUDIO_SAMPLE_RATE"); if (val != null) TIA_AUDIO_SAMPLE_RATE = Integer.valueOf(val);
 			val = props.getProperty("TIA_AUDIO_MAX_AMPLITUDE"); if (val != null) TIA_AUDIO_MAX_AMPLITUDE = Float.valueOf(val);
 			val = props.getProperty("TIA_AUDIO_MAX_MONO_CHANNEL_AMPLITUDE"); if (val != null) TIA_AUDIO_MAX_MONO_CHANNEL_AMPLITUDE = Float.valueOf(val);
+			val = props.getProperty("TIA_AUDIO_STEREO"); if (val != null) TIA_AUDIO_STEREO = Boolean.valueOf(val);
 			val = props.getProperty("TIA_AUDIO_MAX_STEREO_CHANNEL_AMPLITUDE"); if (val != null) TIA_AUDIO_MAX_STEREO_CHANNEL_AMPLITUDE = Float.valueOf(val);
 
 			val = props.getProperty("RAM_FRY_ZERO_BITS"); if (val != null) RAM_FRY_ZERO_BITS = Integer.valueOf(val);
@@ -173,6 +124,7 @@ public class Parameters {
 			val = props.getProperty("SCREEN_PAGE_FLIPPING"); if (val != null) SCREEN_PAGE_FLIPPING = Boolean.valueOf(val);
 			val = props.getProperty("SCREEN_BUFFER_VSYNC"); if (val != null) SCREEN_BUFFER_VSYNC = Integer.valueOf(val);
 			val = props.getProperty("SCREEN_FRAME_ACCELERATION"); if (val != null) SCREEN_FRAME_ACCELERATION = Float.valueOf(val);
+			val = props.getProperty("SCREEN_FRAME_DIRECT"); if (val != null) SCREEN_FRAME_DIRECT = Boolean.valueOf(val);
 			val = props.getProperty("SCREEN_INTERM_FRAME_ACCELERATION"); if (val != null) SCREEN_INTERM_FRAME_ACCELERATION = Float.valueOf(val);
 			val = props.getProperty("SCREEN_SCANLINES_ACCELERATION"); if (val != null) SCREEN_SCANLINES_ACCELERATION = Float.valueOf(val);
 			val = props.getProperty("SCREEN_CARTRIDGE_CHANGE"); if (val != null) SCREEN_CARTRIDGE_CHANGE = Boolean.valueOf(val);
@@ -187,15 +139,36 @@ public class Parameters {
 			val = props.getProperty("SPEAKER_NO_DATA_SLEEP_TIME"); if (val != null) SPEAKER_NO_DATA_SLEEP_TIME = Integer.valueOf(val);
 			val = props.getProperty("SPEAKER_ADDED_THREAD_PRIORITY"); if (val != null) SPEAKER_ADDED_THREAD_PRIORITY = Integer.valueOf(val);
 
+			val = props.getProperty("SAVESTATE_COMPRESSION"); if (val != null) SAVESTATE_COMPRESSION = Boolean.valueOf(val);
+
 			val = props.getProperty("CONSOLE_FAST_SPEED_FACTOR"); if (val != null) CONSOLE_FAST_SPEED_FACTOR = Integer.valueOf(val);
+			val = props.getProperty("CONSOLE_REWIND_MAX_KB"); if (val != null) CONSOLE_REWIND_MAX_KB = Integer.valueOf(val);
+			val = props.getProperty("CONSOLE_REWIND_MAX_SECONDS"); if (val != null) CONSOLE_REWIND_MAX_SECONDS = Integer.valueOf(val);
+			val = props.getProperty("CONSOLE_REWIND_KEYFRAME_INTERVAL"); if (val != null) CONSOLE_REWIND_KEYFRAME_INTERVAL = Integer.valueOf(val);
 
 			val = props.getProperty("BUS_DATA_RETENTION"); if (val != null) BUS_DATA_RETENTION = Boolean.valueOf(val);
 
 			val = props.getProperty("SERVER_SERVICE_PORT"); if (val != null) SERVER_SERVICE_PORT = Integer.valueOf(val);
 			val = props.getProperty("SERVER_MAX_UPDATES_PENDING"); if (val != null) SERVER_MAX_UPDATES_PENDING = Integer.valueOf(val);
 			val = props.getProperty("CLIENT_MAX_UPDATES_PENDING"); if (val != null) CLIENT_MAX_UPDATES_PENDING = Integer.valueOf(val);
+			val = props.getProperty("SERVER_PIPELINED"); if (val != null) SERVER_PIPELINED = Boolean.valueOf(val);
+			val = props.getProperty("SERVER_INPUT_DELAY_FRAMES"); if (val != null) SERVER_INPUT_DELAY_FRAMES = Integer.valueOf(val);
+			val = props.getProperty("CLIENT_ROLLBACK"); if (val != null) CLIENT_ROLLBACK = Boolean.valueOf(val);
+			val = props.getProperty("CLIENT_ROLLBACK_MAX_FRAMES"); if (val != null) CLIENT_ROLLBACK_MAX_FRAMES = Integer.valueOf(val);
 
 			val = props.getProperty("MULTIPLAYER_UI"); if (val != null) MULTIPLAYER_UI = Boolean.valueOf(val);
+
+			val = props.getProperty("HEADLESS_FRAMES"); if (val != null) HEADLESS_FRAMES = Integer.valueOf(val);
+			val = props.getProperty("HEADLESS_WORKERS"); if (val != null) HEADLESS_WORKERS = Integer.valueOf(val);
+			val = props.getProperty("HEADLESS_CONSOLES_PER_ROM"); if (val != null) HEADLESS_CONSOLES_PER_ROM = Integer.valueOf(val);
+
+			val = props.getProperty("ROM_LIBRARY_INDEX"); if (val != null) ROM_LIBRARY_INDEX = val;
+
+			val = props.getProperty("BENCHMARK_WARMUP_ITERATIONS"); if (val != null) BENCHMARK_WARMUP_ITERATIONS = Integer.valueOf(val);
+			val = props.getProperty("BENCHMARK_ITERATIONS"); if (val != null) BENCHMARK_ITERATIONS = Integer.valueOf(val);
+			val = props.getProperty("BENCHMARK_ITERATION_MILLIS"); if (val != null) BENCHMARK_ITERATION_MILLIS = Integer.valueOf(val);
+			val = props.getProperty("BENCHMARK_OUTPUT_FORMAT"); if (val != null) BENCHMARK_OUTPUT_FORMAT = val;
+			val = props.getProperty("BENCHMARK_FILTER"); if (val != null) BENCHMARK_FILTER = val;
 		} catch(Exception ex) {
 			System.out.println("Error processing properties:\n" + ex);
 			Terminator.terminate();
@@ -217,9 +190,10 @@ public class Parameters {
 	public static boolean 	TIA_SYNC_WITH_AUDIO_MONITOR = false;
 	public static boolean 	TIA_SYNC_WITH_VIDEO_MONITOR = false;
 
-	public static int 		TIA_AUDIO_SAMPLE_RATE = 31430;					// A little less than TIA Scanline frequency * 2 = 31440
+	public static int 		TIA_AUDIO_SAMPLE_RATE = 44100;					// Output rate. Best to use the native rate of the mixer, usually 44100 or 48000
 	public static float 	TIA_AUDIO_MAX_AMPLITUDE = 0.5f;
 	public static float 	TIA_AUDIO_MAX_MONO_CHANNEL_AMPLITUDE = 0.5f;
+	public static boolean 	TIA_AUDIO_STEREO = false;
 	public static float 	TIA_AUDIO_MAX_STEREO_CHANNEL_AMPLITUDE = 0.9f;
 
 	public static int 		RAM_FRY_ZERO_BITS = 100;						// Quantity of bits to change
@@ -245,6 +219,7 @@ public class Parameters {
 	public static boolean 	SCREEN_PAGE_FLIPPING = true;
 	public static int	 	SCREEN_BUFFER_VSYNC = -1;
 	public static float		SCREEN_FRAME_ACCELERATION = 0;
+	public static boolean 	SCREEN_FRAME_DIRECT = false;						// Frames written directly in the images data. No copies, but no acceleration
 	public static float		SCREEN_INTERM_FRAME_ACCELERATION = -1;
 	public static float		SCREEN_SCANLINES_ACCELERATION = -1;
 	public static boolean 	SCREEN_CARTRIDGE_CHANGE = true;
@@ -253,61 +228,45 @@ public class Parameters {
 	public static boolean 	SCREEN_FULLSCREEN = false;
 	
 	public static double	SPEAKER_DEFAULT_FPS = -1;						// 0 = External Synch, -1 = Auto FPS (On Demand)
-	public static int		SPEAKER_INPUT_BUFFER_SIZE = 1536;				// In frames (samples)
-	public static int		SPEAKER_OUTPUT_BUFFER_SIZE = 768;				// In frames (samples)
+	public static int		SPEAKER_INPUT_BUFFER_SIZE = 2048;				// In frames (samples)
+	public static int		SPEAKER_OUTPUT_BUFFER_SIZE = 1024;				// In frames (samples)
 	public static int		SPEAKER_OUTPUT_BUFFER_FULL_SLEEP_TIME = 5;		// In milliseconds
 	public static int		SPEAKER_NO_DATA_SLEEP_TIME = 20;				// In milliseconds
 	public static int		SPEAKER_ADDED_THREAD_PRIORITY = 0;
 
+	public static boolean 	SAVESTATE_COMPRESSION = true;
+
 	public static int		CONSOLE_FAST_SPEED_FACTOR = 8;
+	public static int		CONSOLE_REWIND_MAX_KB = 4096;					// 0 = No Rewind
+	public static int		CONSOLE_REWIND_MAX_SECONDS = 300;
+	public static int		CONSOLE_REWIND_KEYFRAME_INTERVAL = 60;			// In frames
 
 	public static boolean 	BUS_DATA_RETENTION = true;
 
 	public static int 		SERVER_SERVICE_PORT = 9998;
 	public static int 		SERVER_MAX_UPDATES_PENDING = 20;
 	public static int 		CLIENT_MAX_UPDATES_PENDING = 20;
+	public static boolean 	SERVER_PIPELINED = true;
+	public static int 		SERVER_INPUT_DELAY_FRAMES = 2;
+	public static boolean 	CLIENT_ROLLBACK = true;
+	public static int 		CLIENT_ROLLBACK_MAX_FRAMES = 12;
 
 	public static boolean 	MULTIPLAYER_UI = true;
 
-	public static String 	OFFICIAL_WEBSITE = "http://javatari.org";
-	
-	private static Properties props = new Properties();
-	
-	private static Preferences userPreferences;
-	private static boolean userPreferencesAsked = false;
+	public static int 		HEADLESS_FRAMES = 600;							// Frames to run for each ROM
+	public static int 		HEADLESS_WORKERS = 0;							// 0 = One worker thread per available processor
+	public static int 		HEADLESS_CONSOLES_PER_ROM = 1;
 
-	// DEFATULS for the customizable preferences below
-	
-	public static final int DEFAULT_KEY_P0_LEFT    = KeyEvent.VK_LEFT;
-	public static final int DEFAULT_KEY_P0_UP      = KeyEvent.VK_UP;
-	public static final int DEFAULT_KEY_P0_RIGHT   = KeyEvent.VK_RIGHT;
-	public static final int DEFAULT_KEY_P0_DOWN    = KeyEvent.VK_DOWN;
-	public static final int DEFAULT_KEY_P0_BUTTON  = KeyEvent.VK_SPACE;
-	public static final int DEFAULT_KEY_P0_BUTTON2 = KeyEvent.VK_DELETE;
-	public static final int DEFAULT_KEY_P1_LEFT    = KeyEvent.VK_F;
-	public static final int DEFAULT_KEY_P1_UP      = KeyEvent.VK_T;
-	public static final int DEFAULT_KEY_P1_RIGHT   = KeyEvent.VK_H;
-	public static final int DEFAULT_KEY_P1_DOWN    = KeyEvent.VK_G;
-	public static final int DEFAULT_KEY_P1_BUTTON  = KeyEvent.VK_A;
-	public static final int DEFAULT_KEY_P1_BUTTON2 = KeyEvent.VK_PERIOD;
+	public static String 	ROM_LIBRARY_INDEX = "javatari.romindex";				// Kept for ROM libraries (directories), so they are not read again
+
+	public static int 		BENCHMARK_WARMUP_ITERATIONS = 5;
+	public static int 		BENCHMARK_ITERATIONS = 10;
+	public static int 		BENCHMARK_ITERATION_MILLIS = 500;
+	public static String 	BENCHMARK_OUTPUT_FORMAT = "csv";						// csv or json
+	public static String 	BENCHMARK_FILTER = "";									// Only benchmarks with names containing this text
 
+	public static String 	OFFICIAL_WEBSITE = "http://javatari.org";
 	
-	// The following parameters can be customized as user preferences, not via properties file or command line
-
-	public static int KEY_P0_LEFT    = DEFAULT_KEY_P0_LEFT;
-	public static int KEY_P0_UP      = DEFAULT_KEY_P0_UP;
-	public static int KEY_P0_RIGHT   = DEFAULT_KEY_P0_RIGHT;
-	public static int KEY_P0_DOWN    = DEFAULT_KEY_P0_DOWN;
-	public static int KEY_P0_BUTTON  = DEFAULT_KEY_P0_BUTTON;
-	public static int KEY_P0_BUTTON2 = DEFAULT_KEY_P0_BUTTON2;
-	public static int KEY_P1_LEFT    = DEFAULT_KEY_P1_LEFT;
-	public static int KEY_P1_UP      = DEFAULT_KEY_P1_UP;
-	public static int KEY_P1_RIGHT   = DEFAULT_KEY_P1_RIGHT;
-	public static int KEY_P1_DOWN    = DEFAULT_KEY_P1_DOWN;
-	public static int KEY_P1_BUTTON  = DEFAULT_KEY_P1_BUTTON;
-	public static int KEY_P1_BUTTON2 = DEFAULT_KEY_P1_BUTTON2;
- 
-	public static String LAST_ROM_FILE_CHOSEN = "";
-	public static String LAST_ROM_URL_CHOSEN = "";
+	private static Properties props = new Properties();
 
 }
@@ -2,55 +2,44 @@ package pc.cartridge;
 
 import general.av.video.VideoStandard;
 import atari.cartridge.Cartridge;
-import atari.cartridge.Cartridge4K;
-import atari.cartridge.bankswitching.Cartridge12K;
-import atari.cartridge.bankswitching.Cartridge16K;
-import atari.cartridge.bankswitching.Cartridge28K;
-import atari.cartridge.bankswitching.Cartridge32K;
-import atari.cartridge.bankswitching.Cartridge8K;
-import atari.cartridge.bankswitching.Cartridge8KSliced;
+import atari.cartridge.bankswitching.CartridgeFormat;
+import atari.cartridge.bankswitching.CartridgeFormats;
 
 public class CartridgeCreator {
 
-	// TODO Find a better way to identify the type of bank switching and the VideoStandard of Cartridges
+	// Format, SuperChip and VideoStandard indicated in the name take precedence over the ones detected from the content
 	static Cartridge create(byte[] content, String name) throws UnsupportedROMFormatException {
+		if (content.length == 0) return null;
 		String cartName = name.toUpperCase();
-		Cartridge cart = null; 
-		// Special case for Sliced "E0" format as indicated in name
-		if (cartName.indexOf("(SLICED)") >= 0 || cartName.indexOf("(E0)") >= 0) {
-			if (content.length == Cartridge8KSliced.SIZE) 
-				cart = new Cartridge8KSliced(content);
-			else 
-				throw new UnsupportedROMFormatException("ROM (SLICED, E0) size not supported: " + content.length);
-		} else {
-			// Force SuperChip mode ON or OFF as indicated in name, otherwise leave it in auto mode (null)
-			Boolean sc = null;
-			if (cartName.indexOf("(SC)") >= 0) sc = true;
-			else if (cartName.indexOf("(NOSC)") >= 0) sc = false;
-			switch (content.length) {
-				case 0:
-					return null;
-				case Cartridge4K.HALF_SIZE:
-				case Cartridge4K.SIZE:
-					cart = new Cartridge4K(content); break;
-				case Cartridge8K.SIZE:
-					cart = new Cartridge8K(content, sc); break;
-				case Cartridge12K.SIZE:
-					cart = new Cartridge12K(content); break;
-				case Cartridge16K.SIZE:
-					cart = new Cartridge16K(content, sc); break;
-				case Cartridge28K.SIZE:
-					cart = new Cartridge28K(content); break;
-				case Cartridge32K.SIZE:
-					cart = new Cartridge32K(content, sc); break;
-				default:
-					throw new UnsupportedROMFormatException("ROM size not supported: " + content.length);
+		CartridgeDetector.Detection detection = CartridgeDetector.detect(content);
+		CartridgeFormat format = detection.format;
+		Boolean sc = detection.superChip;
+		// Format as indicated in name, like "(F8)" or "(F8SC)". Special case for Sliced "E0" format
+		for (CartridgeFormat named : CartridgeFormats.all())
+			if (cartName.indexOf("(" + named.id() + ")") >= 0) format = named;
+			else if (named.optionalSuperChip() && cartName.indexOf("(" + named.id() + "SC)") >= 0) {
+				format = named; sc = true;
 			}
-		}
-		// Use VideoStandard specified on the name. Default is null (auto)
+		if (cartName.indexOf("(SLICED)") >= 0) format = CartridgeFormats.get("E0");
+		// Force SuperChip mode ON or OFF as indicated in name, otherwise use the one detected or leave it in auto mode (null)
+		if (cartName.indexOf("(SC)") >= 0) sc = true;
+		else if (cartName.indexOf("(NOSC)") >= 0) sc = false;
+		Cartridge cart = create(content, format, sc);
+		// Use VideoStandard specified on the name or detected. Default is null (auto)
 		if (cartName.indexOf("(PAL)") >= 0) cart.suggestedVideoStandard(VideoStandard.PAL);
 		else if (cartName.indexOf("(NTSC)") >= 0) cart.suggestedVideoStandard(VideoStandard.NTSC);
+		else cart.suggestedVideoStandard(detection.videoStandard);
 		return cart;
 	}
 
-}
+	private static Cartridge create(byte[] content, CartridgeFormat format, Boolean sc) throws UnsupportedROMFormatException {
+		if (format == null)
+			throw new UnsupportedROMFormatException("ROM size not supported: " + content.length);
+		try {
+			return format.create(content, sc);
+		} catch (IllegalStateException ex) {
+			throw new UnsupportedROMFormatException("ROM (" + format.id() + ") size not supported: " + content.length);
+		}
+	}
+
+}
\ No newline at end of file
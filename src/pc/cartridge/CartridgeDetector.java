@@ -0,0 +1,119 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.cartridge;
+
+import general.av.video.VideoStandard;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import atari.cartridge.bankswitching.CartridgeFormat;
+import atari.cartridge.bankswitching.CartridgeFormats;
+
+// Identifies the bank-switching format and VideoStandard of ROMs by their content.
+// ROMs found by MD5 in the bundled database get the format and VideoStandard listed there. The others get the most probable
+// of the registered formats, which look at the size and in the code for hotspot accesses. Also looks for SuperChip RAM areas.
+// Results are cached by MD5, so the same ROM is only examined once
+public final class CartridgeDetector {
+
+	public static synchronized Detection detect(byte[] content) {
+		String hash = md5(content);
+		Detection detection = cache.get(hash);
+		if (detection == null) {
+			detection = lookup(hash);
+			if (detection == null) detection = guess(hash, content);
+			cache.put(hash, detection);
+		}
+		return detection;
+	}
+
+	private static Detection lookup(String hash) {
+		if (database == null) database = loadDatabase();
+		String entry = database.getProperty(hash);
+		if (entry == null) return null;
+		CartridgeFormat format = null;
+		Boolean superChip = null;
+		VideoStandard videoStandard = null;
+		for (String token : entry.trim().toUpperCase().split("[\\s,]+")) {
+			if (token.equals("NTSC")) videoStandard = VideoStandard.NTSC;
+			else if (token.equals("PAL")) videoStandard = VideoStandard.PAL;
+			else if ((format = CartridgeFormats.get(token)) != null) {
+				// SuperChip is known to be absent for the formats where it is optional, unless indicated
+				if (format.optionalSuperChip()) superChip = false;
+			} else if (token.endsWith("SC") && (format = CartridgeFormats.get(token.substring(0, token.length() - 2))) != null
+					&& format.optionalSuperChip()) {
+				superChip = true;
+			} else {
+				System.out.println("Invalid ROM database entry: " + hash + " = " + entry);
+				return null;
+			}
+		}
+		return new Detection(hash, format, superChip, videoStandard);
+	}
+
+	private static Detection guess(String hash, byte[] content) {
+		CartridgeFormat format = CartridgeFormats.mostProbable(content);
+		return new Detection(hash, format, format != null && format.optionalSuperChip() ? superChipGuess(content) : null, null);
+	}
+
+	// The SuperChip RAM area is the first 256 bytes of each bank, 128 for writing then 128 for reading.
+	// Assemblers fill both halves the same way, so that is where they are equal in every bank. Otherwise it is left to be found when running (null)
+	private static Boolean superChipGuess(byte[] content) {
+		for (int bank = 0; bank < content.length; bank += 4096)
+			for (int i = 0; i < 128; i++)
+				if (content[bank + i] != content[bank + 128 + i]) return null;
+		return true;
+	}
+
+	private static Properties loadDatabase() {
+		Properties props = new Properties();
+		InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(DATABASE_RESOURCE);
+		try {
+			try {
+				props.load(is);
+			} finally {
+				is.close();
+			}
+		} catch (Exception ex) {
+			System.out.println(DATABASE_RESOURCE + " not found, detecting ROM formats by content only");
+		}
+		return props;
+	}
+
+	private static String md5(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("MD5").digest(content);
+			StringBuilder hash = new StringBuilder(32);
+			for (byte b : digest)
+				hash.append(String.format("%02x", b & 0xff));
+			return hash.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);	// Every Java platform has MD5
+		}
+	}
+
+
+	private static Properties database;
+	private static final Map<String, Detection> cache = new HashMap<String, Detection>();
+
+	private static final String DATABASE_RESOURCE = "pc/cartridge/romformats.properties";
+
+
+	public static final class Detection {
+		Detection(String hash, CartridgeFormat format, Boolean superChip, VideoStandard videoStandard) {
+			this.hash = hash;
+			this.format = format;
+			this.superChip = superChip;
+			this.videoStandard = videoStandard;
+		}
+		public final String hash;					// MD5 of the content
+		public final CartridgeFormat format;		// null = no format possible
+		public final Boolean superChip;				// null = automatic mode
+		public final VideoStandard videoStandard;	// null = automatic detection
+	}
+
+}
@@ -8,13 +8,13 @@ import java.security.AccessControlException;
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-import parameters.Parameters;
+import pc.room.settings.UserPreferences;
 import atari.cartridge.Cartridge;
 
 public class FileROMChooser {
 
 	public static Cartridge chooseFile() {
-		if (lastFileChosen == null) lastFileChosen = new File(Parameters.LAST_ROM_FILE_CHOSEN);
+		if (lastFileChosen == null) lastFileChosen = new File(UserPreferences.LAST_ROM_FILE_CHOSEN);
 		try {
 			if (chooser == null) {
 				chooser = new JFileChooser();
@@ -28,8 +28,8 @@ public class FileROMChooser {
 			return FileServiceROMChooser.chooseFile();
 		}
 		lastFileChosen = chooser.getSelectedFile();
-		Parameters.LAST_ROM_FILE_CHOSEN = lastFileChosen.toString();
-		Parameters.savePreferences();
+		UserPreferences.LAST_ROM_FILE_CHOSEN = lastFileChosen.toString();
+		UserPreferences.save();
 		return ROMLoader.load(lastFileChosen);
 	}
 	
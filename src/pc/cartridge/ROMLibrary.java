@@ -0,0 +1,247 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.cartridge;
+
+import general.av.video.VideoStandard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import atari.cartridge.bankswitching.CartridgeFormat;
+import atari.cartridge.bankswitching.CartridgeFormats;
+
+// Index of the ROMs in directories and ZIP archives, with the hash, size, format and VideoStandard of each, for browsing large libraries.
+// Every ROM in a ZIP archive is indexed, not only the first. The index is kept in a file, and scans only read the files that are new
+// or changed since, by length and modification time. ROMs are loaded through the file channel or straight from the ZIP central directory
+public final class ROMLibrary {
+
+	public ROMLibrary(File indexFile) {
+		this.indexFile = indexFile;
+		readIndex();
+	}
+
+	// Sorted by path
+	public synchronized List<Entry> entries() {
+		List<Entry> all = new ArrayList<Entry>();
+		for (IndexedFile file : files.values())
+			all.addAll(file.entries);
+		return all;
+	}
+
+	// Only the ones in the directory and its subdirectories
+	public synchronized List<Entry> entries(File directory) {
+		String prefix = pathPrefix(directory);
+		List<Entry> found = new ArrayList<Entry>();
+		for (Map.Entry<String, IndexedFile> file : files.entrySet())
+			if (file.getKey().startsWith(prefix)) found.addAll(file.getValue().entries);
+		return found;
+	}
+
+	// Brings the index up to date with the ROM files and ZIP archives in the directory and its subdirectories
+	public synchronized void scan(File directory) {
+		String prefix = pathPrefix(directory);
+		Map<String, IndexedFile> previous = new HashMap<String, IndexedFile>();
+		Iterator<Map.Entry<String, IndexedFile>> it = files.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, IndexedFile> file = it.next();
+			if (!file.getKey().startsWith(prefix)) continue;
+			previous.put(file.getKey(), file.getValue());
+			it.remove();
+		}
+		scanDirectory(directory, previous);
+		if (!previous.isEmpty()) changed = true;		// Files gone
+	}
+
+	// Only written if changed since read or saved
+	public synchronized void saveIndex() {
+		if (!changed) return;
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(indexFile), INDEX_CHARSET));
+			try {
+				writer.write(INDEX_HEADER + "\n");
+				for (Map.Entry<String, IndexedFile> file : files.entrySet()) {
+					IndexedFile indexed = file.getValue();
+					writer.write("F\t" + file.getKey() + "\t" + indexed.length + "\t" + indexed.lastModified + "\n");
+					for (Entry entry : indexed.entries)
+						writer.write("R\t" + (entry.entryName == null ? "" : entry.entryName) + "\t" + entry.size + "\t" + entry.hash + "\t"
+							+ (entry.format == null ? "" : entry.format.id()) + "\t" + (entry.videoStandard == null ? "" : entry.videoStandard.name()) + "\n");
+				}
+			} finally {
+				writer.close();
+			}
+			changed = false;
+		} catch (IOException ex) {
+			System.out.println("Could not save ROM library index: " + indexFile);
+			System.out.println(ex);
+		}
+	}
+
+	private void scanDirectory(File directory, Map<String, IndexedFile> previous) {
+		File[] found = directory.listFiles();
+		if (found == null) return;		// Not a directory or not readable
+		Arrays.sort(found);
+		for (File file : found) {
+			if (file.isDirectory()) {
+				scanDirectory(file, previous);
+				continue;
+			}
+			String path = file.getAbsolutePath();
+			if (!indexable(path) || !(ROMLoader.isROMFileName(path) || ROMLoader.isZIPFileName(path))) continue;
+			IndexedFile indexed = previous.remove(path);
+			if (indexed == null || indexed.length != file.length() || indexed.lastModified != file.lastModified()) {
+				indexed = index(file);
+				changed = true;
+			}
+			files.put(path, indexed);
+		}
+	}
+
+	// Files that can not be read are kept with no ROMs, and only read again when changed
+	private IndexedFile index(File file) {
+		String path = file.getAbsolutePath();
+		IndexedFile indexed = new IndexedFile(file.length(), file.lastModified());
+		try {
+			if (ROMLoader.isZIPFileName(path)) {
+				ZipFile zip = new ZipFile(file);
+				try {
+					Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+					while (zipEntries.hasMoreElements()) {
+						ZipEntry zipEntry = zipEntries.nextElement();
+						if (indexable(zipEntry.getName()) && ROMLoader.isROMEntry(zipEntry))
+							indexed.entries.add(entry(path, zipEntry.getName(), ROMLoader.read(zip, zipEntry)));
+					}
+				} finally {
+					zip.close();
+				}
+			} else if (file.length() <= ROMLoader.MAX_ROM_SIZE)
+				indexed.entries.add(entry(path, null, ROMLoader.read(file)));
+		} catch (IOException ex) {
+			System.out.println("Could not index ROMs from: " + path);
+			System.out.println(ex);
+		}
+		return indexed;
+	}
+
+	private static Entry entry(String path, String entryName, byte[] content) {
+		CartridgeDetector.Detection detection = CartridgeDetector.detect(content);
+		return new Entry(path, entryName, content.length, detection.hash, detection.format, detection.videoStandard);
+	}
+
+	private void readIndex() {
+		if (!indexFile.exists()) return;
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), INDEX_CHARSET));
+			try {
+				if (!INDEX_HEADER.equals(reader.readLine())) throw new IOException("Unknown index version");
+				String path = null;
+				IndexedFile indexed = null;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String[] fields = line.split("\t", -1);
+					if (fields[0].equals("F") && fields.length == 4) {
+						path = fields[1];
+						indexed = new IndexedFile(Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+						files.put(path, indexed);
+					} else if (fields[0].equals("R") && fields.length == 6 && indexed != null) {
+						indexed.entries.add(new Entry(path, fields[1].isEmpty() ? null : fields[1], Integer.parseInt(fields[2]), fields[3],
+							CartridgeFormats.get(fields[4]), fields[5].isEmpty() ? null : VideoStandard.valueOf(fields[5])));
+					} else
+						throw new IOException("Invalid index line: " + line);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (Exception ex) {
+			// Starts empty, and every file is read again on the next scan
+			System.out.println("Could not read ROM library index: " + indexFile);
+			System.out.println(ex);
+			files.clear();
+		}
+	}
+
+	// Index lines are tab separated
+	private static boolean indexable(String name) {
+		return name.indexOf('\t') < 0 && name.indexOf('\n') < 0 && name.indexOf('\r') < 0;
+	}
+
+	private static String pathPrefix(File directory) {
+		String path = directory.getAbsolutePath();
+		return path.endsWith(File.separator) ? path : path + File.separator;
+	}
+
+
+	private final File indexFile;
+	private final Map<String, IndexedFile> files = new TreeMap<String, IndexedFile>();
+	private boolean changed = false;
+
+	private static final String INDEX_HEADER = "# Javatari ROM library index 1";
+	private static final String INDEX_CHARSET = "UTF-8";
+
+
+	public static final class Entry {
+		Entry(String path, String entryName, int size, String hash, CartridgeFormat format, VideoStandard videoStandard) {
+			this.path = path;
+			this.entryName = entryName;
+			this.size = size;
+			this.hash = hash;
+			this.format = format;
+			this.videoStandard = videoStandard;
+		}
+		// File name, or ZIP entry name without directories
+		public String name() {
+			String name = entryName == null ? path.substring(path.lastIndexOf(File.separatorChar) + 1) : entryName;
+			return name.substring(name.lastIndexOf('/') + 1);
+		}
+		public byte[] content() throws IOException {
+			File file = new File(path);
+			if (entryName == null) return ROMLoader.read(file);
+			ZipFile zip = new ZipFile(file);
+			try {
+				ZipEntry zipEntry = zip.getEntry(entryName);
+				if (zipEntry == null) throw new FileNotFoundException(entryName + " in " + path);
+				return ROMLoader.read(zip, zipEntry);
+			} finally {
+				zip.close();
+			}
+		}
+		@Override
+		public String toString() {
+			return entryName == null ? path : path + "!/" + entryName;
+		}
+		public final String path;					// ROM file or ZIP archive
+		public final String entryName;				// null = not in a ZIP archive
+		public final int size;
+		public final String hash;					// MD5 of the content
+		public final CartridgeFormat format;		// null = no format possible
+		public final VideoStandard videoStandard;	// null = automatic detection
+	}
+
+	private static final class IndexedFile {
+		IndexedFile(long length, long lastModified) {
+			this.length = length;
+			this.lastModified = lastModified;
+		}
+		final long length;
+		final long lastModified;
+		final List<Entry> entries = new ArrayList<Entry>();
+	}
+
+}
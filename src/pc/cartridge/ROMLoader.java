@@ -2,16 +2,23 @@
 
 package pc.cartridge;
 
+import java.awt.GraphicsEnvironment;
 import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.AccessControlException;
 import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import javax.swing.JOptionPane;
@@ -29,13 +36,58 @@ public class ROMLoader {
 		return null;
 	}
 
+	// Local files are read through their channel, and ZIP archives through their central directory
 	public static Cartridge load(File file) {
+		String name = file.getPath();
 		try {
-			return load(file.toURI().toURL());
-		} catch (MalformedURLException ex) {
-			errorMessage(ex, file.getPath());
+			System.out.println("Loading Cartridge from: " + name);
+			// First try the content directly
+			UnsupportedROMFormatException notROM = null;
+			if (file.length() <= MAX_ROM_SIZE)
+				try {
+					return CartridgeCreator.create(read(file), name);
+				} catch (UnsupportedROMFormatException ex) {
+					notROM = ex;
+				}
+			// If it fails, try the first ROM in it as a ZIP archive
+			ZipFile zip;
+			try {
+				zip = new ZipFile(file);
+			} catch (ZipException ex) {
+				if (notROM != null) throw notROM;	// Not zipped either
+				throw ex;
+			}
+			try {
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (isROMEntry(entry)) return CartridgeCreator.create(read(zip, entry), name);
+				}
+				throw new UnsupportedROMFormatException("No ROM found in ZIP archive");
+			} finally {
+				zip.close();
+			}
+		} catch (IOException ex) {
+			errorMessage(ex, name);
+		} catch (UnsupportedROMFormatException ex) {
+			errorMessage(ex, name);
+		} catch (AccessControlException ex) {
+			errorMessage(ex, name);
+		}
+		return null;
+	}
+
+	public static Cartridge load(ROMLibrary.Entry entry) {
+		String name = entry.toString();
+		try {
+			System.out.println("Loading Cartridge from: " + name);
+			return CartridgeCreator.create(entry.content(), name);
+		} catch (IOException ex) {
+			errorMessage(ex, name);
+		} catch (UnsupportedROMFormatException ex) {
+			errorMessage(ex, name);
 		} catch (AccessControlException ex) {
-			errorMessage(ex, file.getPath());
+			errorMessage(ex, name);
 		}
 		return null;
 	}
@@ -82,6 +134,57 @@ public class ROMLoader {
 		return null;
 	}
 
+	// Whole file read straight into the array through its channel. Not mapped, as mappings keep files locked on Windows until collected
+	static byte[] read(File file) throws IOException {
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			FileChannel channel = stream.getChannel();
+			long size = channel.size();
+			if (size > MAX_ROM_SIZE) throw new IOException("ROM file too large: " + size);
+			byte[] content = new byte[(int) size];
+			ByteBuffer buffer = ByteBuffer.wrap(content);
+			while (buffer.hasRemaining())
+				if (channel.read(buffer) < 0) throw new IOException("ROM file truncated: " + file);
+			return content;
+		} finally {
+			stream.close();
+		}
+	}
+
+	static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+		InputStream stream = zip.getInputStream(entry);
+		try {
+			byte[] buffer = new byte[MAX_ROM_SIZE + 1];
+			int totalRead = 0;
+			do {
+				int read = stream.read(buffer, totalRead, buffer.length - totalRead);
+				if (read == -1) break;	// End of Stream
+				totalRead += read;
+			} while(totalRead < buffer.length);
+			if (totalRead > MAX_ROM_SIZE) throw new IOException("ROM entry too large: " + entry.getName());
+			return Arrays.copyOf(buffer, totalRead);
+		} finally {
+			stream.close();
+		}
+	}
+
+	// Size, when known from the central directory, must fit a ROM
+	static boolean isROMEntry(ZipEntry entry) {
+		return !entry.isDirectory() && entry.getSize() <= MAX_ROM_SIZE && isROMFileName(entry.getName());
+	}
+
+	static boolean isROMFileName(String name) {
+		String upperName = name.toUpperCase();
+		for (int i = 0; i < VALID_FILE_EXTENSIONS.length; i++)
+			if (!VALID_FILE_EXTENSIONS[i].equals(ZIP_FILE_EXTENSION) && upperName.endsWith("." + VALID_FILE_EXTENSIONS[i].toUpperCase()))
+				return true;
+		return false;
+	}
+
+	static boolean isZIPFileName(String name) {
+		return name.toUpperCase().endsWith("." + ZIP_FILE_EXTENSION.toUpperCase());
+	}
+
 	private static BufferedInputStream bufferedStream(InputStream stream) {
 		BufferedInputStream buf = new BufferedInputStream(stream, MAX_STREAM_SIZE);
 		buf.mark(MAX_STREAM_SIZE);
@@ -115,6 +218,7 @@ public class ROMLoader {
 	private static void errorMessage(Exception ex, String name) {
 		System.out.println("Could not load Cartridge from: " + name);
 		System.out.println(ex);
+		if (GraphicsEnvironment.isHeadless()) return;
 		String tName = name == null ? "" : name.trim();
 		if (tName.length() > 80) tName = tName.substring(0, 79);
 		JOptionPane.showMessageDialog(
@@ -126,9 +230,11 @@ public class ROMLoader {
 	}
 
 
-	private static final int MAX_ROM_SIZE = 32768;
+	static final int MAX_ROM_SIZE = 512 * 1024;		// Largest 3F ROMs
 	private static final int MAX_STREAM_SIZE = MAX_ROM_SIZE + 1000;
 
+	private static final String ZIP_FILE_EXTENSION = "zip";
+
 	public static final String   VALID_FILES_DESC = "ROM files (.bin .rom .a26 .zip)";
 	public static final String[] VALID_FILE_EXTENSIONS = {"bin", "rom", "a26", "zip"};
 	
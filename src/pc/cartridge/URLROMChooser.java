@@ -4,21 +4,21 @@ package pc.cartridge;
 
 import javax.swing.JOptionPane;
 
-import parameters.Parameters;
+import pc.room.settings.UserPreferences;
 import atari.cartridge.Cartridge;
 
 public class URLROMChooser {
 
 	public static Cartridge chooseURL() {
-		if (lastURLChosen == null) lastURLChosen = Parameters.LAST_ROM_URL_CHOSEN;
+		if (lastURLChosen == null) lastURLChosen = UserPreferences.LAST_ROM_URL_CHOSEN;
 		String opt = (String)JOptionPane.showInputDialog(
 			"Load Cartridge from URL:                                                  ", 
 			lastURLChosen
 		);
 		if (opt == null || opt.trim().isEmpty()) return null;
 		lastURLChosen = opt.trim();
-		Parameters.LAST_ROM_URL_CHOSEN = lastURLChosen;
-		Parameters.savePreferences();
+		UserPreferences.LAST_ROM_URL_CHOSEN = lastURLChosen;
+		UserPreferences.save();
 		return ROMLoader.load(opt);
 	}
 
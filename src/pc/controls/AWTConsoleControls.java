@@ -10,7 +10,7 @@ import java.awt.event.KeyListener;
 import java.util.HashMap;
 import java.util.Map;
 
-import parameters.Parameters;
+import pc.room.settings.UserPreferences;
 import atari.controls.ConsoleControls;
 import atari.controls.ConsoleControlsInput;
 
@@ -213,6 +213,7 @@ public class AWTConsoleControls implements ConsoleControls, KeyListener {
 		normalCodeMap.put(KEY_SELECT,      Control.SELECT); 
 		normalCodeMap.put(KEY_RESET,       Control.RESET); 
 		normalCodeMap.put(KEY_FAST_SPEED,  Control.FAST_SPEED); 
+		normalCodeMap.put(KEY_REWIND,      Control.REWIND); 
 		
 		withALTCodeMap.put(KEY_POWER,          Control.POWER_FRY);
 		withALTCodeMap.put(KEY_PAUSE,          Control.PAUSE);
@@ -254,31 +255,31 @@ public class AWTConsoleControls implements ConsoleControls, KeyListener {
 	public void initJoystickKeys() {
 		joysticksCodeMap.clear();
 		if (!p1ControlsMode) {
-			joysticksCodeMap.put(Parameters.KEY_P0_LEFT,    Control.JOY0_LEFT); 
-			joysticksCodeMap.put(Parameters.KEY_P0_UP,      Control.JOY0_UP); 
-			joysticksCodeMap.put(Parameters.KEY_P0_RIGHT,   Control.JOY0_RIGHT); 
-			joysticksCodeMap.put(Parameters.KEY_P0_DOWN,    Control.JOY0_DOWN); 
-			joysticksCodeMap.put(Parameters.KEY_P0_BUTTON,  Control.JOY0_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P0_BUTTON2, Control.JOY0_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P1_LEFT,    Control.JOY1_LEFT); 
-			joysticksCodeMap.put(Parameters.KEY_P1_UP,      Control.JOY1_UP); 
-			joysticksCodeMap.put(Parameters.KEY_P1_RIGHT,   Control.JOY1_RIGHT); 
-			joysticksCodeMap.put(Parameters.KEY_P1_DOWN,    Control.JOY1_DOWN); 
-			joysticksCodeMap.put(Parameters.KEY_P1_BUTTON,  Control.JOY1_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P1_BUTTON2, Control.JOY1_BUTTON);
+			joysticksCodeMap.put(UserPreferences.KEY_P0_LEFT,    Control.JOY0_LEFT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_UP,      Control.JOY0_UP); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_RIGHT,   Control.JOY0_RIGHT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_DOWN,    Control.JOY0_DOWN); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_BUTTON,  Control.JOY0_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_BUTTON2, Control.JOY0_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_LEFT,    Control.JOY1_LEFT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_UP,      Control.JOY1_UP); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_RIGHT,   Control.JOY1_RIGHT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_DOWN,    Control.JOY1_DOWN); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_BUTTON,  Control.JOY1_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_BUTTON2, Control.JOY1_BUTTON);
 		} else {
-			joysticksCodeMap.put(Parameters.KEY_P0_LEFT,    Control.JOY1_LEFT); 
-			joysticksCodeMap.put(Parameters.KEY_P0_UP,      Control.JOY1_UP); 
-			joysticksCodeMap.put(Parameters.KEY_P0_RIGHT,   Control.JOY1_RIGHT); 
-			joysticksCodeMap.put(Parameters.KEY_P0_DOWN,    Control.JOY1_DOWN); 
-			joysticksCodeMap.put(Parameters.KEY_P0_BUTTON,  Control.JOY1_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P0_BUTTON2, Control.JOY1_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P1_LEFT,    Control.JOY0_LEFT); 
-			joysticksCodeMap.put(Parameters.KEY_P1_UP,      Control.JOY0_UP); 
-			joysticksCodeMap.put(Parameters.KEY_P1_RIGHT,   Control.JOY0_RIGHT); 
-			joysticksCodeMap.put(Parameters.KEY_P1_DOWN,    Control.JOY0_DOWN); 
-			joysticksCodeMap.put(Parameters.KEY_P1_BUTTON,  Control.JOY0_BUTTON); 
-			joysticksCodeMap.put(Parameters.KEY_P1_BUTTON2, Control.JOY0_BUTTON);
+			joysticksCodeMap.put(UserPreferences.KEY_P0_LEFT,    Control.JOY1_LEFT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_UP,      Control.JOY1_UP); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_RIGHT,   Control.JOY1_RIGHT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_DOWN,    Control.JOY1_DOWN); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_BUTTON,  Control.JOY1_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P0_BUTTON2, Control.JOY1_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_LEFT,    Control.JOY0_LEFT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_UP,      Control.JOY0_UP); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_RIGHT,   Control.JOY0_RIGHT); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_DOWN,    Control.JOY0_DOWN); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_BUTTON,  Control.JOY0_BUTTON); 
+			joysticksCodeMap.put(UserPreferences.KEY_P1_BUTTON2, Control.JOY0_BUTTON);
 		}
 	}
 
@@ -317,6 +318,7 @@ public class AWTConsoleControls implements ConsoleControls, KeyListener {
 	private static final int KEY_FRAME          = KeyEvent.VK_F;
 	private static final int KEY_TRACE          = KeyEvent.VK_T;
 	private static final int KEY_FAST_SPEED     = KeyEvent.VK_TAB;
+	private static final int KEY_REWIND         = KeyEvent.VK_BACK_QUOTE;
 	private static final int KEY_DEBUG          = KeyEvent.VK_D;
 	private static final int KEY_NO_COLLISIONS  = KeyEvent.VK_C;
 	private static final int KEY_VIDEO_STANDARD = KeyEvent.VK_V;
@@ -0,0 +1,32 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.headless;
+
+import general.av.audio.AudioMonitor;
+import general.av.audio.AudioSignal;
+
+// Speaker with no audio line. Samples are only counted
+public class HeadlessAudioMonitor implements AudioMonitor {
+
+	public void connect(AudioSignal audioSignal) {
+		audioSignal.connectMonitor(this);
+	}
+
+	@Override
+	public void nextSamples(short[] samples, int quant) {
+		this.samples += quant;
+	}
+
+	@Override
+	public void synchOutput() {
+		// Nothing to synch to
+	}
+
+	public long samples() {
+		return samples;
+	}
+
+
+	private long samples = 0;
+
+}
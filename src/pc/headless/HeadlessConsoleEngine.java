@@ -0,0 +1,151 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import parameters.Parameters;
+import atari.cartridge.Cartridge;
+import atari.console.HeadlessConsole;
+
+// Hosts any number of independent HeadlessConsoles, stepped by a fixed pool of worker threads instead of one Clock per Console
+public class HeadlessConsoleEngine {
+
+	public HeadlessConsoleEngine(int workers) {
+		if (workers <= 0) workers = Runtime.getRuntime().availableProcessors();
+		this.workers = workers;
+		executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Console Engine Worker " + (++threadsCreated));
+				t.setDaemon(true);
+				return t;
+			}
+			private int threadsCreated = 0;
+		});
+	}
+
+	// Each Console gets its own clone of the Cartridge, so bank switching and extra RAM are independent,
+	// but all clones share the same read-only ROM content
+	public HostedConsole addConsole(Cartridge cartridge) {
+		HostedConsole hosted = new HostedConsole(consoles.size(), cartridge != null ? cartridge.clone() : null);
+		consoles.add(hosted);
+		return hosted;
+	}
+
+	public List<HostedConsole> consoles() {
+		return Collections.unmodifiableList(consoles);
+	}
+
+	public int workers() {
+		return workers;
+	}
+
+	public void powerOn() {
+		for (HostedConsole hosted : consoles)
+			hosted.console.powerOn();
+	}
+
+	public void powerOff() {
+		for (HostedConsole hosted : consoles)
+			hosted.console.powerOff();
+	}
+
+	// All Consoles advance exactly one frame, in parallel. Returns only when all are done
+	public void stepFrame() {
+		runInParallel(1);
+	}
+
+	// Each Console runs the given number of frames, one at a time and independently of the others
+	public void runFrames(int frames) {
+		runInParallel(frames);
+	}
+
+	public void destroy() {
+		executor.shutdownNow();
+		for (HostedConsole hosted : consoles)
+			hosted.console.destroy();
+		consoles.clear();
+	}
+
+	private void runInParallel(final int frames) {
+		if (consoles.isEmpty()) return;
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(consoles.size());
+		if (frames == 1) {
+			// Group Consoles in one task per worker to avoid scheduling overhead for each single frame
+			int perTask = (consoles.size() + workers - 1) / workers;
+			for (int i = 0; i < consoles.size(); i += perTask)
+				tasks.add(new FramesTask(consoles.subList(i, Math.min(i + perTask, consoles.size())), 1));
+		} else
+			// One task per Console, so faster Consoles do not wait for slower ones
+			for (HostedConsole hosted : consoles)
+				tasks.add(new FramesTask(Collections.singletonList(hosted), frames));
+		try {
+			for (Future<Void> result : executor.invokeAll(tasks))
+				result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running Consoles");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Console failed while running", e.getCause());
+		}
+	}
+
+
+	private final int workers;
+	private final ExecutorService executor;
+	private final List<HostedConsole> consoles = new ArrayList<HostedConsole>();
+
+
+	public static class HostedConsole {
+		HostedConsole(int id, Cartridge cartridge) {
+			this.id = id;
+			console = new HeadlessConsole(Parameters.consoleConfiguration());
+			video = new HeadlessVideoMonitor();
+			audio = new HeadlessAudioMonitor();
+			video.connect(console.videoOutput());
+			audio.connect(console.audioOutput());
+			if (cartridge != null) console.cartridgeSocket().insert(cartridge, false);
+		}
+		public long frames() {
+			return frames;
+		}
+		public long runningTime() {		// In nanoseconds
+			return runningTime;
+		}
+		public final int id;
+		public final HeadlessConsole console;
+		public final HeadlessVideoMonitor video;
+		public final HeadlessAudioMonitor audio;
+		private volatile long frames = 0;
+		private volatile long runningTime = 0;
+	}
+
+	private static class FramesTask implements Callable<Void> {
+		FramesTask(List<HostedConsole> consoles, int frames) {
+			this.consoles = consoles;
+			this.frames = frames;
+		}
+		@Override
+		public Void call() {
+			for (HostedConsole hosted : consoles) {
+				long start = System.nanoTime();
+				hosted.console.runFrames(frames);
+				hosted.runningTime += System.nanoTime() - start;
+				hosted.frames += frames;
+			}
+			return null;
+		}
+		private final List<HostedConsole> consoles;
+		private final int frames;
+	}
+
+}
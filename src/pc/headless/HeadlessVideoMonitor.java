@@ -0,0 +1,110 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.headless;
+
+import general.av.video.VideoMonitor;
+import general.av.video.VideoSignal;
+import general.av.video.VideoStandard;
+import parameters.Parameters;
+
+// Monitor with no display. Lines are discarded, but frames are still detected exactly like the real Monitor does
+public class HeadlessVideoMonitor implements VideoMonitor {
+
+	public void connect(VideoSignal videoSignal) {
+		this.videoSignal = videoSignal;
+		videoSignal.connectMonitor(this);
+	}
+
+	@Override
+	public boolean nextLine(int[] pixels, boolean vSynchSignal) {
+		// If signal is off, we are done
+		if (pixels == null) {
+			VSYNCDetectionCount = VSYNC_DETECTION;
+			line = 0;
+			return false;
+		}
+		boolean vSynced = false;
+		int signalHeight = videoSignal.standard().height;
+		if (line > signalHeight + VSYNC_TOLERANCE) vSynced = newFrame(signalHeight);
+		line++;
+		if (videoStandardDetected == null) videoStandardDetectionLines++;
+		if (vSynchSignal) {
+			if (--VSYNCDetectionCount == 0) {
+				if (videoStandardDetected == null) videoStandardDetectionNewFrame();
+				vSynced = newFrame(signalHeight);
+			}
+		} else
+			VSYNCDetectionCount = VSYNC_DETECTION;
+		return vSynced;
+	}
+
+	@Override
+	public void showOSD(String message) {
+		lastOSDMessage = message;
+	}
+
+	@Override
+	public void synchOutput() {
+		// Nothing to synch to
+	}
+
+	@Override
+	public int currentLine() {
+		return line;
+	}
+
+	@Override
+	public void videoStandardDetectionStart() {
+		videoStandardDetected = null;
+		videoStandardDetectionFrameCount = videoStandardDetectionTotalLinesCount = 0;
+	}
+
+	@Override
+	public VideoStandard videoStandardDetected() {
+		return videoStandardDetected;
+	}
+
+	public long frames() {
+		return frames;
+	}
+
+	public String lastOSDMessage() {
+		return lastOSDMessage;
+	}
+
+	private boolean newFrame(int signalHeight) {
+		if (line < signalHeight - VSYNC_TOLERANCE) return false;
+		frames++;
+		line = 0;
+		return true;
+	}
+
+	private void videoStandardDetectionNewFrame() {
+		int linesCount = videoStandardDetectionLines;
+		videoStandardDetectionLines = 0;
+		// Only consider frames with linesCount in range
+		if (linesCount < 250 || linesCount > 325) return;
+		videoStandardDetectionTotalLinesCount += linesCount;
+		if (++videoStandardDetectionFrameCount < 4) return;
+		int averageLPF = videoStandardDetectionTotalLinesCount / videoStandardDetectionFrameCount;
+		videoStandardDetected = averageLPF < 290 ? VideoStandard.NTSC : VideoStandard.PAL;
+	}
+
+
+	private VideoSignal videoSignal;
+
+	private int line = 0;
+	private long frames = 0;
+	private String lastOSDMessage;
+
+	private VideoStandard videoStandardDetected;
+	private int videoStandardDetectionFrameCount;
+	private int videoStandardDetectionTotalLinesCount;
+	private int videoStandardDetectionLines = 0;
+
+	private int VSYNCDetectionCount = 0;
+
+	private static final int VSYNC_DETECTION = 2;
+	private static final int VSYNC_TOLERANCE = Parameters.SCREEN_VSYNC_TOLERANCE;
+
+}
@@ -2,10 +2,13 @@
 
 package pc.room;
 
+import javax.swing.UIManager;
+
 import parameters.Parameters;
 import pc.cartridge.ROMLoader;
 import pc.controls.AWTConsoleControls;
 import pc.room.settings.SettingsDialog;
+import pc.room.settings.UserPreferences;
 import pc.savestate.FileSaveStateMedia;
 import pc.screen.DesktopScreenWindow;
 import pc.screen.Screen;
@@ -128,6 +131,8 @@ public class Room {
 	protected void buildPeripherals() {
 		// PC interfaces for Video, Audio, Controls, Cartridge and SaveState
 		if (screen != null) throw new IllegalStateException();
+		setLookAndFeel();
+		UserPreferences.load();
 		screen = buildScreenPeripheral();
 		speaker = new Speaker();
 		controls = new AWTConsoleControls(screen.monitor());
@@ -135,6 +140,14 @@ public class Room {
 		stateMedia = new FileSaveStateMedia();
 	}
 
+	private void setLookAndFeel() {
+		try {
+			 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+		} catch (Exception ex) {
+			// Give up
+		}
+	}
+
 	protected Screen buildScreenPeripheral() {
 		return new DesktopScreenWindow();
 	}
@@ -164,7 +177,7 @@ public class Room {
 
 	private Console buildAndPlugStandaloneConsole() {
 		if (standaloneConsole != null) throw new IllegalStateException();
-		standaloneConsole = new Console();
+		standaloneConsole = new Console(Parameters.consoleConfiguration());
 		plugConsole(standaloneConsole);
 		return standaloneConsole;
 	}
@@ -172,14 +185,14 @@ public class Room {
 	private ServerConsole buildAndPlugServerConsole() {
 		if (serverConsole != null) throw new IllegalStateException();
 		RemoteTransmitter remoteTransmitter = new RemoteTransmitter();
-		serverConsole = new ServerConsole(remoteTransmitter);
+		serverConsole = new ServerConsole(remoteTransmitter, Parameters.consoleConfiguration());
 		plugConsole(serverConsole);
 		return serverConsole;
 	}
 	
 	private ClientConsole buildAndPlugClientConsole() {
 		RemoteReceiver remoteReceiver = new RemoteReceiver();
-		clientConsole = new ClientConsole(remoteReceiver);
+		clientConsole = new ClientConsole(remoteReceiver, Parameters.consoleConfiguration());
 		plugConsole(clientConsole);
 		return clientConsole;
 	}	
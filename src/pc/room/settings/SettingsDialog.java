@@ -197,19 +197,19 @@ public class SettingsDialog extends JDialog implements ConnectionStatusListener
 	}
 	
 	private void acceptKeyChanges() {
-		Parameters.KEY_P0_UP      = newKEY_P0_UP;
-		Parameters.KEY_P0_DOWN    = newKEY_P0_DOWN;
-		Parameters.KEY_P0_LEFT    = newKEY_P0_LEFT;
-		Parameters.KEY_P0_RIGHT   = newKEY_P0_RIGHT;
-		Parameters.KEY_P0_BUTTON  = newKEY_P0_BUTTON;
-		Parameters.KEY_P0_BUTTON2 = newKEY_P0_BUTTON2;
-		Parameters.KEY_P1_UP      = newKEY_P1_UP;
-		Parameters.KEY_P1_DOWN    = newKEY_P1_DOWN;
-		Parameters.KEY_P1_LEFT    = newKEY_P1_LEFT;
-		Parameters.KEY_P1_RIGHT   = newKEY_P1_RIGHT;
-		Parameters.KEY_P1_BUTTON  = newKEY_P1_BUTTON;
-		Parameters.KEY_P1_BUTTON2 = newKEY_P1_BUTTON2;	
-		Parameters.savePreferences();
+		UserPreferences.KEY_P0_UP      = newKEY_P0_UP;
+		UserPreferences.KEY_P0_DOWN    = newKEY_P0_DOWN;
+		UserPreferences.KEY_P0_LEFT    = newKEY_P0_LEFT;
+		UserPreferences.KEY_P0_RIGHT   = newKEY_P0_RIGHT;
+		UserPreferences.KEY_P0_BUTTON  = newKEY_P0_BUTTON;
+		UserPreferences.KEY_P0_BUTTON2 = newKEY_P0_BUTTON2;
+		UserPreferences.KEY_P1_UP      = newKEY_P1_UP;
+		UserPreferences.KEY_P1_DOWN    = newKEY_P1_DOWN;
+		UserPreferences.KEY_P1_LEFT    = newKEY_P1_LEFT;
+		UserPreferences.KEY_P1_RIGHT   = newKEY_P1_RIGHT;
+		UserPreferences.KEY_P1_BUTTON  = newKEY_P1_BUTTON;
+		UserPreferences.KEY_P1_BUTTON2 = newKEY_P1_BUTTON2;	
+		UserPreferences.save();
 		room.controls().initJoystickKeys();
 	}
 
@@ -222,33 +222,33 @@ public class SettingsDialog extends JDialog implements ConnectionStatusListener
 	}
 
 	private void initNewKeys() {
-		newKEY_P0_UP      = Parameters.KEY_P0_UP; 
-		newKEY_P0_DOWN    = Parameters.KEY_P0_DOWN;
-		newKEY_P0_LEFT    = Parameters.KEY_P0_LEFT;
-		newKEY_P0_RIGHT   = Parameters.KEY_P0_RIGHT;
-		newKEY_P0_BUTTON  = Parameters.KEY_P0_BUTTON;
-		newKEY_P0_BUTTON2 = Parameters.KEY_P0_BUTTON2;
-		newKEY_P1_UP      = Parameters.KEY_P1_UP;
-		newKEY_P1_DOWN    = Parameters.KEY_P1_DOWN;
-		newKEY_P1_LEFT    = Parameters.KEY_P1_LEFT;
-		newKEY_P1_RIGHT   = Parameters.KEY_P1_RIGHT;
-		newKEY_P1_BUTTON  = Parameters.KEY_P1_BUTTON;
-		newKEY_P1_BUTTON2 = Parameters.KEY_P1_BUTTON2;
+		newKEY_P0_UP      = UserPreferences.KEY_P0_UP; 
+		newKEY_P0_DOWN    = UserPreferences.KEY_P0_DOWN;
+		newKEY_P0_LEFT    = UserPreferences.KEY_P0_LEFT;
+		newKEY_P0_RIGHT   = UserPreferences.KEY_P0_RIGHT;
+		newKEY_P0_BUTTON  = UserPreferences.KEY_P0_BUTTON;
+		newKEY_P0_BUTTON2 = UserPreferences.KEY_P0_BUTTON2;
+		newKEY_P1_UP      = UserPreferences.KEY_P1_UP;
+		newKEY_P1_DOWN    = UserPreferences.KEY_P1_DOWN;
+		newKEY_P1_LEFT    = UserPreferences.KEY_P1_LEFT;
+		newKEY_P1_RIGHT   = UserPreferences.KEY_P1_RIGHT;
+		newKEY_P1_BUTTON  = UserPreferences.KEY_P1_BUTTON;
+		newKEY_P1_BUTTON2 = UserPreferences.KEY_P1_BUTTON2;
 	}
 
 	private void setControlsKeysDefaults() {
-		newKEY_P0_UP      = Parameters.DEFAULT_KEY_P0_UP; 
-		newKEY_P0_DOWN    = Parameters.DEFAULT_KEY_P0_DOWN;
-		newKEY_P0_LEFT    = Parameters.DEFAULT_KEY_P0_LEFT;
-		newKEY_P0_RIGHT   = Parameters.DEFAULT_KEY_P0_RIGHT;
-		newKEY_P0_BUTTON  = Parameters.DEFAULT_KEY_P0_BUTTON;
-		newKEY_P0_BUTTON2 = Parameters.DEFAULT_KEY_P0_BUTTON2;
-		newKEY_P1_UP      = Parameters.DEFAULT_KEY_P1_UP;
-		newKEY_P1_DOWN    = Parameters.DEFAULT_KEY_P1_DOWN;
-		newKEY_P1_LEFT    = Parameters.DEFAULT_KEY_P1_LEFT;
-		newKEY_P1_RIGHT   = Parameters.DEFAULT_KEY_P1_RIGHT;
-		newKEY_P1_BUTTON  = Parameters.DEFAULT_KEY_P1_BUTTON;
-		newKEY_P1_BUTTON2 = Parameters.DEFAULT_KEY_P1_BUTTON2;
+		newKEY_P0_UP      = UserPreferences.DEFAULT_KEY_P0_UP; 
+		newKEY_P0_DOWN    = UserPreferences.DEFAULT_KEY_P0_DOWN;
+		newKEY_P0_LEFT    = UserPreferences.DEFAULT_KEY_P0_LEFT;
+		newKEY_P0_RIGHT   = UserPreferences.DEFAULT_KEY_P0_RIGHT;
+		newKEY_P0_BUTTON  = UserPreferences.DEFAULT_KEY_P0_BUTTON;
+		newKEY_P0_BUTTON2 = UserPreferences.DEFAULT_KEY_P0_BUTTON2;
+		newKEY_P1_UP      = UserPreferences.DEFAULT_KEY_P1_UP;
+		newKEY_P1_DOWN    = UserPreferences.DEFAULT_KEY_P1_DOWN;
+		newKEY_P1_LEFT    = UserPreferences.DEFAULT_KEY_P1_LEFT;
+		newKEY_P1_RIGHT   = UserPreferences.DEFAULT_KEY_P1_RIGHT;
+		newKEY_P1_BUTTON  = UserPreferences.DEFAULT_KEY_P1_BUTTON;
+		newKEY_P1_BUTTON2 = UserPreferences.DEFAULT_KEY_P1_BUTTON2;
 		refreshContols();
 	}
 
@@ -735,16 +735,16 @@ public class SettingsDialog extends JDialog implements ConnectionStatusListener
 			txtpnAltJ.setOpaque(false);
 			txtpnAltJ.setEditable(false);
 			txtpnAltJ.setFont(new Font("Arial", Font.PLAIN, 12));
-			txtpnAltJ.setBounds(18, 10, 78, 203);
+			txtpnAltJ.setBounds(18, 10, 78, 218);
 			panel.add(txtpnAltJ);
-			txtpnAltJ.setText("CTR + 1-0 :\r\nALT + 1-0 :\r\n\r\nALT + ENT :\r\nALT + V :\r\nALT + R :\r\nALT + Q :\r\n\r\nALT + D :\r\nALT + C :\r\nALT + P :\r\nALT + F :\r\nTAB :");
+			txtpnAltJ.setText("CTR + 1-0 :\r\nALT + 1-0 :\r\n\r\nALT + ENT :\r\nALT + V :\r\nALT + R :\r\nALT + Q :\r\n\r\nALT + D :\r\nALT + C :\r\nALT + P :\r\nALT + F :\r\nTAB :\r\n` :");
 			
 			JTextPane txtpnFullscreenNtsc = new JTextPane();
 			txtpnFullscreenNtsc.setOpaque(false);
 			txtpnFullscreenNtsc.setEditable(false);
-			txtpnFullscreenNtsc.setText("Save State\r\nLoad State\r\n\r\nFullscreen\r\nNTSC / PAL\r\nCRT Modes\r\nFilter\r\n\r\nDebug Modes\r\nCollisions\r\nPause\r\nNext Frame\r\nFast Speed");
+			txtpnFullscreenNtsc.setText("Save State\r\nLoad State\r\n\r\nFullscreen\r\nNTSC / PAL\r\nCRT Modes\r\nFilter\r\n\r\nDebug Modes\r\nCollisions\r\nPause\r\nNext Frame\r\nFast Speed\r\nRewind");
 			txtpnFullscreenNtsc.setFont(new Font("Arial", Font.PLAIN, 12));
-			txtpnFullscreenNtsc.setBounds(95, 10, 92, 203);
+			txtpnFullscreenNtsc.setBounds(95, 10, 92, 218);
 			panel.add(txtpnFullscreenNtsc);
 			
 			JTextPane txtpnAltF = new JTextPane();
@@ -0,0 +1,108 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.room.settings;
+
+import java.awt.event.KeyEvent;
+import java.security.AccessControlException;
+import java.util.prefs.Preferences;
+
+// Customizable user preferences, stored in the user Preferences node, not in the properties file or command line
+public class UserPreferences {
+
+	public static void load() {
+		Preferences prefs = userPreferences();
+		if (prefs == null) return;
+		String val;
+		try {
+			val = prefs.get("keyP0Left", null); if (val != null) KEY_P0_LEFT = Integer.parseInt(val);
+			val = prefs.get("keyP0Up", null); if (val != null) KEY_P0_UP = Integer.parseInt(val);
+			val = prefs.get("keyP0Right", null); if (val != null) KEY_P0_RIGHT = Integer.parseInt(val);
+			val = prefs.get("keyP0Down", null); if (val != null) KEY_P0_DOWN = Integer.parseInt(val);
+			val = prefs.get("keyP0Button", null); if (val != null) KEY_P0_BUTTON = Integer.parseInt(val);
+			val = prefs.get("keyP0Button2", null); if (val != null) KEY_P0_BUTTON2 = Integer.parseInt(val);
+			val = prefs.get("keyP1Left", null); if (val != null) KEY_P1_LEFT = Integer.parseInt(val);
+			val = prefs.get("keyP1Up", null); if (val != null) KEY_P1_UP = Integer.parseInt(val);
+			val = prefs.get("keyP1Right", null); if (val != null) KEY_P1_RIGHT = Integer.parseInt(val);
+			val = prefs.get("keyP1Down", null); if (val != null) KEY_P1_DOWN = Integer.parseInt(val);
+			val = prefs.get("keyP1Button", null); if (val != null) KEY_P1_BUTTON = Integer.parseInt(val);
+			val = prefs.get("keyP1Button2", null); if (val != null) KEY_P1_BUTTON2 = Integer.parseInt(val);
+			val = prefs.get("lastROMFileChosen", null); if (val != null) LAST_ROM_FILE_CHOSEN = val;
+			val = prefs.get("lastROMURLChosen", null); if (val != null) LAST_ROM_URL_CHOSEN = val;
+		} catch (Exception e) {
+			// Give up
+		}
+	}
+	
+	public static void save() {
+		Preferences prefs = userPreferences();
+		if (prefs == null) return;
+		try {
+			prefs.put("keyP0Left", String.valueOf(KEY_P0_LEFT));
+			prefs.put("keyP0Up", String.valueOf(KEY_P0_UP));
+			prefs.put("keyP0Right", String.valueOf(KEY_P0_RIGHT));
+			prefs.put("keyP0Down", String.valueOf(KEY_P0_DOWN));
+			prefs.put("keyP0Button", String.valueOf(KEY_P0_BUTTON));
+			prefs.put("keyP0Button2", String.valueOf(KEY_P0_BUTTON2));
+			prefs.put("keyP1Left", String.valueOf(KEY_P1_LEFT));
+			prefs.put("keyP1Up", String.valueOf(KEY_P1_UP));
+			prefs.put("keyP1Right", String.valueOf(KEY_P1_RIGHT));
+			prefs.put("keyP1Down", String.valueOf(KEY_P1_DOWN));
+			prefs.put("keyP1Button", String.valueOf(KEY_P1_BUTTON));
+			prefs.put("keyP1Button2", String.valueOf(KEY_P1_BUTTON2));
+		 	prefs.put("lastROMFileChosen", LAST_ROM_FILE_CHOSEN);
+			prefs.put("lastROMURLChosen", LAST_ROM_URL_CHOSEN);
+		} catch (Exception e) {
+			// Give up
+		}
+	}
+	
+	private static Preferences userPreferences() {
+		if (!userPreferencesAsked)
+			try{
+				userPreferencesAsked = true;
+				userPreferences = Preferences.userRoot().node("javatari");
+			} catch(AccessControlException ex) {
+				// Give up
+			}
+		return userPreferences;
+	}
+
+
+	private static Preferences userPreferences;
+	private static boolean userPreferencesAsked = false;
+
+	// DEFATULS for the customizable preferences below
+	
+	public static final int DEFAULT_KEY_P0_LEFT    = KeyEvent.VK_LEFT;
+	public static final int DEFAULT_KEY_P0_UP      = KeyEvent.VK_UP;
+	public static final int DEFAULT_KEY_P0_RIGHT   = KeyEvent.VK_RIGHT;
+	public static final int DEFAULT_KEY_P0_DOWN    = KeyEvent.VK_DOWN;
+	public static final int DEFAULT_KEY_P0_BUTTON  = KeyEvent.VK_SPACE;
+	public static final int DEFAULT_KEY_P0_BUTTON2 = KeyEvent.VK_DELETE;
+	public static final int DEFAULT_KEY_P1_LEFT    = KeyEvent.VK_F;
+	public static final int DEFAULT_KEY_P1_UP      = KeyEvent.VK_T;
+	public static final int DEFAULT_KEY_P1_RIGHT   = KeyEvent.VK_H;
+	public static final int DEFAULT_KEY_P1_DOWN    = KeyEvent.VK_G;
+	public static final int DEFAULT_KEY_P1_BUTTON  = KeyEvent.VK_A;
+	public static final int DEFAULT_KEY_P1_BUTTON2 = KeyEvent.VK_PERIOD;
+
+	
+	// The following parameters can be customized as user preferences, not via properties file or command line
+
+	public static int KEY_P0_LEFT    = DEFAULT_KEY_P0_LEFT;
+	public static int KEY_P0_UP      = DEFAULT_KEY_P0_UP;
+	public static int KEY_P0_RIGHT   = DEFAULT_KEY_P0_RIGHT;
+	public static int KEY_P0_DOWN    = DEFAULT_KEY_P0_DOWN;
+	public static int KEY_P0_BUTTON  = DEFAULT_KEY_P0_BUTTON;
+	public static int KEY_P0_BUTTON2 = DEFAULT_KEY_P0_BUTTON2;
+	public static int KEY_P1_LEFT    = DEFAULT_KEY_P1_LEFT;
+	public static int KEY_P1_UP      = DEFAULT_KEY_P1_UP;
+	public static int KEY_P1_RIGHT   = DEFAULT_KEY_P1_RIGHT;
+	public static int KEY_P1_DOWN    = DEFAULT_KEY_P1_DOWN;
+	public static int KEY_P1_BUTTON  = DEFAULT_KEY_P1_BUTTON;
+	public static int KEY_P1_BUTTON2 = DEFAULT_KEY_P1_BUTTON2;
+ 
+	public static String LAST_ROM_FILE_CHOSEN = "";
+	public static String LAST_ROM_URL_CHOSEN = "";
+
+}
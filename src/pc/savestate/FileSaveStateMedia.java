@@ -3,17 +3,25 @@
 package pc.savestate;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+import parameters.Parameters;
 import atari.console.savestate.ConsoleState;
 import atari.console.savestate.SaveStateMedia;
 import atari.console.savestate.SaveStateSocket;
 
+// Files with a fixed header followed by the Console snapshot, optionally deflated:
+// magic, format version, flags, Cartridge hash, snapshot length, stored data length. All big-endian.
+// The Cartridge ROM is not saved, so states can only be loaded with the same Cartridge inserted.
+// The snapshot carries its own layout, checked by the Console, so the format version only covers this header and the compression
 public class FileSaveStateMedia implements SaveStateMedia {
 
 	public void connect(SaveStateSocket socket) {
@@ -21,19 +29,39 @@ public class FileSaveStateMedia implements SaveStateMedia {
 	}
 
 	@Override
-	public boolean save(int slot, ConsoleState state) {
+	public synchronized boolean save(int slot, long cartridgeHash, ByteBuffer snapshot) {
 		try {
 			// Create the savestate directory if needed
 			File dir = new File(savesDirectory());
 			if (!dir.isDirectory())
 				dir.mkdir();
+			int length = snapshot.remaining();
+			if (length > MAX_SNAPSHOT_LENGTH) return false;
+			ensureCapacity(length);
+			snapshot.duplicate().get(snapshotData, 0, length);
+			int flags = 0;
+			int stored = length;
+			if (Parameters.SAVESTATE_COMPRESSION) {
+				deflater.reset();
+				deflater.setInput(snapshotData, 0, length);
+				deflater.finish();
+				int deflated = deflater.deflate(fileData, HEADER_SIZE, length);
+				// Kept uncompressed if deflating does not make it smaller
+				if (deflater.finished() && deflated < length) {
+					flags |= FLAG_DEFLATED;
+					stored = deflated;
+				}
+			}
+			if ((flags & FLAG_DEFLATED) == 0)
+				System.arraycopy(snapshotData, 0, fileData, HEADER_SIZE, length);
+			ByteBuffer data = ByteBuffer.wrap(fileData, 0, HEADER_SIZE + stored);
+			data.putInt(MAGIC).putShort(VERSION).putShort((short)flags).putLong(cartridgeHash).putInt(length).putInt(stored);
+			data.rewind();
 			FileOutputStream file = null;
 			try {
-				ByteArrayOutputStream data = new ByteArrayOutputStream();
-				ObjectOutputStream stream = new ObjectOutputStream(data);
-				stream.writeObject(state);
-				file = new FileOutputStream(savesDirectory() + File.separator + "save" + slot + ".sav");
-				file.write(data.toByteArray());
+				file = new FileOutputStream(slotFile(slot, EXTENSION));
+				FileChannel channel = file.getChannel();
+				while (data.hasRemaining()) channel.write(data);
 			} finally {
 				if (file != null) file.close();
 			}
@@ -45,13 +73,58 @@ public class FileSaveStateMedia implements SaveStateMedia {
 	}
 
 	@Override
-	public ConsoleState load(int slot) {
+	public synchronized ByteBuffer load(int slot) {
+		try{
+			FileInputStream file = null;
+			try{
+				file = new FileInputStream(slotFile(slot, EXTENSION));
+				FileChannel channel = file.getChannel();
+				long size = channel.size();
+				if (size < HEADER_SIZE || size > HEADER_SIZE + MAX_SNAPSHOT_LENGTH) return null;
+				ensureCapacity((int)size - HEADER_SIZE);
+				ByteBuffer data = ByteBuffer.wrap(fileData, 0, (int)size);
+				while (data.hasRemaining())
+					if (channel.read(data) < 0) return null;
+				data.rewind();
+				if (data.getInt() != MAGIC || data.getShort() != VERSION) return null;
+				int flags = data.getShort();
+				data.getLong();		// Cartridge hash, also at the start of the snapshot
+				int length = data.getInt();
+				int stored = data.getInt();
+				if (stored != data.remaining() || length < 0 || length > MAX_SNAPSHOT_LENGTH) return null;
+				if ((flags & FLAG_DEFLATED) == 0)
+					return length == stored ? data : null;
+				ensureCapacity(length);
+				inflater.reset();
+				inflater.setInput(fileData, HEADER_SIZE, stored);
+				if (inflater.inflate(snapshotData, 0, length) != length || !inflater.finished()) return null;
+				return ByteBuffer.wrap(snapshotData, 0, length);
+			} finally {
+				if (file != null) file.close();
+			}
+		} catch (DataFormatException ex) {
+			// Corrupted file
+		} catch (Exception ex) {
+			// No permissions or any other IO error
+		}
+		return null;
+	}
+
+	// Older versions serialized the whole ConsoleState, Cartridge included
+	@Override
+	public ConsoleState loadLegacy(int slot) {
 		try{
 			FileInputStream file = null;
 			try{
-				file = new FileInputStream(savesDirectory() + File.separator + "save" + slot + ".sav");
-				byte[] data = new byte[file.available()];
-				file.read(data);
+				File legacy = slotFile(slot, LEGACY_EXTENSION);
+				file = new FileInputStream(legacy);
+				byte[] data = new byte[(int)legacy.length()];
+				int read = 0;
+				while (read < data.length) {
+					int count = file.read(data, read, data.length - read);
+					if (count < 0) return null;
+					read += count;
+				}
 				ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data));
 				return (ConsoleState) stream.readObject();
 			} finally {
@@ -63,6 +136,16 @@ public class FileSaveStateMedia implements SaveStateMedia {
 		return null;
 	}
 
+	private File slotFile(int slot, String extension) {
+		return new File(savesDirectory() + File.separator + "save" + slot + extension);
+	}
+
+	// Buffers are kept between calls and only grow
+	private void ensureCapacity(int snapshotLength) {
+		if (snapshotData.length < snapshotLength) snapshotData = new byte[snapshotLength];
+		if (fileData.length < HEADER_SIZE + snapshotLength) fileData = new byte[HEADER_SIZE + snapshotLength];
+	}
+
 	private String savesDirectory() {
 		if (savesDirectory != null) return savesDirectory;
 		try{
@@ -77,7 +160,20 @@ public class FileSaveStateMedia implements SaveStateMedia {
 	
 	
 	private String savesDirectory;
+
+	private byte[] snapshotData = new byte[0];
+	private byte[] fileData = new byte[HEADER_SIZE];
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private final Inflater inflater = new Inflater();
 	
 	private static final String BASE_DIR = "javatarisaves";
+	private static final String EXTENSION = ".jst";
+	private static final String LEGACY_EXTENSION = ".sav";
+
+	private static final int MAGIC = 0x4A545354;				// "JTST"
+	private static final short VERSION = 2;					// 1 had snapshots with no layout
+	private static final int FLAG_DEFLATED = 1;
+	private static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 4 + 4;
+	private static final int MAX_SNAPSHOT_LENGTH = 1024 * 1024;
 
 }
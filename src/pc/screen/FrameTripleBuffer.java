@@ -0,0 +1,92 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.screen;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Three frame buffers shared by one producer and one consumer thread without locks.
+// The producer always has a buffer to write, and the consumer always has the last complete frame to read
+public final class FrameTripleBuffer {
+
+	public FrameTripleBuffer(int size) {
+		this(new int[3][size]);
+	}
+
+	// Uses the given 3 buffers, that may be owned by someone else like images
+	public FrameTripleBuffer(int[][] buffers) {
+		if (buffers.length != 3) throw new IllegalArgumentException("Triple buffer needs exactly 3 buffers");
+		this.buffers = buffers;
+	}
+
+	// Buffer being written by the producer. Only the producer thread may call
+	public int[] producerBuffer() {
+		return buffers[producer];
+	}
+
+	// Makes the producer buffer the latest complete frame and gets another buffer to write. Only the producer thread may call
+	public void publish() {
+		publish(0, Integer.MAX_VALUE);
+	}
+
+	// Same, telling the range of lines that changed since the frame published before. -1 for no changes
+	public void publish(int firstChangedLine, int lastChangedLine) {
+		sequences[producer] = ++sequence;
+		firstChangedLines[producer] = firstChangedLine;
+		lastChangedLines[producer] = lastChangedLine;
+		published = producer;
+		producer = ready.getAndSet(producer | FRESH) & INDEX;
+	}
+
+	// Last frame published. Only the producer thread may call, and only to read
+	public int[] publishedBuffer() {
+		return buffers[published];
+	}
+
+	// Takes the latest complete frame if there is a new one since last call. Only the consumer thread may call
+	public boolean acquire() {
+		if ((ready.get() & FRESH) == 0) return false;
+		consumer = ready.getAndSet(consumer) & INDEX;
+		return true;
+	}
+
+	// Buffer with the frame last acquired by the consumer. Only the consumer thread may call
+	public int[] consumerBuffer() {
+		return buffers[consumer];
+	}
+
+	public int consumerIndex() {
+		return consumer;
+	}
+
+	// Number of the frame last acquired, counting every frame published. Skipped frames leave gaps
+	public long consumerSequence() {
+		return sequences[consumer];
+	}
+
+	// Range of lines of the frame last acquired that changed since the frame published before it
+	public int consumerFirstChangedLine() {
+		return firstChangedLines[consumer];
+	}
+
+	public int consumerLastChangedLine() {
+		return lastChangedLines[consumer];
+	}
+
+
+	private final int[][] buffers;
+
+	private int producer = 0;
+	private int consumer = 1;
+	private int published = 2;
+	private long sequence = 0;
+	private final AtomicInteger ready = new AtomicInteger(2);	// Index of the buffer in the middle, plus the FRESH flag
+
+	// Per buffer, written before publishing and so visible to the consumer after acquiring
+	private final long[] sequences = new long[3];
+	private final int[] firstChangedLines = new int[3];
+	private final int[] lastChangedLines = new int[3];
+
+	private static final int INDEX = 0x03;
+	private static final int FRESH = 0x04;
+
+}
@@ -23,6 +23,8 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.Transferable;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -101,28 +103,28 @@ public class Monitor implements ClockDriven, VideoMonitor {
 
 	@Override
 	public boolean nextLine(final int[] pixels, boolean vSynchSignal) {
-		// Synchronize to avoid changing the standard while receiving lines / refreshing frame 
-		synchronized (newDataMonitor) {
-			// Adjusts to the new signal state (on or off) as necessary
-			if (!signalState(pixels != null))		// If signal is off, we are done
-				return false;
-			// Process new line received
-			boolean vSynced = false;
-			if (line < signalHeight)
-				System.arraycopy(pixels, 0, backBuffer, line * signalWidth, signalWidth);
-			else 
-				vSynced = maxLineExceeded();
-			line++;
-			if (videoStandardDetected == null) videoStandardDetectionLines++;
-			if (vSynchSignal) {
-				if (--VSYNCDetectionCount == 0) {
-					if (videoStandardDetected == null) videoStandardDetectionNewFrame();
-					vSynced = newFrame();
-				}
-			} else
-				VSYNCDetectionCount = VSYNC_DETECTION;
-			return vSynced;
-		}
+		// No synchronization needed. Lines go to the producer buffer, owned only by this thread.
+		// The standard is only changed here, in adjustToVideoSignal()
+		// Adjusts to the new signal state (on or off) as necessary
+		if (!signalState(pixels != null))		// If signal is off, we are done
+			return false;
+		// Process new line received
+		boolean vSynced = false;
+		if (line < signalHeight) {
+			if (!FRAME_DIRECT) lineChanged(pixels);
+			System.arraycopy(pixels, 0, frameBuffer.producerBuffer(), line * signalWidth, signalWidth);
+		} else 
+			vSynced = maxLineExceeded();
+		line++;
+		if (videoStandardDetected == null) videoStandardDetectionLines++;
+		if (vSynchSignal) {
+			if (--VSYNCDetectionCount == 0) {
+				if (videoStandardDetected == null) videoStandardDetectionNewFrame();
+				vSynced = newFrame();
+			}
+		} else
+			VSYNCDetectionCount = VSYNC_DETECTION;
+		return vSynced;
 	}
 
 	@Override
@@ -166,18 +168,30 @@ public class Monitor implements ClockDriven, VideoMonitor {
 
 	private boolean newFrame() {
 		if (line < signalHeight - VSYNC_TOLERANCE) return false;
-		// Copy only the contents needed (displayWidth x displayHight) to the frontBuffer
-		arrayCopyWithStride(
-				backBuffer, displayOriginY * signalWidth + displayOriginX, 
-				frontBuffer, 0, displayWidth * displayHeight, 
-				displayWidth, signalWidth
-		);
+		// Lines not received in a short frame keep the previous frame contents, as in the previous buffer
+		if (line < signalHeight && debug == 0)
+			System.arraycopy(frameBuffer.publishedBuffer(), line * signalWidth, frameBuffer.producerBuffer(), line * signalWidth, (signalHeight - line) * signalWidth);
+		// Hand the complete frame to the display and start writing to another buffer. No copies are made
+		if (debug > 0) frameBuffer.publish();
+		else frameBuffer.publish(firstChangedLine, lastChangedLine);
+		firstChangedLine = lastChangedLine = -1;
 		if (fps < 0) clock.interrupt();
 		cleanBackBuffer();
 		line = 0;
 		return true;
 	}
 
+	// Keeps the range of lines that differ from the frame published before, so only those are copied to the image
+	private void lineChanged(int[] pixels) {
+		int[] previous = frameBuffer.publishedBuffer();
+		for (int i = 0, p = line * signalWidth; i < signalWidth; i++, p++)
+			if (pixels[i] != previous[p]) {
+				if (firstChangedLine < 0) firstChangedLine = line;
+				lastChangedLine = line;
+				return;
+			}
+	}
+
 	private boolean maxLineExceeded() {
 		if (line > signalHeight + VSYNC_TOLERANCE) {
 			if (debug > 0) System.out.println("Display maximum scanlines exceeded, line: " + line);
@@ -197,7 +211,7 @@ public class Monitor implements ClockDriven, VideoMonitor {
 
 	private void cleanBackBuffer() {
 		// Clear screen if in debug mode, and put a nice green for detection of undrawn lines
-		if (debug > 0) Arrays.fill(backBuffer, Color.GREEN.getRGB());		 
+		if (debug > 0) Arrays.fill(frameBuffer.producerBuffer(), Color.GREEN.getRGB());		 
 	}
 
 	private void videoStandardDetectionNewFrame() {
@@ -288,18 +302,49 @@ public class Monitor implements ClockDriven, VideoMonitor {
 	}
 
 	private void adjustToVideoStandard(VideoStandard videoStandard) {
-		// Synchronize on nextLine() and refresh() monitors to avoid changing the standard while receiving lines / refreshing frame 
-		synchronized (refreshMonitor) { synchronized (newDataMonitor) {
+		// Synchronize on refresh() monitor to avoid changing the standard while refreshing frame 
+		synchronized (refreshMonitor) {
 			signalStandard = videoStandard;
 			signalWidth = videoStandard.width;
 			signalHeight = videoStandard.height;
 			setDisplaySize(displayWidth, displayHeightPct);
 			setDisplayOrigin(displayOriginX, displayOriginYPct);
-			backBuffer = new int[signalWidth * signalHeight];
-			frontBuffer = new int[signalWidth * signalHeight];
-			frameImage = new BufferedImage(signalWidth, signalHeight, BufferedImage.TYPE_INT_ARGB);
-			if (FRAME_ACCELERATION >= 0) frameImage.setAccelerationPriority(FRAME_ACCELERATION);
-		}}
+			if (FRAME_DIRECT) {
+				// The buffers are the images own data. Frames are never copied, but images can not be accelerated
+				int[][] buffers = new int[3][];
+				frameImages = new BufferedImage[3];
+				for (int i = 0; i < 3; i++) {
+					buffers[i] = new int[signalWidth * signalHeight];
+					frameImages[i] = directFrameImage(buffers[i]);
+				}
+				frameBuffer = new FrameTripleBuffer(buffers);
+				frameImage = frameImages[frameBuffer.consumerIndex()];
+			} else {
+				// Only the lines changed since the frame in the image are copied to it
+				int[][] buffers = new int[3][];
+				frameRasters = new Raster[3];
+				for (int i = 0; i < 3; i++) {
+					buffers[i] = new int[signalWidth * signalHeight];
+					frameRasters[i] = frameRaster(buffers[i]);
+				}
+				frameImages = null;
+				frameBuffer = new FrameTripleBuffer(buffers);
+				frameImage = new BufferedImage(signalWidth, signalHeight, BufferedImage.TYPE_INT_ARGB);
+				if (FRAME_ACCELERATION >= 0) frameImage.setAccelerationPriority(FRAME_ACCELERATION);
+				frameImageSequence = -1;
+			}
+			firstChangedLine = lastChangedLine = -1;
+		}
+	}
+
+	private BufferedImage directFrameImage(int[] data) {
+		return new BufferedImage(ColorModel.getRGBdefault(), frameRaster(data), false, null);
+	}
+
+	private WritableRaster frameRaster(int[] data) {
+		DirectColorModel colorModel = (DirectColorModel) ColorModel.getRGBdefault();		// Same as TYPE_INT_ARGB
+		return Raster.createPackedRaster(new DataBufferInt(data, data.length), 
+				signalWidth, signalHeight, signalWidth, colorModel.getMasks(), null);
 	}
 
 	private void adjustToVideoSignalOff() {
@@ -407,12 +452,33 @@ public class Monitor implements ClockDriven, VideoMonitor {
 		if (crtMode > 0 && crtMode != 3) {
 			graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, CRT_RETENTION_ALPHA));
 			// Draw old frame
-			graphics.drawImage(frameImage, 0, 0, effectiveWidth, effectiveHeight, 0, 0, displayWidth, displayHeight, null);
+			graphics.drawImage(frameImage, 0, 0, effectiveWidth, effectiveHeight, 
+					displayOriginX, displayOriginY, displayOriginX + displayWidth, displayOriginY + displayHeight, null);
 		}
-		// Update the image to draw with contents stored in the frontBuffer
-		frameImage.getRaster().setDataElements(0, 0, displayWidth, displayHeight, frontBuffer);
-		// Draw new frame
-		graphics.drawImage(frameImage, 0, 0, effectiveWidth, effectiveHeight, 0, 0, displayWidth, displayHeight, null);
+		// Update the image to draw only if there is a new complete frame
+		if (frameBuffer.acquire()) {
+			if (frameImages != null)
+				frameImage = frameImages[frameBuffer.consumerIndex()];
+			else
+				updateFrameImage();
+		}
+		// Draw new frame, only the displayed portion of the signal
+		graphics.drawImage(frameImage, 0, 0, effectiveWidth, effectiveHeight, 
+				displayOriginX, displayOriginY, displayOriginX + displayWidth, displayOriginY + displayHeight, null);
+	}
+
+	// Copies only the lines changed since the frame in the image, or all of them if frames were skipped
+	private void updateFrameImage() {
+		int first = 0, last = signalHeight - 1;
+		long sequence = frameBuffer.consumerSequence();
+		if (sequence == frameImageSequence + 1) {
+			first = frameBuffer.consumerFirstChangedLine();
+			last = Math.min(frameBuffer.consumerLastChangedLine(), signalHeight - 1);
+		}
+		frameImageSequence = sequence;
+		if (first < 0) return;		// Same frame
+		Raster changed = frameRasters[frameBuffer.consumerIndex()].createChild(0, first, signalWidth, last - first + 1, 0, first, null);
+		frameImage.getRaster().setDataElements(0, 0, changed);
 	}
 
 	private void renderScanlines(Graphics2D graphics, int effectiveWidth, int effectiveHeight) {
@@ -580,20 +646,8 @@ public class Monitor implements ClockDriven, VideoMonitor {
 		}
 	}
 
-	private static void arrayCopyWithStride(int[] src, int srcPos, int dest[], int destPos, int length, int chunk, int stride) {
-		int total = 0;
-		while(total < length) {
-			System.arraycopy(src, srcPos, dest, destPos, chunk);
-			srcPos += stride;
-			destPos += chunk;
-			total += chunk;
-		}
-	}
-	
-
 	public Clock clock;
 	
-	public String newDataMonitor = "nextLineMonitor";		// Used only for synchronization
 	public String refreshMonitor = "refreshMonitor";		// Used only for synchronization
 
 	private MonitorControls monitorControls;
@@ -614,8 +668,7 @@ public class Monitor implements ClockDriven, VideoMonitor {
 	private int videoStandardDetectionTotalLinesCount;
 	private int videoStandardDetectionLines = 0;
 
-	private int[] backBuffer;
-	private int[] frontBuffer;
+	private FrameTripleBuffer frameBuffer;
 
 	private int displayWidth;
 	private int displayHeight;
@@ -642,6 +695,11 @@ public class Monitor implements ClockDriven, VideoMonitor {
 	private MonitorDisplay display;
 
 	private BufferedImage frameImage;
+	private BufferedImage[] frameImages;		// Only in direct mode, one for each buffer
+	private Raster[] frameRasters;				// Only in copy mode, one over each buffer
+	private long frameImageSequence = -1;		// Frame in the image, in copy mode
+	private int firstChangedLine = -1;			// Lines of the frame being received that differ from the frame published before
+	private int lastChangedLine = -1;
 	
 	private BufferedImage scanlinesTextureImage;
 	private CRTTriadComposite crtTriadComposite;
@@ -672,6 +730,7 @@ public class Monitor implements ClockDriven, VideoMonitor {
 	public static final boolean  PAGE_FLIPPING = Parameters.SCREEN_PAGE_FLIPPING;
 	public static final int      BUFFER_VSYNC = Parameters.SCREEN_BUFFER_VSYNC;
 	public static final float    FRAME_ACCELERATION = Parameters.SCREEN_FRAME_ACCELERATION;
+	public static final boolean  FRAME_DIRECT = Parameters.SCREEN_FRAME_DIRECT;
 	public static final float    IMTERM_FRAME_ACCELERATION = Parameters.SCREEN_INTERM_FRAME_ACCELERATION;
 	public static final float    SCANLINES_ACCELERATION = Parameters.SCREEN_SCANLINES_ACCELERATION;
 	private static final boolean CARTRIDGE_CHANGE = Parameters.SCREEN_CARTRIDGE_CHANGE;
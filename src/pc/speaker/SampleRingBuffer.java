@@ -0,0 +1,75 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package pc.speaker;
+
+// Ring of 16 bit samples stored as little-endian bytes, ready for the audio line. Lock-free for exactly one producer thread
+// putting samples and one consumer thread getting them: each side only changes its own position, published as volatile.
+// Positions only grow, so the amount stored is always their difference. Only whole frames, one sample of each channel, are moved
+public final class SampleRingBuffer {
+
+	public SampleRingBuffer(int minCapacityFrames, int channels) {
+		frameBytes = channels * 2;
+		int capacity = Integer.highestOneBit(Math.max(minCapacityFrames * frameBytes - 1, 1)) << 1;
+		data = new byte[capacity];
+		mask = capacity - 1;
+	}
+
+	// Producer side. Samples that do not fit are dropped and counted as overruns. Returns the samples put
+	public int put(short[] samples, int quant) {
+		long write = writePosition;
+		int free = data.length - (int)(write - readPosition);
+		int bytes = Math.min(quant * 2, free);
+		bytes -= bytes % frameBytes;
+		for (int i = 0, pos; i < bytes; i += 2) {
+			pos = (int)(write + i) & mask;				// Capacity is even, so both bytes fit before the end
+			short sample = samples[i >> 1];
+			data[pos] = (byte)sample;
+			data[pos + 1] = (byte)(sample >> 8);
+		}
+		if (bytes < quant * 2) overruns += quant - (bytes >> 1);
+		writePosition = write + bytes;
+		return bytes >> 1;
+	}
+
+	// Consumer side. Finding no samples at all is counted as an underrun. Returns the bytes got
+	public int get(byte[] buffer, int maxBytes) {
+		long read = readPosition;
+		int bytes = Math.min((int)(writePosition - read), maxBytes);
+		bytes -= bytes % frameBytes;
+		if (bytes <= 0) {
+			underruns++;
+			return 0;
+		}
+		int pos = (int)read & mask;
+		int first = Math.min(bytes, data.length - pos);
+		System.arraycopy(data, pos, buffer, 0, first);
+		if (first < bytes) System.arraycopy(data, 0, buffer, first, bytes - first);
+		readPosition = read + bytes;
+		return bytes;
+	}
+
+	public int capacityBytes() {
+		return data.length;
+	}
+
+	// Samples dropped because the ring was full
+	public long overruns() {
+		return overruns;
+	}
+
+	// Times the consumer found the ring empty
+	public long underruns() {
+		return underruns;
+	}
+
+
+	private final byte[] data;
+	private final int mask;
+	private final int frameBytes;
+
+	private volatile long writePosition = 0;		// Changed only by the producer
+	private volatile long readPosition = 0;			// Changed only by the consumer
+	private volatile long overruns = 0;				// Changed only by the producer
+	private volatile long underruns = 0;			// Changed only by the consumer
+
+}
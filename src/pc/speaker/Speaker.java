@@ -7,8 +7,6 @@ import general.av.audio.AudioSignal;
 import general.board.Clock;
 import general.board.ClockDriven;
 
-import java.nio.ByteBuffer;
-
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.SourceDataLine;
@@ -47,15 +45,23 @@ public class Speaker implements ClockDriven, AudioMonitor  {
 		clock.terminate();
 	}
 
+	// Called by the Console thread, while the Speaker clock thread consumes the same buffer. No locks involved
 	@Override
-	public synchronized void nextSamples(byte[] buffer, int quant) {
-		// Drop samples that don't fit the input buffer available capacity
-		int ava = inputBuffer.remaining();
-		if (ava > quant)
-			ava = quant;
-		// else
-		//	System.out.println(">>>> DROPPED: " + (quant - ava));
-		inputBuffer.put(buffer, 0, ava);
+	public void nextSamples(short[] buffer, int quant) {
+		SampleRingBuffer ring = inputRing;
+		if (ring == null) return;
+		// Samples that don't fit the input buffer available capacity are dropped
+		ring.put(buffer, quant);
+	}
+
+	public long overruns() {
+		SampleRingBuffer ring = inputRing;
+		return ring != null ? ring.overruns() : 0;
+	}
+
+	public long underruns() {
+		SampleRingBuffer ring = inputRing;
+		return ring != null ? ring.underruns() : 0;
 	}
 	
 	@Override
@@ -70,12 +76,15 @@ public class Speaker implements ClockDriven, AudioMonitor  {
 
 	private void getLine() {
 		if (signal == null) return;
-		AudioFormat audioFormat = AUDIO_FORMAT;
+		// Signed 16 bits little-endian, at the rate and channels the signal generates
+		int channels = signal.channels();
+		AudioFormat audioFormat = new AudioFormat(signal.sampleRate(), 16, channels, true, false);
 		try {
 			dataLine = AudioSystem.getSourceDataLine(audioFormat);
-			dataLine.open(audioFormat, OUTPUT_BUFFER_SIZE);
-			inputBuffer = ByteBuffer.allocateDirect(INPUT_BUFFER_SIZE);
-			tempBuffer = new byte[inputBuffer.capacity()];
+			int frameBytes = audioFormat.getFrameSize();
+			dataLine.open(audioFormat, OUTPUT_BUFFER_SIZE * frameBytes);
+			tempBuffer = new byte[INPUT_BUFFER_SIZE * frameBytes];
+			inputRing = new SampleRingBuffer(INPUT_BUFFER_SIZE, channels);
 			if (ADDED_THREAD_PRIORITY != 0) clock.setPriority(Thread.NORM_PRIORITY + ADDED_THREAD_PRIORITY);
 			System.out.println("Sound Mixer Line: " + dataLine);
 			System.out.println("Sound Output buffer: " + dataLine.getBufferSize());
@@ -85,18 +94,9 @@ public class Speaker implements ClockDriven, AudioMonitor  {
 		}
 	}
 
-	private synchronized int getFromInputBuffer(byte[] buffer, int quant) {
-		inputBuffer.flip();
-		int ava = inputBuffer.remaining();
-		if (ava > quant)
-			ava = quant;
-		inputBuffer.get(buffer, 0, ava);
-		inputBuffer.compact();
-		return ava;
-	}
-
 	private void refresh() {
 		int ava = dataLine.available();		// this is a little expensive... :-(
+		if (ava > tempBuffer.length) ava = tempBuffer.length;
 		if (ava == 0) {
 			if (OUTPUT_BUFFER_FULL_SLEEP_TIME > 0 && fps < 0) {
 				// System.out.println("Buffer Full, sleeping...");
@@ -104,8 +104,7 @@ public class Speaker implements ClockDriven, AudioMonitor  {
 			}
 			return;
 		}
-		int data = getFromInputBuffer(tempBuffer, ava);
-		// System.out.println(ava + ", " + data + ", " + inputBuffer.remaining());
+		int data = inputRing.get(tempBuffer, ava);			// Always whole frames
 		if (data == 0) {
 			if (NO_DATA_SLEEP_TIME > 0 && fps < 0) {
 				// System.out.println("NO DATA, sleeping...");
@@ -123,10 +122,8 @@ public class Speaker implements ClockDriven, AudioMonitor  {
 	private AudioSignal signal;
 	
 	private SourceDataLine dataLine;
-	private ByteBuffer inputBuffer;
+	private volatile SampleRingBuffer inputRing;
 	private byte[] tempBuffer;		
-	
-	private final AudioFormat AUDIO_FORMAT = new AudioFormat(Parameters.TIA_AUDIO_SAMPLE_RATE, 8, 1, true, false);
 
 	public static final double DEFAULT_FPS = Parameters.SPEAKER_DEFAULT_FPS;	
 	public static final int INPUT_BUFFER_SIZE = Parameters.SPEAKER_INPUT_BUFFER_SIZE;					// In frames (samples)
@@ -0,0 +1,28 @@
+// Copyright 2011-2012 Paulo Augusto Peccin. See licence.txt distributed with this file.
+
+package utils;
+
+import java.nio.ByteBuffer;
+
+// Helpers for the primitive snapshots written by the emulation components into reusable ByteBuffers
+public class SnapshotBuffers {
+
+	public static void putBoolean(ByteBuffer buffer, boolean value) {
+		buffer.put(value ? (byte)1 : (byte)0);
+	}
+
+	public static boolean getBoolean(ByteBuffer buffer) {
+		return buffer.get() != 0;
+	}
+
+	public static void putInts(ByteBuffer buffer, int[] values) {
+		for (int i = 0; i < values.length; i++)
+			buffer.putInt(values[i]);
+	}
+
+	public static void getInts(ByteBuffer buffer, int[] values) {
+		for (int i = 0; i < values.length; i++)
+			values[i] = buffer.getInt();
+	}
+
+}